@@ -0,0 +1,445 @@
+// 由 tools/ProtocolGenerator.java 根据 protocol/game.schema 生成，请勿手工修改
+using System;
+using System.Text;
+
+namespace GameServer.Protocol
+{
+    /// <summary>
+    /// 二进制协议信息
+    /// </summary>
+    public static class ProtocolInfo
+    {
+        public const int Version = 1;
+    }
+
+    /// <summary>
+    /// 二进制消息格式错误
+    /// </summary>
+    public class ProtocolException : Exception
+    {
+        public ProtocolException(string message) : base(message) { }
+    }
+
+    /// <summary>
+    /// 写入器，可通过Reset重复使用以避免每条消息分配缓冲区
+    /// </summary>
+    public sealed class ProtocolWriter
+    {
+        private byte[] buffer = new byte[64];
+        private int length;
+
+        public byte[] Buffer { get { return buffer; } }
+        public int Length { get { return length; } }
+
+        public void Reset()
+        {
+            length = 0;
+        }
+
+        public void WriteU8(byte value)
+        {
+            EnsureCapacity(1);
+            buffer[length++] = value;
+        }
+
+        public void WriteVarInt(int value)
+        {
+            EnsureCapacity(5);
+            uint v = (uint)value;
+            while (v >= 0x80)
+            {
+                buffer[length++] = (byte)(v | 0x80);
+                v >>= 7;
+            }
+            buffer[length++] = (byte)v;
+        }
+
+        public void WriteVarLong(long value)
+        {
+            EnsureCapacity(10);
+            ulong v = (ulong)value;
+            while (v >= 0x80)
+            {
+                buffer[length++] = (byte)(v | 0x80);
+                v >>= 7;
+            }
+            buffer[length++] = (byte)v;
+        }
+
+        public void WriteString(string value)
+        {
+            string s = value ?? "";
+            int byteCount = Encoding.UTF8.GetByteCount(s);
+            WriteVarInt(byteCount);
+            EnsureCapacity(byteCount);
+            length += Encoding.UTF8.GetBytes(s, 0, s.Length, buffer, length);
+        }
+
+        private void EnsureCapacity(int extra)
+        {
+            if (length + extra > buffer.Length)
+            {
+                Array.Resize(ref buffer, Math.Max(buffer.Length * 2, length + extra));
+            }
+        }
+    }
+
+    /// <summary>
+    /// 读取器，直接在接收缓冲区上按顺序读取字段
+    /// </summary>
+    public sealed class ProtocolReader
+    {
+        private readonly byte[] data;
+        private readonly int end;
+        private int position;
+
+        public ProtocolReader(byte[] data, int offset, int count)
+        {
+            this.data = data;
+            this.position = offset;
+            this.end = offset + count;
+        }
+
+        public byte ReadU8()
+        {
+            Require(1);
+            return data[position++];
+        }
+
+        public int ReadVarInt()
+        {
+            uint value = 0;
+            for (int shift = 0; shift < 35; shift += 7)
+            {
+                byte b = ReadU8();
+                value |= (uint)(b & 0x7F) << shift;
+                if ((b & 0x80) == 0)
+                {
+                    return (int)value;
+                }
+            }
+            throw new ProtocolException("变长整数超过5字节");
+        }
+
+        public long ReadVarLong()
+        {
+            ulong value = 0;
+            for (int shift = 0; shift < 70; shift += 7)
+            {
+                byte b = ReadU8();
+                value |= (ulong)(b & 0x7F) << shift;
+                if ((b & 0x80) == 0)
+                {
+                    return (long)value;
+                }
+            }
+            throw new ProtocolException("变长长整数超过10字节");
+        }
+
+        public string ReadString()
+        {
+            int count = ReadVarInt();
+            if (count < 0)
+            {
+                throw new ProtocolException("字符串长度不合法: " + count);
+            }
+            Require(count);
+            string value = Encoding.UTF8.GetString(data, position, count);
+            position += count;
+            return value;
+        }
+
+        private void Require(int count)
+        {
+            if (end - position < count)
+            {
+                throw new ProtocolException("消息被截断");
+            }
+        }
+    }
+
+    /// <summary>
+    /// 聊天消息
+    /// </summary>
+    public sealed class ChatMessage
+    {
+        public const byte Opcode = 0x01;
+
+        public string Text;
+
+        public ChatMessage(string text)
+        {
+            Text = text;
+        }
+
+        /// <summary>
+        /// 读取操作码之后的字段
+        /// </summary>
+        public static ChatMessage Decode(ProtocolReader reader)
+        {
+            return new ChatMessage(reader.ReadString());
+        }
+
+        public void Encode(ProtocolWriter writer)
+        {
+            writer.WriteU8(Opcode);
+            writer.WriteString(Text);
+        }
+    }
+
+    /// <summary>
+    /// 文本命令，内容与文本协议中的命令行相同（如 "/name 张三"）
+    /// </summary>
+    public sealed class CommandMessage
+    {
+        public const byte Opcode = 0x02;
+
+        public string Line;
+
+        public CommandMessage(string line)
+        {
+            Line = line;
+        }
+
+        /// <summary>
+        /// 读取操作码之后的字段
+        /// </summary>
+        public static CommandMessage Decode(ProtocolReader reader)
+        {
+            return new CommandMessage(reader.ReadString());
+        }
+
+        public void Encode(ProtocolWriter writer)
+        {
+            writer.WriteU8(Opcode);
+            writer.WriteString(Line);
+        }
+    }
+
+    /// <summary>
+    /// 心跳（双向）；echo为0表示发起心跳，否则为回显的对方时间戳
+    /// </summary>
+    public sealed class HeartbeatMessage
+    {
+        public const byte Opcode = 0x03;
+
+        public long SentAt;
+        public long Echo;
+
+        public HeartbeatMessage(long sentAt, long echo)
+        {
+            SentAt = sentAt;
+            Echo = echo;
+        }
+
+        /// <summary>
+        /// 读取操作码之后的字段
+        /// </summary>
+        public static HeartbeatMessage Decode(ProtocolReader reader)
+        {
+            return new HeartbeatMessage(reader.ReadVarLong(), reader.ReadVarLong());
+        }
+
+        public void Encode(ProtocolWriter writer)
+        {
+            writer.WriteU8(Opcode);
+            writer.WriteVarLong(SentAt);
+            writer.WriteVarLong(Echo);
+        }
+    }
+
+    /// <summary>
+    /// 向指定方向移动一格，方向编码：0上 1下 2左 3右
+    /// </summary>
+    public sealed class MoveMessage
+    {
+        public const byte Opcode = 0x04;
+
+        public byte Direction;
+
+        public MoveMessage(byte direction)
+        {
+            Direction = direction;
+        }
+
+        /// <summary>
+        /// 读取操作码之后的字段
+        /// </summary>
+        public static MoveMessage Decode(ProtocolReader reader)
+        {
+            return new MoveMessage(reader.ReadU8());
+        }
+
+        public void Encode(ProtocolWriter writer)
+        {
+            writer.WriteU8(Opcode);
+            writer.WriteU8(Direction);
+        }
+    }
+
+    /// <summary>
+    /// 移动到指定坐标，距离不能超过服务器的maxMoveDistance
+    /// </summary>
+    public sealed class MoveToMessage
+    {
+        public const byte Opcode = 0x05;
+
+        public int X;
+        public int Y;
+
+        public MoveToMessage(int x, int y)
+        {
+            X = x;
+            Y = y;
+        }
+
+        /// <summary>
+        /// 读取操作码之后的字段
+        /// </summary>
+        public static MoveToMessage Decode(ProtocolReader reader)
+        {
+            return new MoveToMessage(reader.ReadVarInt(), reader.ReadVarInt());
+        }
+
+        public void Encode(ProtocolWriter writer)
+        {
+            writer.WriteU8(Opcode);
+            writer.WriteVarInt(X);
+            writer.WriteVarInt(Y);
+        }
+    }
+
+    /// <summary>
+    /// 服务器发给玩家的消息
+    /// </summary>
+    public sealed class NoticeMessage
+    {
+        public const byte Opcode = 0x81;
+
+        public string Sender;
+        public string Text;
+
+        public NoticeMessage(string sender, string text)
+        {
+            Sender = sender;
+            Text = text;
+        }
+
+        /// <summary>
+        /// 读取操作码之后的字段
+        /// </summary>
+        public static NoticeMessage Decode(ProtocolReader reader)
+        {
+            return new NoticeMessage(reader.ReadString(), reader.ReadString());
+        }
+
+        public void Encode(ProtocolWriter writer)
+        {
+            writer.WriteU8(Opcode);
+            writer.WriteString(Sender);
+            writer.WriteString(Text);
+        }
+    }
+
+    /// <summary>
+    /// 玩家进入视野（含初始位置）；name为玩家昵称，未设置时为令牌的8位16进制文本
+    /// </summary>
+    public sealed class PlayerEnterMessage
+    {
+        public const byte Opcode = 0x82;
+
+        public int PlayerId;
+        public string Name;
+        public int X;
+        public int Y;
+
+        public PlayerEnterMessage(int playerId, string name, int x, int y)
+        {
+            PlayerId = playerId;
+            Name = name;
+            X = x;
+            Y = y;
+        }
+
+        /// <summary>
+        /// 读取操作码之后的字段
+        /// </summary>
+        public static PlayerEnterMessage Decode(ProtocolReader reader)
+        {
+            return new PlayerEnterMessage(reader.ReadVarInt(), reader.ReadString(), reader.ReadVarInt(), reader.ReadVarInt());
+        }
+
+        public void Encode(ProtocolWriter writer)
+        {
+            writer.WriteU8(Opcode);
+            writer.WriteVarInt(PlayerId);
+            writer.WriteString(Name);
+            writer.WriteVarInt(X);
+            writer.WriteVarInt(Y);
+        }
+    }
+
+    /// <summary>
+    /// 视野内的玩家（包括自己）移动后的位置
+    /// </summary>
+    public sealed class PlayerMovedMessage
+    {
+        public const byte Opcode = 0x83;
+
+        public int PlayerId;
+        public int X;
+        public int Y;
+
+        public PlayerMovedMessage(int playerId, int x, int y)
+        {
+            PlayerId = playerId;
+            X = x;
+            Y = y;
+        }
+
+        /// <summary>
+        /// 读取操作码之后的字段
+        /// </summary>
+        public static PlayerMovedMessage Decode(ProtocolReader reader)
+        {
+            return new PlayerMovedMessage(reader.ReadVarInt(), reader.ReadVarInt(), reader.ReadVarInt());
+        }
+
+        public void Encode(ProtocolWriter writer)
+        {
+            writer.WriteU8(Opcode);
+            writer.WriteVarInt(PlayerId);
+            writer.WriteVarInt(X);
+            writer.WriteVarInt(Y);
+        }
+    }
+
+    /// <summary>
+    /// 玩家离开视野或下线
+    /// </summary>
+    public sealed class PlayerLeaveMessage
+    {
+        public const byte Opcode = 0x84;
+
+        public int PlayerId;
+
+        public PlayerLeaveMessage(int playerId)
+        {
+            PlayerId = playerId;
+        }
+
+        /// <summary>
+        /// 读取操作码之后的字段
+        /// </summary>
+        public static PlayerLeaveMessage Decode(ProtocolReader reader)
+        {
+            return new PlayerLeaveMessage(reader.ReadVarInt());
+        }
+
+        public void Encode(ProtocolWriter writer)
+        {
+            writer.WriteU8(Opcode);
+            writer.WriteVarInt(PlayerId);
+        }
+    }
+}
@@ -1,9 +1,14 @@
 using UnityEngine;
 using System;
+using System.IO;
+using System.IO.Compression;
+using System.Net;
 using System.Net.Sockets;
 using System.Text;
+using System.Text.RegularExpressions;
 using System.Threading;
 using System.Collections.Generic;
+using GameServer.Protocol;
 
 /// <summary>
 /// Unity游戏客户端
@@ -18,6 +23,30 @@ public class UnityGameClient : MonoBehaviour
     private string host = "localhost";
     private int port = 9090;
     
+    // 二进制协议：连接后通过握手协商，编解码代码见GameProtocol.cs
+    // 不勾选时不发送握手，与旧版本客户端一样使用文本协议
+    public bool useBinaryProtocol = false;
+    private readonly ProtocolWriter protocolWriter = new ProtocolWriter();
+    private readonly object sendLock = new object();
+    
+    // UDP通道：服务器启用udpEnabled时，欢迎消息中带有会话令牌和端口
+    // 勾选后移动改走UDP，位置更新也从UDP接收，聊天和命令仍走TCP
+    public bool useUdp = false;
+    private static readonly Regex UdpWelcomePattern = new Regex(@"UDP会话令牌: ([0-9a-fA-F]+)，端口: (\d+)");
+    private const byte UdpBind = 0x01;
+    private const byte UdpMove = 0x02;
+    private const byte UdpBindAck = 0x81;
+    private const byte UdpState = 0x82;
+    private UdpClient udpClient;
+    private Thread udpReceiveThread;
+    private long udpToken;
+    private int udpSequence;
+    private volatile bool udpBound = false;
+    private DateTime lastBindSent = DateTime.MinValue;
+    private readonly object udpLock = new object();
+    // 每个玩家最近一次位置更新的序号，只在UDP接收线程中访问
+    private readonly Dictionary<int, int> lastStateSequence = new Dictionary<int, int>();
+    
     // 存储接收到的消息
     private Queue<string> messageQueue = new Queue<string>();
     private object queueLock = new object();
@@ -43,6 +72,13 @@ public class UnityGameClient : MonoBehaviour
         // 处理键盘输入
         HandleKeyboardInput();
         
+        // 绑定请求可能丢失，收到确认之前每秒重发一次
+        if (udpClient != null && !udpBound && (DateTime.UtcNow - lastBindSent).TotalSeconds >= 1)
+        {
+            lastBindSent = DateTime.UtcNow;
+            SendUdp(UdpBind, null);
+        }
+        
         // 处理接收到的消息
         ProcessMessages();
     }
@@ -80,7 +116,7 @@ public class UnityGameClient : MonoBehaviour
                 AddMessageToQueue("======================\n");
                 
                 // 启动接收线程
-                receiveThread = new Thread(ReceiveMessages);
+                receiveThread = useBinaryProtocol ? new Thread(ReceiveBinaryMessages) : new Thread(ReceiveMessages);
                 receiveThread.IsBackground = true;
                 receiveThread.Start();
             });
@@ -133,6 +169,316 @@ public class UnityGameClient : MonoBehaviour
         }
     }
     
+    /// <summary>
+    /// 握手后接收二进制协议的消息：[4字节大端长度][操作码][字段]
+    /// </summary>
+    private void ReceiveBinaryMessages()
+    {
+        byte[] buffer = new byte[4096];
+        int buffered = 0;
+        bool handshakeDone = false;
+        
+        try
+        {
+            // 握手请求和回复都是一行文本
+            byte[] hello = Encoding.ASCII.GetBytes("HELLO " + ProtocolInfo.Version + " format=binary framing=length compression=deflate\n");
+            lock (sendLock)
+            {
+                networkStream.Write(hello, 0, hello.Length);
+            }
+            
+            while (connected && tcpClient.Connected)
+            {
+                if (buffered == buffer.Length)
+                {
+                    Array.Resize(ref buffer, buffer.Length * 2);
+                }
+                int bytesRead = networkStream.Read(buffer, buffered, buffer.Length - buffered);
+                if (bytesRead == 0)
+                {
+                    // 连接关闭
+                    break;
+                }
+                buffered += bytesRead;
+                
+                int offset = 0;
+                if (!handshakeDone)
+                {
+                    int newline = Array.IndexOf(buffer, (byte)'\n', 0, buffered);
+                    if (newline < 0)
+                    {
+                        continue;
+                    }
+                    string reply = Encoding.ASCII.GetString(buffer, 0, newline).Trim();
+                    if (!reply.StartsWith("HELLO ") || !reply.Contains("format=binary"))
+                    {
+                        AddMessageToQueue("服务器不支持二进制协议: " + reply + "\n");
+                        break;
+                    }
+                    handshakeDone = true;
+                    offset = newline + 1;
+                    
+                    // 发起心跳，服务器此后会定期发来心跳并期待回显
+                    SendBinary(new HeartbeatMessage(CurrentTimeMillis(), 0).Encode);
+                }
+                
+                // 处理所有完整的帧，剩余的不完整帧移到缓冲区开头
+                while (buffered - offset >= 4)
+                {
+                    int lengthField = (buffer[offset] << 24) | (buffer[offset + 1] << 16) | (buffer[offset + 2] << 8) | buffer[offset + 3];
+                    // 长度字段最高位表示消息体经过deflate压缩
+                    bool compressed = (lengthField & unchecked((int)0x80000000)) != 0;
+                    int length = lengthField & 0x7FFFFFFF;
+                    if (buffered - offset - 4 < length)
+                    {
+                        if (length + 4 > buffer.Length)
+                        {
+                            Array.Resize(ref buffer, length + 4);
+                        }
+                        break;
+                    }
+                    if (compressed)
+                    {
+                        byte[] payload = Inflate(buffer, offset + 4, length);
+                        HandleBinaryMessage(payload, 0, payload.Length);
+                    }
+                    else
+                    {
+                        HandleBinaryMessage(buffer, offset + 4, length);
+                    }
+                    offset += 4 + length;
+                }
+                Buffer.BlockCopy(buffer, offset, buffer, 0, buffered - offset);
+                buffered -= offset;
+            }
+        }
+        catch (Exception ex)
+        {
+            if (connected)
+            {
+                Debug.LogError("接收消息时出错: " + ex.Message);
+                AddMessageToQueue("接收错误: " + ex.Message + "\n");
+            }
+        }
+        finally
+        {
+            Disconnect();
+            AddMessageToQueue("服务器连接已关闭\n");
+        }
+    }
+    
+    /// <summary>
+    /// 解压服务器发来的原始deflate消息体
+    /// </summary>
+    private static byte[] Inflate(byte[] data, int offset, int count)
+    {
+        using (DeflateStream inflater = new DeflateStream(new MemoryStream(data, offset, count), CompressionMode.Decompress))
+        using (MemoryStream output = new MemoryStream(count * 4))
+        {
+            inflater.CopyTo(output);
+            return output.ToArray();
+        }
+    }
+    
+    /// <summary>
+    /// 按操作码处理一条二进制消息
+    /// </summary>
+    private void HandleBinaryMessage(byte[] data, int offset, int length)
+    {
+        if (length == 0)
+        {
+            return;
+        }
+        ProtocolReader reader = new ProtocolReader(data, offset + 1, length - 1);
+        switch (data[offset])
+        {
+            case NoticeMessage.Opcode:
+                NoticeMessage notice = NoticeMessage.Decode(reader);
+                AddMessageToQueue("[" + notice.Sender + "]: " + notice.Text + "\n");
+                TryStartUdp(notice.Text);
+                break;
+            
+            case PlayerEnterMessage.Opcode:
+                PlayerEnterMessage enter = PlayerEnterMessage.Decode(reader);
+                AddMessageToQueue(enter.Name + " 进入视野 (" + enter.X + ", " + enter.Y + ")\n");
+                break;
+            
+            case PlayerMovedMessage.Opcode:
+                PlayerMovedMessage moved = PlayerMovedMessage.Decode(reader);
+                Debug.Log("玩家 " + moved.PlayerId.ToString("x8") + " 移动到 (" + moved.X + ", " + moved.Y + ")");
+                break;
+            
+            case PlayerLeaveMessage.Opcode:
+                PlayerLeaveMessage leave = PlayerLeaveMessage.Decode(reader);
+                AddMessageToQueue("玩家 " + leave.PlayerId.ToString("x8") + " 离开视野\n");
+                break;
+            
+            case HeartbeatMessage.Opcode:
+                HeartbeatMessage heartbeat = HeartbeatMessage.Decode(reader);
+                if (heartbeat.Echo == 0)
+                {
+                    // 服务器发起的心跳，回显服务器时间戳
+                    SendBinary(new HeartbeatMessage(CurrentTimeMillis(), heartbeat.SentAt).Encode);
+                }
+                break;
+            
+            default:
+                Debug.LogWarning("忽略未知操作码: " + data[offset]);
+                break;
+        }
+    }
+    
+    /// <summary>
+    /// 编码并发送一条二进制消息（加4字节长度前缀）
+    /// </summary>
+    private void SendBinary(Action<ProtocolWriter> encode)
+    {
+        lock (sendLock)
+        {
+            protocolWriter.Reset();
+            protocolWriter.WriteU8(0);
+            protocolWriter.WriteU8(0);
+            protocolWriter.WriteU8(0);
+            protocolWriter.WriteU8(0);
+            encode(protocolWriter);
+            
+            byte[] data = protocolWriter.Buffer;
+            int length = protocolWriter.Length - 4;
+            data[0] = (byte)(length >> 24);
+            data[1] = (byte)(length >> 16);
+            data[2] = (byte)(length >> 8);
+            data[3] = (byte)length;
+            networkStream.Write(data, 0, protocolWriter.Length);
+        }
+    }
+    
+    private static long CurrentTimeMillis()
+    {
+        return DateTimeOffset.UtcNow.ToUnixTimeMilliseconds();
+    }
+    
+    /// <summary>
+    /// 从欢迎消息中取出UDP会话令牌和端口，打开UDP通道
+    /// </summary>
+    private void TryStartUdp(string text)
+    {
+        if (!useUdp || udpClient != null)
+        {
+            return;
+        }
+        Match match = UdpWelcomePattern.Match(text);
+        if (!match.Success)
+        {
+            return;
+        }
+        
+        try
+        {
+            udpToken = (long)ulong.Parse(match.Groups[1].Value, System.Globalization.NumberStyles.HexNumber);
+            UdpClient client = new UdpClient();
+            client.Connect(host, int.Parse(match.Groups[2].Value));
+            udpReceiveThread = new Thread(ReceiveUdp);
+            udpReceiveThread.IsBackground = true;
+            // 绑定请求由Update发出，收到确认后移动改走UDP
+            udpClient = client;
+            udpReceiveThread.Start();
+        }
+        catch (Exception ex)
+        {
+            Debug.LogError("打开UDP通道失败: " + ex.Message);
+        }
+    }
+    
+    /// <summary>
+    /// 发送一个UDP数据报：[令牌 8字节][序号 4字节][类型 1字节][内容]，整数为大端序
+    /// </summary>
+    private void SendUdp(byte type, byte[] content)
+    {
+        lock (udpLock)
+        {
+            if (udpClient == null)
+            {
+                return;
+            }
+            int length = content != null ? content.Length : 0;
+            byte[] datagram = new byte[13 + length];
+            for (int i = 0; i < 8; i++)
+            {
+                datagram[i] = (byte)(udpToken >> (56 - i * 8));
+            }
+            udpSequence++;
+            datagram[8] = (byte)(udpSequence >> 24);
+            datagram[9] = (byte)(udpSequence >> 16);
+            datagram[10] = (byte)(udpSequence >> 8);
+            datagram[11] = (byte)udpSequence;
+            datagram[12] = type;
+            if (length > 0)
+            {
+                Buffer.BlockCopy(content, 0, datagram, 13, length);
+            }
+            try
+            {
+                udpClient.Send(datagram, datagram.Length);
+            }
+            catch (Exception ex)
+            {
+                Debug.LogWarning("发送UDP数据报失败: " + ex.Message);
+            }
+        }
+    }
+    
+    /// <summary>
+    /// 接收UDP数据报：[类型 1字节][序号 4字节][内容]
+    /// 位置更新按玩家只保留序号最新的一条，旧的直接丢弃
+    /// </summary>
+    private void ReceiveUdp()
+    {
+        IPEndPoint remote = new IPEndPoint(IPAddress.Any, 0);
+        try
+        {
+            while (connected && udpClient != null)
+            {
+                byte[] data = udpClient.Receive(ref remote);
+                if (data.Length < 5)
+                {
+                    continue;
+                }
+                int sequence = ReadInt(data, 1);
+                if (data[0] == UdpBindAck)
+                {
+                    if (!udpBound)
+                    {
+                        udpBound = true;
+                        AddMessageToQueue("UDP通道已绑定，移动和位置更新改走UDP\n");
+                    }
+                }
+                else if (data[0] == UdpState && data.Length >= 17)
+                {
+                    int playerToken = ReadInt(data, 5);
+                    int last;
+                    if (lastStateSequence.TryGetValue(playerToken, out last) && sequence - last <= 0)
+                    {
+                        continue;
+                    }
+                    lastStateSequence[playerToken] = sequence;
+                    Debug.Log("玩家 " + playerToken.ToString("x8") + " 移动到 (" + ReadInt(data, 9) + ", " + ReadInt(data, 13) + ")");
+                }
+            }
+        }
+        catch (Exception ex)
+        {
+            if (connected)
+            {
+                Debug.LogWarning("UDP通道已关闭: " + ex.Message);
+            }
+        }
+    }
+    
+    private static int ReadInt(byte[] data, int offset)
+    {
+        return (data[offset] << 24) | (data[offset + 1] << 16) | (data[offset + 2] << 8) | data[offset + 3];
+    }
+    
     /// <summary>
     /// 处理消息行
     /// </summary>
@@ -145,6 +491,7 @@ public class UnityGameClient : MonoBehaviour
         {
             string line = message.Substring(0, newlineIndex + 1);
             AddMessageToQueue(line);
+            TryStartUdp(line);
             message = message.Substring(newlineIndex + 1);
         }
         
@@ -165,8 +512,22 @@ public class UnityGameClient : MonoBehaviour
         
         try
         {
-            byte[] data = Encoding.UTF8.GetBytes(command + "\n");
-            networkStream.Write(data, 0, data.Length);
+            if (useBinaryProtocol)
+            {
+                if (command.StartsWith("/"))
+                {
+                    SendBinary(new CommandMessage(command).Encode);
+                }
+                else
+                {
+                    SendBinary(new ChatMessage(command).Encode);
+                }
+            }
+            else
+            {
+                byte[] data = Encoding.UTF8.GetBytes(command + "\n");
+                networkStream.Write(data, 0, data.Length);
+            }
             
             // 如果是退出命令，关闭连接
             if (command.Equals("/quit", StringComparison.OrdinalIgnoreCase))
@@ -207,6 +568,21 @@ public class UnityGameClient : MonoBehaviour
                 tcpClient = null;
             }
             
+            lock (udpLock)
+            {
+                if (udpClient != null)
+                {
+                    udpClient.Close();
+                    udpClient = null;
+                }
+            }
+            udpBound = false;
+            if (udpReceiveThread != null && udpReceiveThread.IsAlive)
+            {
+                udpReceiveThread.Join(1000);
+                udpReceiveThread = null;
+            }
+            
             if (receiveThread != null && receiveThread.IsAlive)
             {
                 receiveThread.Join(1000); // 等待线程结束
@@ -219,6 +595,27 @@ public class UnityGameClient : MonoBehaviour
         }
     }
     
+    /// <summary>
+    /// 发送移动：UDP通道绑定后走UDP，否则二进制协议使用Move消息，文本协议使用/move命令
+    /// </summary>
+    /// <param name="direction">方向编码（0上 1下 2左 3右）</param>
+    /// <param name="name">方向名称</param>
+    private void SendMove(byte direction, string name)
+    {
+        if (udpBound)
+        {
+            SendUdp(UdpMove, new byte[] { direction });
+        }
+        else if (useBinaryProtocol)
+        {
+            SendBinary(new MoveMessage(direction).Encode);
+        }
+        else
+        {
+            SendCommand("/move " + name);
+        }
+    }
+    
     /// <summary>
     /// 处理键盘输入
     /// </summary>
@@ -227,22 +624,22 @@ public class UnityGameClient : MonoBehaviour
         // 移动命令
         if (Input.GetKeyDown(KeyCode.W))
         {
-            SendCommand("/move up");
+            SendMove(0, "up");
             AddMessageToQueue("发送: 向上移动\n");
         }
         else if (Input.GetKeyDown(KeyCode.S))
         {
-            SendCommand("/move down");
+            SendMove(1, "down");
             AddMessageToQueue("发送: 向下移动\n");
         }
         else if (Input.GetKeyDown(KeyCode.A))
         {
-            SendCommand("/move left");
+            SendMove(2, "left");
             AddMessageToQueue("发送: 向左移动\n");
         }
         else if (Input.GetKeyDown(KeyCode.D))
         {
-            SendCommand("/move right");
+            SendMove(3, "right");
             AddMessageToQueue("发送: 向右移动\n");
         }
         // 发送输入框消息
@@ -1,21 +1,55 @@
 package com.gameserver;
 
+import com.gameserver.game.GameLoop;
+import com.gameserver.game.WorldClient;
+import com.gameserver.game.WorldUpdate;
+import com.gameserver.game.WorldRequest;
+import com.gameserver.game.WorldRequestCodec;
+import com.gameserver.game.WorldUpdateCodec;
+import com.gameserver.limit.AdmissionController;
+import com.gameserver.limit.RateLimitPolicy;
+import com.gameserver.limit.RateLimiter;
+import com.gameserver.net.Compression;
+import com.gameserver.net.Connection;
+import com.gameserver.net.FrameDecoder;
+import com.gameserver.net.FramingMode;
+import com.gameserver.net.HandshakeDecoder;
+import com.gameserver.net.OutboundMessage;
+import com.gameserver.net.OutboundMessageCodec;
+import com.gameserver.net.OutboundQueue;
+import com.gameserver.net.UdpGatewayVerticle;
+import com.gameserver.net.WireFormat;
+import com.gameserver.protocol.ProtocolInfo;
+import com.gameserver.room.RoomDirectory;
+import com.gameserver.room.RoomManager;
+import com.gameserver.util.TimingWheel;
 import io.vertx.core.AbstractVerticle;
 import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerOptions;
+import io.vertx.core.http.ServerWebSocket;
+import io.vertx.core.json.JsonObject;
 import io.vertx.core.net.NetServer;
 import io.vertx.core.net.NetSocket;
 import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Map;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.TimeUnit;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * 游戏服务器Verticle
  * 负责处理TCP连接、玩家管理和HTTP API
+ *
+ * 可以部署多个实例（每个事件循环一个），所有实例共享9090和9091端口，由Vert.x轮流分配新连接。
+ * 每个实例把连接到自己的玩家保存在PlayerShard中，只在自己的事件循环线程里访问；
+ * 跨实例的查询和广播都通过事件总线以消息的形式完成。
  */
 public class GameServerVerticle extends AbstractVerticle {
     private static final Logger logger = LoggerFactory.getLogger(GameServerVerticle.class);
@@ -24,19 +58,82 @@ public class GameServerVerticle extends AbstractVerticle {
     private static final int TCP_PORT = 9090;
     private static final String TCP_HOST = "0.0.0.0";
     
-    // 存储所有连接的玩家
-    private final Map<String, Player> players = new ConcurrentHashMap<>();
+    // WebSocket玩家的连接路径（HTTP端口9091）
+    private static final String WEBSOCKET_PATH = "/ws";
+    
+    // 空闲超时时间轮的槽数
+    private static final int IDLE_WHEEL_SIZE = 512;
+    
+    // 一条合并的加入或离开通知中最多列出的玩家数
+    private static final int MAX_NAMES_PER_NOTICE = 10;
+    
+    // 存储连接到当前实例的玩家
+    private final PlayerShard shard = new PlayerShard();
+    private ShardDirectory directory;
     private NetServer server;
+    private NetServer binaryServer;
     private MessageHandler messageHandler;
+    private ServerConfig serverConfig;
+    private RateLimitPolicy rateLimitPolicy;
+    private AdmissionController admission;
+    private final ArrayDeque<Runnable> waitingRoom = new ArrayDeque<>();    // 等待在线名额的连接
+    private final Set<Player> pendingJoins = new LinkedHashSet<>();      // 待合并通知的新玩家
+    private final List<String> pendingLeaves = new ArrayList<>();        // 待合并通知的离开玩家的名字
+    private long admissionTimerId = -1;
+    private long heartbeatTimerId = -1;
     private long timeoutCheckerId;
+    private TimingWheel<Player> idleTimeouts;
+    private WorldClient world;
+    private RoomManager roomManager;
+    private NameIndex nameIndex;
+    private final SecureRandom tokenGenerator = new SecureRandom();
 
     @Override
     public void start() {
+        serverConfig = new ServerConfig(config());
+        rateLimitPolicy = serverConfig.createRateLimitPolicy();
+        admission = serverConfig.sharedAdmissionController(vertx);
+        idleTimeouts = new TimingWheel<>(serverConfig.getIdleCheckIntervalMs(), IDLE_WHEEL_SIZE,
+                System.currentTimeMillis(), this::handleIdleTimeout);
+
         // 初始化消息处理器
-        messageHandler = new MessageHandler(vertx, players);
+        directory = new ShardDirectory(vertx);
+        HeartbeatMonitor heartbeatMonitor = new HeartbeatMonitor(shard, serverConfig.getMaxMissedHeartbeats(), player -> {
+            logger.info("玩家 {} 连续 {} 次未回应心跳，断开连接", player.getId(), serverConfig.getMaxMissedHeartbeats());
+            kickPlayer(player.getId(), "心跳超时");
+        });
+        heartbeatTimerId = vertx.setPeriodic(serverConfig.getHeartbeatIntervalMs(), id -> heartbeatMonitor.tick());
+        
+        // 世界由WorldVerticle托管，本实例只转发玩家的请求并投递世界发回的消息
+        world = new WorldClient(vertx, shard, (player, message, policy) -> messageHandler.send(player, message, policy));
+        roomManager = new RoomManager(vertx, new RoomDirectory(vertx),
+                (player, message, policy) -> messageHandler.send(player, message, policy));
+        nameIndex = new NameIndex(vertx);
+        messageHandler = new MessageHandler(vertx, shard, directory, heartbeatMonitor, world, roomManager, nameIndex);
+        
+        // 订阅广播，把其他实例（以及自己）发出的广播写给本实例的玩家
+        OutboundMessageCodec.register(vertx.eventBus());
+        WorldUpdateCodec.register(vertx.eventBus());
+        WorldRequestCodec.register(vertx.eventBus());
+        vertx.eventBus().<OutboundMessage>localConsumer(MessageHandler.BROADCAST_ADDRESS, messageHandler::deliverBroadcast);
+        
+        // 响应其他实例对本分片的查询
+        vertx.eventBus().<String>localConsumer(shard.getAddress(), shard::handleQuery);
+        vertx.eventBus().<OutboundMessage>localConsumer(MessageHandler.directAddress(shard.getAddress()),
+                messageHandler::deliverDirect);
+        vertx.eventBus().<WorldUpdate>localConsumer(WorldUpdate.address(shard.getAddress()), world::deliver);
+        vertx.eventBus().<WorldRequest>localConsumer(UdpGatewayVerticle.moveAddress(shard.getAddress()),
+                messageHandler::handleUdpMove);
+        directory.register(shard);
+        
+        // 定期合并发送加入和离开通知，并让排队的连接补上其他实例空出的名额
+        admissionTimerId = vertx.setPeriodic(serverConfig.getJoinNoticeIntervalMs(), id -> {
+            flushPresenceNotices();
+            admitWaiting();
+        });
         
         // 创建TCP服务器
-        server = vertx.createNetServer();
+        server = vertx.createNetServer(serverConfig.createNetServerOptions());
         
         // 处理新的连接
         server.connectHandler(this::handleNewConnection);
@@ -44,7 +141,11 @@ public class GameServerVerticle extends AbstractVerticle {
         // 启动服务器
         server.listen(TCP_PORT, TCP_HOST, result -> {
             if (result.succeeded()) {
-                logger.info("游戏服务器已启动，监听端口: {}", TCP_PORT);
+                logger.info("游戏服务器已启动，监听端口: {}，帧格式: {}，原生传输: {}",
+                        TCP_PORT, serverConfig.getFramingMode(), vertx.isNativeTransportEnabled());
+                
+                // 启动二进制协议端口
+                startBinaryServer();
                 
                 // 启动HTTP API服务（可选，用于管理）
                 startHttpApi();
@@ -57,170 +158,483 @@ public class GameServerVerticle extends AbstractVerticle {
         });
     }
 
+    /**
+     * 启动二进制协议的TCP服务器
+     * 二进制消息体可能包含换行符，因此固定使用长度前缀分帧
+     */
+    private void startBinaryServer() {
+        int binaryPort = serverConfig.getBinaryPort();
+        if (binaryPort <= 0) {
+            return;
+        }
+        
+        binaryServer = vertx.createNetServer(serverConfig.createNetServerOptions());
+        binaryServer.connectHandler(socket -> {
+            // 与9090端口握手后一样，准入和排队期间暂停读取
+            socket.pause();
+            openTcpConnection(socket, FramingMode.LENGTH_PREFIXED, WireFormat.BINARY, Compression.NONE,
+                    ProtocolInfo.VERSION, null);
+        });
+        binaryServer.listen(binaryPort, TCP_HOST, result -> {
+            if (result.succeeded()) {
+                logger.info("二进制协议已启动，监听端口: {}，协议版本: {}", binaryPort, ProtocolInfo.VERSION);
+            } else {
+                logger.error("二进制协议端口启动失败", result.cause());
+            }
+        });
+    }
+
     /**
      * 处理新的TCP连接
+     * 先等待客户端的握手请求，协商协议版本、编码方式和帧格式；
+     * 不发送握手的旧客户端在第一条数据到达或等待超时后按配置的帧格式和文本协议处理
      */
     private void handleNewConnection(NetSocket socket) {
-        // 生成唯一的玩家ID
-        String playerId = UUID.randomUUID().toString();
-        
-        // 创建玩家对象
-        Player player = new Player(playerId, socket);
-        players.put(playerId, player);
-        
-        logger.info("新玩家连接: {}, 当前在线人数: {}", playerId, players.size());
+        HandshakeDecoder handshake = new HandshakeDecoder(serverConfig.getFramingMode());
+        long timerId = vertx.setTimer(serverConfig.getHandshakeTimeoutMs(), id -> handshake.timeout());
         
-        // 发送欢迎消息
-        sendMessage(socket, "系统", "欢迎加入游戏！请使用 /name 命令设置你的昵称");
+        handshake.completionHandler(result -> {
+            vertx.cancelTimer(timerId);
+            // 准入和排队期间暂停读取，数据留在Vert.x中，会话开始后再处理
+            socket.pause();
+            if (result.isNegotiated()) {
+                logger.debug("连接 {} 完成握手: {}", socket.remoteAddress(), result.toReply());
+                socket.write(Buffer.buffer(result.toReply() + "\n"));
+            }
+            openTcpConnection(socket, result.getFramingMode(), result.getWireFormat(), result.getCompression(),
+                    result.getVersion(), handshake.remaining());
+        });
+        handshake.exceptionHandler(e -> {
+            vertx.cancelTimer(timerId);
+            logger.warn("连接 {} 握手失败: {}", socket.remoteAddress(), e.getMessage());
+            socket.close();
+        });
+        socket.closeHandler(v -> {
+            vertx.cancelTimer(timerId);
+            handshake.cancel();
+        });
+        socket.handler(handshake);
+    }
+
+    /**
+     * 按确定的帧格式和编码方式包装TCP连接，通过准入后开始会话
+     * 调用前连接已暂停读取，会话开始时恢复
+     * @param socket TCP连接
+     * @param framingMode 帧格式
+     * @param wireFormat 消息编码方式
+     * @param compression 服务器消息的压缩方式
+     * @param protocolVersion 协商的协议版本，未握手时为0
+     * @param received 握手阶段多收到的数据，没有时为null
+     */
+    private void openTcpConnection(NetSocket socket, FramingMode framingMode, WireFormat wireFormat,
+                                   Compression compression, int protocolVersion, Buffer received) {
+        // 设置写缓冲区水位，超过后消息进入玩家的发送队列
+        socket.setWriteQueueMaxSize(serverConfig.getWriteQueueMaxSize());
         
-        // 广播玩家加入消息
-        broadcastToAll("系统", playerId + " 加入了游戏", playerId);
+        Connection connection = Connection.tcp(socket, framingMode, wireFormat, compression, protocolVersion);
+        admit(connection, () -> startTcpSession(socket, connection, received));
+    }
+
+    /**
+     * 为通过准入的TCP连接创建玩家并开始接收消息
+     */
+    private void startTcpSession(NetSocket socket, Connection connection, Buffer received) {
+        Player player = registerPlayer(connection);
+        int playerId = player.getId();
         
-        // 处理接收到的数据
-        socket.handler(buffer -> {
-            try {
-                String message = buffer.toString("UTF-8").trim();
-                logger.debug("收到玩家 {} 的消息: {}", playerId, message);
-                
-                // 更新玩家最后活动时间
-                player.updateLastActiveTime();
-                
-                // 处理消息
-                handleMessage(playerId, buffer);
-            } catch (Exception e) {
-                logger.error("处理玩家消息时出错", e);
-                sendMessage(socket, "系统", "消息处理出错，请重试");
-            }
+        // 按帧切分接收到的数据，每个完整帧作为一条消息处理
+        FrameDecoder decoder = new FrameDecoder(player.getFramingMode(), serverConfig.getMaxFrameSize(),
+                frame -> handleMessage(player, frame));
+        decoder.exceptionHandler(e -> {
+            logger.warn("玩家 {} 发送了非法消息帧: {}", playerId, e.getMessage());
+            kickPlayer(playerId, "消息帧不合法");
         });
+        socket.handler(decoder);
         
         // 处理连接关闭
         socket.closeHandler(v -> handleDisconnect(playerId));
         
         // 处理异常
         socket.exceptionHandler(e -> handleException(playerId, e));
+        
+        // 先处理握手阶段多收到的数据，再恢复读取
+        if (received != null && received.length() > 0) {
+            decoder.handle(received);
+        }
+        socket.resume();
+    }
+
+    /**
+     * 处理新的WebSocket连接
+     * WebSocket玩家与TCP玩家使用同一个分片和MessageHandler，每条WebSocket消息就是一条命令或聊天
+     */
+    private void handleWebSocket(ServerWebSocket webSocket) {
+        if (!WEBSOCKET_PATH.equals(webSocket.path())) {
+            webSocket.reject();
+            return;
+        }
+        
+        webSocket.setWriteQueueMaxSize(serverConfig.getWriteQueueMaxSize());
+        // 准入和排队期间暂停读取，消息留在Vert.x中，会话开始后再处理
+        webSocket.pause();
+        
+        Connection connection = Connection.webSocket(webSocket);
+        admit(connection, () -> startWebSocketSession(webSocket, connection));
+    }
+
+    /**
+     * 为通过准入的WebSocket连接创建玩家并开始接收消息
+     */
+    private void startWebSocketSession(ServerWebSocket webSocket, Connection connection) {
+        Player player = registerPlayer(connection);
+        int playerId = player.getId();
+        
+        // 浏览器既可以发二进制消息（UTF-8文本）也可以发文本消息
+        webSocket.binaryMessageHandler(message -> handleMessage(player, message));
+        webSocket.textMessageHandler(message -> handleMessage(player, Buffer.buffer(message)));
+        
+        webSocket.closeHandler(v -> handleDisconnect(playerId));
+        webSocket.exceptionHandler(e -> handleException(playerId, e));
+        webSocket.resume();
+    }
+
+    /**
+     * 连接准入：在创建Player之前检查单IP连接数、建连速率和在线人数
+     * 在线人数已满时进入等待队列，有空位后再开始会话
+     * @param connection 新连接
+     * @param startSession 通过准入后开始会话
+     */
+    private void admit(Connection connection, Runnable startSession) {
+        String ip = connection.remoteHost();
+        AdmissionController.Decision decision = admission.tryAccept(ip);
+        if (decision != AdmissionController.Decision.ACCEPTED) {
+            logger.info("拒绝来自 {} 的连接: {}", ip, decision);
+            rejectConnection(connection, decision == AdmissionController.Decision.TOO_MANY_FROM_IP
+                    ? "来自你的IP的连接过多" : "服务器繁忙，请稍后重试");
+            return;
+        }
+        
+        if (admission.tryOccupySlot()) {
+            startSession.run();
+            return;
+        }
+        
+        if (waitingRoom.size() >= serverConfig.getWaitingRoomSize()) {
+            admission.release(ip);
+            rejectConnection(connection, "服务器已满，请稍后重试");
+            return;
+        }
+        
+        waitingRoom.addLast(startSession);
+        connection.closeHandler(v -> {
+            // 排队期间断开，归还IP名额
+            if (waitingRoom.remove(startSession)) {
+                admission.release(ip);
+            }
+        });
+        writeDirect(connection, "服务器已满，你正在排队，当前位置: " + waitingRoom.size());
+    }
+
+    /**
+     * 让排队的连接依次占用空出的在线名额
+     */
+    private void admitWaiting() {
+        while (!waitingRoom.isEmpty() && admission.tryOccupySlot()) {
+            waitingRoom.pollFirst().run();
+        }
+    }
+
+    /**
+     * 拒绝连接：发送原因后关闭
+     */
+    private void rejectConnection(Connection connection, String reason) {
+        writeDirect(connection, reason);
+        connection.close();
+    }
+
+    /**
+     * 直接向还没有创建Player的连接写一条系统消息
+     */
+    private void writeDirect(Connection connection, String content) {
+        connection.stream().write(OutboundMessage.text("系统", content).framed(connection));
+    }
+
+    /**
+     * 合并发送这段时间内的玩家加入和离开通知，避免重连或掉线高峰时每个玩家都触发一次全服广播
+     * 在两次发送之间加入又离开的玩家不会被通知
+     */
+    private void flushPresenceNotices() {
+        if (!pendingJoins.isEmpty()) {
+            List<String> names = new ArrayList<>(pendingJoins.size());
+            for (Player player : pendingJoins) {
+                names.add(player.getDisplayName());
+            }
+            pendingJoins.clear();
+            broadcastPresence(names, "加入了游戏");
+        }
+        if (!pendingLeaves.isEmpty()) {
+            broadcastPresence(pendingLeaves, "离开了游戏");
+            pendingLeaves.clear();
+        }
+    }
+
+    /**
+     * 广播一条合并的通知，最多列出 {@value #MAX_NAMES_PER_NOTICE} 个名字
+     */
+    private void broadcastPresence(List<String> names, String action) {
+        StringBuilder notice = new StringBuilder();
+        int shown = Math.min(names.size(), MAX_NAMES_PER_NOTICE);
+        for (int i = 0; i < shown; i++) {
+            if (i > 0) {
+                notice.append("、");
+            }
+            notice.append(names.get(i));
+        }
+        if (names.size() > shown) {
+            notice.append(" 等").append(names.size()).append("名玩家");
+        }
+        notice.append(" ").append(action);
+        
+        messageHandler.broadcastToAll("系统", notice.toString());
+    }
+
+    /**
+     * 为新连接创建玩家，加入分片并通知其他玩家
+     * @param connection 玩家连接
+     * @return 新创建的玩家
+     */
+    private Player registerPlayer(Connection connection) {
+        // 分配会话ID，回收的ID可以重用，不需要生成随机字符串
+        int playerId = shard.allocateId();
+        
+        // 创建玩家对象
+        Player player = new Player(playerId, connection);
+        player.setOutboundQueue(new OutboundQueue(vertx, connection.stream(),
+                serverConfig.getOutboundQueueSize(),
+                serverConfig.getOutboundReliableLimit(),
+                serverConfig.getSlowConsumerTimeoutMs(),
+                v -> {
+                    logger.warn("玩家 {} 接收过慢，已丢弃 {} 条消息，断开连接", playerId, player.getOutboundQueue().getDroppedCount());
+                    connection.close();
+                }));
+        player.setRateLimiter(new RateLimiter(rateLimitPolicy, System.nanoTime()));
+        player.setIdleTimeout(idleTimeouts.schedule(player, player.getLastActiveTime() + serverConfig.getIdleTimeoutMs()));
+        shard.add(player);
+        world.spawn(player);
+        roomManager.join(player, RoomManager.LOBBY, false);
+        
+        logger.info("新玩家连接: {}（令牌 {}）, 当前实例在线人数: {}", playerId, player.getTokenText(), shard.size());
+        
+        // 发送欢迎消息
+        messageHandler.sendMessage(player, "系统", "欢迎加入游戏！请使用 /name 命令设置你的昵称");
+        
+        // 启用UDP时发放会话令牌，客户端用它在UDP通道上发送移动
+        if (serverConfig.isUdpEnabled()) {
+            openUdpSession(player);
+        }
+        
+        // 加入通知合并后定期广播
+        pendingJoins.add(player);
+        return player;
+    }
+
+    /**
+     * 为玩家生成UDP会话令牌并登记到UDP网关
+     */
+    private void openUdpSession(Player player) {
+        long token;
+        do {
+            token = tokenGenerator.nextLong();
+        } while (token == 0);
+        player.setUdpToken(token);
+        
+        vertx.eventBus().send(UdpGatewayVerticle.REGISTER_ADDRESS, new JsonObject()
+                .put("token", token)
+                .put("playerId", player.getId())
+                .put("shard", shard.getAddress()));
+        messageHandler.sendMessage(player, "系统", "UDP会话令牌: " + Long.toHexString(token) + "，端口: " + serverConfig.getUdpPort());
     }
 
     /**
      * 处理接收到的消息
      */
-    private void handleMessage(String playerId, Buffer buffer) {
-        // 使用消息处理器处理消息
+    private void handleMessage(Player player, Buffer frame) {
         try {
-            messageHandler.handleMessage(playerId, buffer.toString("UTF-8").trim());
+            if (logger.isDebugEnabled() && player.getWireFormat() == WireFormat.TEXT) {
+                logger.debug("收到玩家 {} 的消息: {}", player.getId(), frame.toString(StandardCharsets.UTF_8).trim());
+            }
+            
+            // 任何一帧都算作活动，文本、二进制和WebSocket消息只在这里更新
+            player.updateActivity();
+            
+            // 使用消息处理器处理消息
+            if (player.getWireFormat() == WireFormat.BINARY) {
+                messageHandler.handleBinaryMessage(player, frame);
+            } else {
+                messageHandler.handleMessage(player, frame);
+            }
         } catch (Exception e) {
-            logger.error("消息处理失败", e);
+            logger.error("处理玩家消息时出错", e);
+            messageHandler.sendMessage(player, "系统", "消息处理出错，请重试");
         }
     }
 
     /**
      * 处理玩家断开连接
      */
-    private void handleDisconnect(String playerId) {
-        Player player = players.remove(playerId);
+    private void handleDisconnect(int playerId) {
+        Player player = shard.remove(playerId);
         if (player != null) {
-            logger.info("玩家断开连接: {}, 当前在线人数: {}", playerId, players.size());
-            // 广播玩家离开消息
-            broadcastToAll("系统", player.getName() != null ? player.getName() : playerId + " 离开了游戏");
+            player.getOutboundQueue().close();
+            world.remove(player);
+            roomManager.leave(player, false);
+            messageHandler.releaseName(player);
+            idleTimeouts.cancel(player.getIdleTimeout());
+            admission.releaseSlot();
+            admission.release(player.getConnection().remoteHost());
+            admitWaiting();
+            if (player.getUdpToken() != 0) {
+                vertx.eventBus().send(UdpGatewayVerticle.UNREGISTER_ADDRESS, player.getUdpToken());
+            }
+            logger.info("玩家断开连接: {}, 当前实例在线人数: {}", playerId, shard.size());
+            // 离开通知与加入通知一起合并广播，还没有通知过加入的玩家直接撤销
+            if (!pendingJoins.remove(player)) {
+                pendingLeaves.add(player.getDisplayName());
+            }
         }
     }
 
     /**
      * 处理连接异常
      */
-    private void handleException(String playerId, Throwable e) {
+    private void handleException(int playerId, Throwable e) {
         logger.error("玩家 {} 连接异常", playerId, e);
-        // 清理断开的连接
+        // 出错的连接不再可用，关闭后清理
+        Player player = shard.get(playerId);
+        if (player != null) {
+            player.getConnection().close();
+        }
         handleDisconnect(playerId);
     }
 
     /**
      * 启动玩家超时检查定时器
+     * 每个实例只检查连接到自己的玩家，空闲截止时间由时间轮管理，开销与到期的玩家数成正比
      */
     private void startTimeoutChecker() {
-        // 每分钟检查一次玩家活动状态
-        timeoutCheckerId = vertx.setPeriodic(TimeUnit.MINUTES.toMillis(1), id -> {
-            long now = System.currentTimeMillis();
-            long timeoutThreshold = TimeUnit.MINUTES.toMillis(5); // 5分钟超时
-            
-            for (Map.Entry<String, Player> entry : new ConcurrentHashMap<>(players).entrySet()) {
-                String playerId = entry.getKey();
-                Player player = entry.getValue();
-                
-                if (now - player.getLastActiveTime() > timeoutThreshold) {
-                    logger.info("玩家 {} 超时，断开连接", playerId);
-                    kickPlayer(playerId, "连接超时");
-                }
-            }
-        });
+        // 每个tick推进一次时间轮，只处理到期槽中的玩家
+        timeoutCheckerId = vertx.setPeriodic(serverConfig.getIdleCheckIntervalMs(),
+                id -> idleTimeouts.advance(System.currentTimeMillis()));
+    }
+
+    /**
+     * 玩家的空闲定时任务到期
+     * 活动时只更新时间戳，不移动定时任务；到期时若玩家期间有过活动，就按最新的截止时间重新调度
+     */
+    private void handleIdleTimeout(Player player) {
+        if (shard.get(player.getId()) != player) {
+            return;
+        }
+        
+        long deadline = player.getLastActiveTime() + serverConfig.getIdleTimeoutMs();
+        if (deadline > System.currentTimeMillis()) {
+            idleTimeouts.reschedule(player.getIdleTimeout(), deadline);
+            return;
+        }
+        
+        logger.info("玩家 {} 超时，断开连接", player.getId());
+        kickPlayer(player.getId(), "连接超时");
     }
 
     /**
      * 启动HTTP API服务（可选）
      * 用于管理服务器状态查询等功能
+     * 多个实例共享9091端口，数据通过ShardDirectory从所有分片汇总，因此无论请求落到哪个实例结果都一致
      */
     private void startHttpApi() {
         Router router = Router.router(vertx);
         
         // 获取在线玩家数量
-        router.get("/api/players/count").handler(ctx -> {
+        router.get("/api/players/count").handler(ctx -> directory.countPlayers(ar -> {
+            if (ar.failed()) {
+                ctx.fail(ar.cause());
+                return;
+            }
             ctx.response()
                     .putHeader("Content-Type", "application/json")
-                    .end("{\"count\": " + players.size() + "}");
-        });
+                    .end("{\"count\": " + ar.result() + "}");
+        }));
         
         // 获取在线玩家列表
-        router.get("/api/players").handler(ctx -> {
-            StringBuilder playersJson = new StringBuilder("[");
-            boolean first = true;
-            
-            for (Player player : players.values()) {
-                if (!first) {
-                    playersJson.append(", ");
-                } else {
-                    first = false;
-                }
-                playersJson.append("{\"id\": \"")
-                        .append(player.getId())
-                        .append("\", \"name\": \"")
-                        .append(player.getName() != null ? player.getName() : "Unnamed")
-                        .append("\"}");
-            }
-            
-            playersJson.append("]");
-            
-            ctx.response()
-                    .putHeader("Content-Type", "application/json")
-                    .end(playersJson.toString());
-        });
+        router.get("/api/players").handler(this::respondPlayerList);
+        
+        // 按昵称查找玩家（不区分大小写），通过昵称索引直接定位玩家所在的分片
+        router.get("/api/players/by-name/:name").handler(this::respondPlayerByName);
         
         // 服务器状态信息
-        router.get("/api/status").handler(ctx -> {
+        router.get("/api/status").handler(ctx -> directory.countPlayers(ar -> {
+            if (ar.failed()) {
+                ctx.fail(ar.cause());
+                return;
+            }
             ctx.response()
                     .putHeader("Content-Type", "application/json")
-                    .end("{\"status\": \"online\", \"players\": " + players.size() + "}");
-        });
+                    .end(new JsonObject()
+                            .put("status", "online")
+                            .put("players", ar.result())
+                            .put("rateLimitedMessages", RateLimiter.getTotalLimited())
+                            .put("tickRate", serverConfig.getTickRate())
+                            .put("ticks", GameLoop.getTotalTicks())
+                            .put("avgTickMs", GameLoop.getAverageTickMillis())
+                            .put("maxTickMs", GameLoop.getMaxTickMillis())
+                            .put("tickOverruns", GameLoop.getTotalOverruns())
+                            .put("skippedTicks", GameLoop.getTotalSkippedTicks())
+                            .encode());
+        }));
         
-        // 启动HTTP服务器
-        vertx.createHttpServer().requestHandler(router).listen(9091, res -> {
-            if (res.succeeded()) {
-                logger.info("HTTP API服务已启动，监听端口: 9091");
-            } else {
-                logger.error("HTTP API服务启动失败", res.cause());
-            }
-        });
+        // 启动HTTP服务器，同时在 /ws 上接受WebSocket玩家（支持permessage-deflate压缩）
+        HttpServerOptions httpOptions = new HttpServerOptions()
+                .setCompressionSupported(true)
+                .setPerMessageWebSocketCompressionSupported(true)
+                .setMaxWebSocketMessageSize(serverConfig.getMaxFrameSize());
+        vertx.createHttpServer(httpOptions)
+                .webSocketHandler(this::handleWebSocket)
+                .requestHandler(router)
+                .listen(9091, res -> {
+                    if (res.succeeded()) {
+                        logger.info("HTTP API服务已启动，监听端口: 9091，WebSocket路径: {}", WEBSOCKET_PATH);
+                    } else {
+                        logger.error("HTTP API服务启动失败", res.cause());
+                    }
+                });
         
         // 保持向后兼容性，添加原始API路径
-        router.get("/status").handler(ctx -> {
+        router.get("/status").handler(ctx -> directory.countPlayers(ar -> {
+            if (ar.failed()) {
+                ctx.fail(ar.cause());
+                return;
+            }
             ctx.response()
                     .putHeader("Content-Type", "application/json")
-                    .end("{\"onlinePlayers\": " + players.size() + ", \"serverTime\": " + System.currentTimeMillis() + ", \"status\": \"running\"}");
-        });
+                    .end("{\"onlinePlayers\": " + ar.result() + ", \"serverTime\": " + System.currentTimeMillis() + ", \"status\": \"running\"}");
+        }));
         
-        router.get("/players").handler(ctx -> {
+        router.get("/players").handler(this::respondPlayerList);
+    }
+
+    /**
+     * 返回所有分片的在线玩家列表
+     */
+    private void respondPlayerList(RoutingContext ctx) {
+        directory.listPlayers(ar -> {
+            if (ar.failed()) {
+                ctx.fail(ar.cause());
+                return;
+            }
             StringBuilder playersJson = new StringBuilder("[");
             boolean first = true;
             
-            for (Player player : players.values()) {
+            for (PlayerInfo player : ar.result()) {
                 if (!first) {
                     playersJson.append(", ");
                 } else {
@@ -230,7 +644,11 @@ public class GameServerVerticle extends AbstractVerticle {
                         .append(player.getId())
                         .append("\", \"name\": \"")
                         .append(player.getName() != null ? player.getName() : "Unnamed")
-                        .append("\"}");
+                        .append("\", \"rttMs\": ")
+                        .append(player.getRttMs())
+                        .append(", \"jitterMs\": ")
+                        .append(player.getJitterMs())
+                        .append("}");
             }
             
             playersJson.append("]");
@@ -241,52 +659,53 @@ public class GameServerVerticle extends AbstractVerticle {
         });
     }
 
-    private void kickPlayer(String playerId, String reason) {
-        Player player = players.get(playerId);
-        if (player != null) {
-            try {
-                // 发送踢人原因
-                sendMessage(player.getSocket(), "系统", "你被踢出游戏: " + reason);
-                // 关闭连接
-                player.getSocket().close();
-            } catch (Exception e) {
-                logger.error("踢人时出错", e);
-            }
+    /**
+     * 返回指定昵称的玩家，昵称未被使用时返回404
+     */
+    private void respondPlayerByName(RoutingContext ctx) {
+        NameIndex.Entry entry = nameIndex.lookup(ctx.pathParam("name"));
+        if (entry == null) {
+            ctx.fail(404);
+            return;
         }
+        directory.findPlayer(entry.getShardAddress(), entry.getPlayerId(), ar -> {
+            if (ar.failed()) {
+                ctx.fail(ar.cause());
+                return;
+            }
+            if (ar.result() == null) {
+                ctx.fail(404);
+                return;
+            }
+            ctx.response()
+                    .putHeader("Content-Type", "application/json")
+                    .end(ar.result().toJson().encode());
+        });
     }
-    
-    // 发送消息给指定socket的辅助方法
-    private void sendMessage(NetSocket socket, String sender, String content) {
-        if (socket != null) {
+
+    private void kickPlayer(int playerId, String reason) {
+        Player player = shard.get(playerId);
+        if (player != null) {
             try {
-                String message = "[" + sender + "]: " + content + "\n";
-                socket.write(Buffer.buffer(message, "UTF-8"));
+                // 踢人原因写出后再关闭连接
+                messageHandler.disconnect(player, "你被踢出游戏: " + reason);
             } catch (Exception e) {
-                logger.error("发送消息失败", e);
-            }
-        }
-    }
-    
-    // 广播消息给所有玩家，但排除指定玩家
-    private void broadcastToAll(String sender, String content, String excludePlayerId) {
-        for (Map.Entry<String, Player> entry : players.entrySet()) {
-            String playerId = entry.getKey();
-            if (!playerId.equals(excludePlayerId)) {
-                Player player = entry.getValue();
-                sendMessage(player.getSocket(), sender, content);
+                logger.error("踢人时出错", e);
             }
         }
     }
     
-    // 广播消息给所有玩家
-    private void broadcastToAll(String sender, String content) {
-        for (Player player : players.values()) {
-            sendMessage(player.getSocket(), sender, content);
-        }
-    }
-    
     @Override
     public void stop() {
+        directory.unregister(shard);
+        
+        if (admissionTimerId >= 0) {
+            vertx.cancelTimer(admissionTimerId);
+        }
+        if (heartbeatTimerId >= 0) {
+            vertx.cancelTimer(heartbeatTimerId);
+        }
+        
         // 取消超时检查器
         if (timeoutCheckerId > 0) {
             vertx.cancelTimer(timeoutCheckerId);
@@ -295,6 +714,10 @@ public class GameServerVerticle extends AbstractVerticle {
         if (server != null) {
             server.close();
         }
+        if (binaryServer != null) {
+            binaryServer.close();
+        }
         logger.info("游戏服务器已停止");
     }
+
 }
\ No newline at end of file
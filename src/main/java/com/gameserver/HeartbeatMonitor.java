@@ -0,0 +1,134 @@
+package com.gameserver;
+
+import com.gameserver.net.DeliveryPolicy;
+import com.gameserver.net.HeartbeatState;
+import com.gameserver.net.OutboundMessage;
+import com.gameserver.net.OutboundQueue;
+import io.vertx.core.Handler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 心跳监控
+ * 心跳协议（文本，每条一行，时间戳为发送方的毫秒时间，对接收方不透明）：
+ * <pre>
+ * /hb 发送方时间戳              发起心跳
+ * /hb 发送方时间戳 回显时间戳    回应心跳，回显对方发起时的时间戳
+ * </pre>
+ * 二进制协议使用HeartbeatMessage，回显时间戳为0表示发起心跳。
+ * 客户端发送第一条心跳后视为支持心跳，之后服务器每个间隔向它发起一次心跳，
+ * 根据回显的时间戳计算RTT；连续多次没有回应就判定连接已失效。
+ * 服务器的时间戳取自单调时钟（System.nanoTime），不受系统时间调整影响；
+ * 只有回显最近一次心跳时间戳的回应才有效，其他回应不重置未回应计数，也不计入RTT。
+ * 不支持心跳的旧客户端仍按空闲超时处理。
+ */
+public class HeartbeatMonitor {
+    public static final String COMMAND = "/hb";
+
+    // 单调时钟的起点，保证服务器时间戳为正数（0在协议中表示发起心跳）
+    private static final long CLOCK_ORIGIN_NANOS = System.nanoTime();
+
+    private final PlayerShard shard;
+    private final int maxMissed;
+    private final Handler<Player> deadHandler;
+
+    /**
+     * 构造方法
+     * @param shard 当前实例的玩家分片
+     * @param maxMissed 允许连续未回应的心跳数
+     * @param deadHandler 判定连接失效时的处理器
+     */
+    public HeartbeatMonitor(PlayerShard shard, int maxMissed, Handler<Player> deadHandler) {
+        this.shard = shard;
+        this.maxMissed = maxMissed;
+        this.deadHandler = deadHandler;
+    }
+
+    /**
+     * 处理客户端发来的心跳
+     * @param player 玩家
+     * @param args 心跳命令的参数（时间戳和可选的回显时间戳）
+     * @return 格式正确时返回true
+     */
+    public boolean handleHeartbeat(Player player, String args) {
+        int space = args.indexOf(' ');
+
+        long senderTime;
+        long echoedTime = 0;
+        try {
+            senderTime = Long.parseLong(space < 0 ? args : args.substring(0, space));
+            if (space >= 0) {
+                echoedTime = Long.parseLong(args.substring(space + 1));
+            }
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        onHeartbeat(player, senderTime, echoedTime);
+        return true;
+    }
+
+    /**
+     * 处理已解析的心跳
+     * @param player 玩家
+     * @param senderTime 客户端发送时的时间戳
+     * @param echoedTime 回显的服务器时间戳，为0表示客户端发起的心跳
+     */
+    public void onHeartbeat(Player player, long senderTime, long echoedTime) {
+        HeartbeatState heartbeat = player.getHeartbeat();
+        heartbeat.enable();
+        long now = now();
+        if (echoedTime > 0) {
+            // 回应服务器发起的心跳，只接受最近一次心跳的时间戳
+            heartbeat.onAck(echoedTime, now);
+        } else {
+            // 客户端发起的心跳，回显它的时间戳供客户端计算RTT
+            send(player, OutboundMessage.heartbeat(now, senderTime));
+        }
+    }
+
+    /**
+     * 向所有支持心跳的玩家发起心跳，并断开连续未回应的玩家
+     */
+    public void tick() {
+        long now = now();
+        OutboundMessage ping = OutboundMessage.heartbeat(now, 0);
+        List<Player> dead = new ArrayList<>();
+
+        for (Player player : shard.players()) {
+            HeartbeatState heartbeat = player.getHeartbeat();
+            if (!heartbeat.isEnabled()) {
+                continue;
+            }
+            if (heartbeat.getMissed() >= maxMissed) {
+                dead.add(player);
+                continue;
+            }
+            // 发送队列有积压时跳过本次心跳：没写出的心跳不算未回应，积压本身由慢速连接检测处理
+            OutboundQueue queue = player.getOutboundQueue();
+            if (queue != null && queue.writeIfIdle(ping.framed(player.getConnection()))) {
+                heartbeat.onSent(now);
+            }
+        }
+
+        for (Player player : dead) {
+            deadHandler.handle(player);
+        }
+    }
+
+    /**
+     * 获取服务器的心跳时间戳
+     * @return 单调时钟的毫秒数，从1开始
+     */
+    private static long now() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - CLOCK_ORIGIN_NANOS) + 1;
+    }
+
+    private void send(Player player, OutboundMessage message) {
+        OutboundQueue queue = player.getOutboundQueue();
+        if (queue != null) {
+            queue.enqueue(message.framed(player.getConnection()), DeliveryPolicy.DROP_OLDEST);
+        }
+    }
+}
@@ -1,7 +1,15 @@
 package com.gameserver;
 
+import com.gameserver.game.WorldVerticle;
+import com.gameserver.net.UdpGatewayVerticle;
+import com.gameserver.room.RoomVerticle;
+import io.vertx.config.ConfigRetriever;
+import io.vertx.config.ConfigRetrieverOptions;
+import io.vertx.config.ConfigStoreOptions;
 import io.vertx.core.Vertx;
 import io.vertx.core.DeploymentOptions;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.json.JsonObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,17 +20,113 @@ import org.slf4j.LoggerFactory;
 public class Main {
     private static final Logger logger = LoggerFactory.getLogger(Main.class);
 
+    // 默认配置文件路径，可通过 -Dconfig=路径 覆盖
+    private static final String DEFAULT_CONFIG_PATH = "conf/server.json";
+
     public static void main(String[] args) {
         // 创建Vert.x实例
-        Vertx vertx = Vertx.vertx();
+        // 是否使用原生传输（Linux下为epoll）需要在创建Vert.x时决定，因此只能通过系统属性配置
+        boolean preferNativeTransport = Boolean.parseBoolean(System.getProperty("preferNativeTransport", "true"));
+        Vertx vertx = Vertx.vertx(new VertxOptions().setPreferNativeTransport(preferNativeTransport));
+        if (preferNativeTransport && !vertx.isNativeTransportEnabled()) {
+            logger.info("原生传输不可用，使用NIO传输");
+        }
+
+        // 读取配置：配置文件（可选）+ 系统属性
+        ConfigRetriever retriever = ConfigRetriever.create(vertx, createConfigOptions(vertx));
+        retriever.getConfig(config -> {
+            if (config.failed()) {
+                logger.error("读取配置失败", config.cause());
+                vertx.close();
+                return;
+            }
+            deploy(vertx, config.result());
+        });
+    }
+
+    /**
+     * 构建配置来源，后面的来源会覆盖前面的同名配置
+     */
+    private static ConfigRetrieverOptions createConfigOptions(Vertx vertx) {
+        ConfigRetrieverOptions options = new ConfigRetrieverOptions();
+        String path = System.getProperty("config", DEFAULT_CONFIG_PATH);
+        if (vertx.fileSystem().existsBlocking(path)) {
+            options.addStore(new ConfigStoreOptions()
+                    .setType("file")
+                    .setFormat("json")
+                    .setConfig(new JsonObject().put("path", path)));
+        } else {
+            logger.info("未找到配置文件 {}，使用默认配置", path);
+        }
+        options.addStore(new ConfigStoreOptions().setType("sys"));
+        return options;
+    }
+
+    /**
+     * 依次部署RoomVerticle、WorldVerticle、UdpGatewayVerticle和GameServerVerticle
+     */
+    private static void deploy(Vertx vertx, JsonObject config) {
+        // 房间Verticle先于玩家连接就绪，新房间才能放到负载最低的实例上
+        ServerConfig serverConfig = new ServerConfig(config);
+        DeploymentOptions roomOptions = new DeploymentOptions()
+                .setConfig(config)
+                .setInstances(serverConfig.getRoomVerticles());
+        vertx.deployVerticle(RoomVerticle.class.getName(), roomOptions, rooms -> {
+            if (rooms.succeeded()) {
+                logger.info("房间Verticle部署成功，实例数: {}", roomOptions.getInstances());
+            } else {
+                // 没有房间Verticle时房间逻辑在玩家所在的实例上处理
+                logger.error("房间Verticle部署失败", rooms.cause());
+            }
+            deployWorld(vertx, config, serverConfig);
+        });
+    }
+
+    /**
+     * 部署WorldVerticle（只部署一个实例）
+     * 所有玩家共享这一个世界，没有世界时无法上线，部署失败后关闭服务器
+     */
+    private static void deployWorld(Vertx vertx, JsonObject config, ServerConfig serverConfig) {
+        vertx.deployVerticle(WorldVerticle.class.getName(), new DeploymentOptions().setConfig(config), world -> {
+            if (world.failed()) {
+                logger.error("游戏世界部署失败", world.cause());
+                vertx.close();
+                return;
+            }
+            deployUdpGateway(vertx, config, serverConfig);
+        });
+    }
+
+    /**
+     * 部署UdpGatewayVerticle（只部署一个实例）
+     * 网关必须在接受玩家连接之前就绪，否则玩家上线时发出的UDP会话登记没有接收者，整个会话的UDP数据报都会被拒绝
+     */
+    private static void deployUdpGateway(Vertx vertx, JsonObject config, ServerConfig serverConfig) {
+        if (!serverConfig.isUdpEnabled()) {
+            deployGameServer(vertx, config, serverConfig);
+            return;
+        }
+        vertx.deployVerticle(UdpGatewayVerticle.class.getName(), new DeploymentOptions().setConfig(config), udp -> {
+            if (udp.failed()) {
+                logger.error("UDP通道部署失败", udp.cause());
+            }
+            deployGameServer(vertx, config, serverConfig);
+        });
+    }
 
-        // 设置部署选项
-        DeploymentOptions options = new DeploymentOptions();
+    /**
+     * 部署GameServerVerticle
+     */
+    private static void deployGameServer(Vertx vertx, JsonObject config, ServerConfig serverConfig) {
+        // 设置部署选项，多个实例分布在不同的事件循环上
+        DeploymentOptions options = new DeploymentOptions()
+                .setConfig(config)
+                .setInstances(serverConfig.getInstances());
 
         // 部署GameServerVerticle
         vertx.deployVerticle(GameServerVerticle.class.getName(), options, res -> {
             if (res.succeeded()) {
-                logger.info("游戏服务器启动成功，部署ID: {}", res.result());
+                logger.info("游戏服务器启动成功，部署ID: {}，实例数: {}", res.result(), options.getInstances());
                 // 注册关闭钩子，优雅关闭
                 Runtime.getRuntime().addShutdownHook(new Thread(() -> {
                     logger.info("正在关闭游戏服务器...");
@@ -34,4 +138,4 @@ public class Main {
             }
         });
     }
-}
\ No newline at end of file
+}
@@ -1,50 +1,119 @@
 package com.gameserver;
 
+import com.gameserver.command.CommandRegistry;
+import com.gameserver.game.Direction;
+import com.gameserver.game.WorldClient;
+import com.gameserver.game.WorldRequest;
+import com.gameserver.limit.RateLimiter;
+import com.gameserver.limit.TrafficClass;
+import com.gameserver.net.DeliveryPolicy;
+import com.gameserver.net.FrameText;
+import com.gameserver.net.HeartbeatState;
+import com.gameserver.net.OutboundMessage;
+import com.gameserver.net.OutboundQueue;
+import com.gameserver.protocol.ChatMessage;
+import com.gameserver.protocol.CommandMessage;
+import com.gameserver.protocol.HeartbeatMessage;
+import com.gameserver.protocol.MoveMessage;
+import com.gameserver.protocol.MoveToMessage;
+import com.gameserver.protocol.ProtocolException;
+import com.gameserver.protocol.ProtocolReader;
+import com.gameserver.room.Room;
+import com.gameserver.room.RoomManager;
 import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
-import io.vertx.core.net.NetSocket;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.Message;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Map;
+import java.util.regex.Pattern;
 
 /**
  * 消息处理器
  * 负责处理游戏中的各种消息类型
  */
-public class MessageHandler {
+public class MessageHandler implements MessageSender {
     private static final Logger logger = LoggerFactory.getLogger(MessageHandler.class);
+
+    // 广播消息的事件总线地址，每个GameServerVerticle实例都会订阅
+    public static final String BROADCAST_ADDRESS = "game.broadcast";
+    // 私聊消息发往接收者所在分片的地址加上该后缀，消息头中带接收者的会话ID
+    private static final String DIRECT_ADDRESS_SUFFIX = ".direct";
+    private static final String RECIPIENT_HEADER = "to";
+    // 昵称：1-20个字母、数字、下划线或中文
+    private static final Pattern NAME_PATTERN = Pattern.compile("[a-zA-Z0-9_\u4e00-\u9fa5]{1,20}");
+    // 私聊：昵称和消息
+    private static final Pattern WHISPER_PATTERN = Pattern.compile("[a-zA-Z0-9_\u4e00-\u9fa5]{1,20}\\s+.+");
+    // 移动：方向或目标坐标
+    private static final Pattern MOVE_PATTERN = Pattern.compile("(?i)up|down|left|right|\\d{1,9}\\s*,\\s*\\d{1,9}");
+
     private final Vertx vertx;
-    private final Map<String, Player> players;
+    private final PlayerShard shard;             // 当前实例上的玩家
+    private final ShardDirectory directory;      // 用于查询其他实例的玩家
+    private final HeartbeatMonitor heartbeatMonitor;
+    private final WorldClient world;             // 移动和附近聊天交给托管世界的WorldVerticle
+    private final RoomManager roomManager;           // 聊天只发给同一房间的玩家
+    private final NameIndex names;                   // 全服唯一的昵称
+    private final CommandRegistry commands;
 
-    public MessageHandler(Vertx vertx, Map<String, Player> players) {
+    public MessageHandler(Vertx vertx, PlayerShard shard, ShardDirectory directory, HeartbeatMonitor heartbeatMonitor,
+                          WorldClient world, RoomManager roomManager, NameIndex names) {
         this.vertx = vertx;
-        this.players = players;
+        this.shard = shard;
+        this.directory = directory;
+        this.heartbeatMonitor = heartbeatMonitor;
+        this.world = world;
+        this.roomManager = roomManager;
+        this.names = names;
+        this.commands = new CommandRegistry((player, text) -> sendMessage(player, "系统", text), this::checkRateLimit)
+                .register("/name", "/name 昵称 - 设置你的昵称（最多20个字母、数字、下划线或中文）", NAME_PATTERN,
+                        TrafficClass.CHAT, this::rename)
+                .register("/whisper", "/whisper 昵称 消息 - 给指定玩家发送私聊", WHISPER_PATTERN, TrafficClass.CHAT, this::whisper)
+                .register("/list", "/list - 查看在线玩家列表", this::listPlayers)
+                .register("/help", "/help - 查看帮助信息", this::showHelp)
+                .register("/quit", "/quit - 退出游戏", this::quit)
+                .register("/ping", "/ping - 测试连接", (player, args) -> sendMessage(player, "系统", "pong"))
+                .register("/info", "/info - 查看服务器信息和你的延迟", this::showInfo)
+                .register("/move", "/move up|down|left|right 或 /move x,y - 移动一格或移动到附近的坐标", MOVE_PATTERN,
+                        TrafficClass.MOVEMENT, this::move)
+                .register("/where", "/where - 查看你的位置和视野内的玩家", this::where)
+                .register("/join", "/join <房间> - 进入房间，聊天只发给同一房间的玩家", NAME_PATTERN, this::join)
+                .register("/leave", "/leave - 离开房间，回到大厅", this::leave)
+                .register("/rooms", "/rooms - 查看所有房间和人数", this::listRooms)
+                .register("/say", "/say <消息> - 向视野内的玩家发送附近聊天", null, TrafficClass.CHAT, this::say)
+                .register(HeartbeatMonitor.COMMAND, null, null, TrafficClass.HEARTBEAT, this::heartbeat)
+                .registerOpcode(ChatMessage.OPCODE, TrafficClass.CHAT, this::binaryChat)
+                .registerOpcode(CommandMessage.OPCODE, null, this::binaryCommand)
+                .registerOpcode(MoveMessage.OPCODE, TrafficClass.MOVEMENT, this::binaryMove)
+                .registerOpcode(MoveToMessage.OPCODE, TrafficClass.MOVEMENT, this::binaryMoveTo)
+                .registerOpcode(HeartbeatMessage.OPCODE, TrafficClass.HEARTBEAT, this::binaryHeartbeat);
     }
 
     /**
      * 处理接收到的消息
-     * @param playerId 玩家ID
-     * @param message 消息内容
+     * 命令名直接在帧的字节上查找，命令按注册的类别限流，只有聊天内容和命令参数才会解码为字符串。
+     * 帧可能是接收缓冲区的slice，只能在本方法返回前使用。
+     * @param player 玩家
+     * @param frame 消息帧（UTF-8）
      */
-    public void handleMessage(String playerId, String message) {
+    public void handleMessage(Player player, Buffer frame) {
         try {
-            Player player = players.get(playerId);
-            
-            if (player == null) {
-                logger.warn("尝试处理不存在玩家的消息: {}", playerId);
+            int start = FrameText.trimStart(frame);
+            int end = FrameText.trimEnd(frame, start);
+            if (start == end) {
                 return;
             }
             
-            // 更新玩家活动时间
-            player.updateActivity();
-            
-            // 处理命令
-            if (message.startsWith("/")) {
-                handleCommand(playerId, message);
-            } else {
-                // 处理聊天消息
-                broadcastToAll(player.getName() != null ? player.getName() : playerId, message);
+            // 处理命令，由注册表按命令的类别限流
+            if (frame.getByte(start) == '/') {
+                if (!commands.dispatch(player, frame, start, end) && checkRateLimit(player, TrafficClass.COMMAND)) {
+                    sendMessage(player, "系统", "未知命令: " + CommandRegistry.commandName(frame, start, end) + "，输入 /help 查看可用命令");
+                }
+            } else if (checkRateLimit(player, TrafficClass.CHAT)) {
+                // 处理聊天消息，按聊天限流，防止一个玩家的刷屏被广播放大
+                broadcastToRoom(player, FrameText.decode(frame, start, end));
             }
         } catch (Exception e) {
             logger.error("处理消息时出错", e);
@@ -52,112 +121,368 @@ public class MessageHandler {
     }
 
     /**
-     * 处理命令
-     * @param playerId 玩家ID
-     * @param command 命令字符串
+     * 处理二进制协议的消息，按注册的操作码分发并限流
+     * 文本命令（CommandMessage）交给与文本协议相同的命令分发处理；
+     * 格式错误或未知操作码的消息会断开连接。
+     * @param player 玩家
+     * @param frame 消息帧（操作码 + 字段）
      */
-    private void handleCommand(String playerId, String command) {
-        Player player = players.get(playerId);
-        if (player == null) return;
-        
-        String[] parts = command.split(" ", 2);
-        String cmd = parts[0].toLowerCase();
+    public void handleBinaryMessage(Player player, Buffer frame) {
+        if (frame.length() == 0) {
+            return;
+        }
+        try {
+            if (!commands.dispatchBinary(player, frame)) {
+                throw new ProtocolException("未知操作码: 0x" + Integer.toHexString(frame.getUnsignedByte(0)));
+            }
+        } catch (ProtocolException e) {
+            logger.warn("玩家 {} 发送了非法二进制消息: {}", player.getId(), e.getMessage());
+            disconnect(player, "消息格式不合法");
+        } catch (Exception e) {
+            logger.error("处理消息时出错", e);
+        }
+    }
+
+    /**
+     * 处理UDP网关转发的移动，与TCP上的移动一样按移动限流后交给游戏世界
+     * UDP移动不算作玩家活动，空闲判定仍以TCP消息为准。
+     * @param message 网关构造的移动请求，通过限流后原样转发给世界
+     */
+    public void handleUdpMove(Message<WorldRequest> message) {
+        WorldRequest request = message.body();
+        Player player = shard.get(request.getPlayerId());
+        if (player != null && checkRateLimit(player, TrafficClass.MOVEMENT)) {
+            world.send(request);
+        }
+    }
+
+    /**
+     * 检查玩家的消息速率
+     * 超过速率的消息直接丢弃，统计窗口内被限流次数过多时踢出玩家
+     * @param player 玩家
+     * @param trafficClass 消息类别
+     * @return 允许处理时返回true
+     */
+    private boolean checkRateLimit(Player player, TrafficClass trafficClass) {
+        RateLimiter limiter = player.getRateLimiter();
+        if (limiter == null) {
+            return true;
+        }
         
-        switch (cmd) {
-            case "/name":
-                if (parts.length > 1) {
-                    String oldName = player.getName();
-                    String newName = parts[1];
-                    // 验证昵称长度和内容
-                    if (newName.length() > 20) {
-                        sendMessage(player.getSocket(), "系统", "昵称不能超过20个字符");
-                        return;
-                    }
-                    if (!newName.matches("[a-zA-Z0-9_\u4e00-\u9fa5]+") || newName.trim().isEmpty()) {
-                        sendMessage(player.getSocket(), "系统", "昵称只能包含字母、数字、下划线和中文");
-                        return;
-                    }
-                    player.setName(newName.trim());
-                    sendMessage(player.getSocket(), "系统", "你的昵称已更改为: " + newName.trim());
-                    broadcastToAll("系统", (oldName != null ? oldName : playerId) + " 更名为 " + newName.trim());
-                } else {
-                    sendMessage(player.getSocket(), "系统", "请输入昵称，格式: /name 你的昵称");
-                }
-                break;
-            
-            case "/list":
-                StringBuilder playerList = new StringBuilder("在线玩家列表:\n");
-                for (Map.Entry<String, Player> entry : players.entrySet()) {
-                    Player p = entry.getValue();
-                    playerList.append("- ")
-                            .append(p.getName() != null ? p.getName() : entry.getKey())
-                            .append(entry.getKey().equals(playerId) ? " (你)" : "")
-                            .append("\n");
-                }
-                sendMessage(player.getSocket(), "系统", playerList.toString());
-                break;
+        switch (limiter.tryAcquire(trafficClass, System.nanoTime())) {
+            case ALLOWED:
+                return true;
             
-            case "/help":
-                String helpMsg = "可用命令:\n" +
-                        "/name 昵称 - 设置你的昵称\n" +
-                        "/list - 查看在线玩家列表\n" +
-                        "/help - 查看帮助信息\n" +
-                        "/quit - 退出游戏\n" +
-                        "/ping - 测试连接\n" +
-                        "直接输入消息发送聊天";
-                sendMessage(player.getSocket(), "系统", helpMsg);
-                break;
-            
-            case "/quit":
-                sendMessage(player.getSocket(), "系统", "再见！");
-                try {
-                    player.getSocket().close();
-                } catch (Exception e) {
-                    logger.error("关闭连接时出错", e);
-                }
-                break;
-            
-            case "/ping":
-                sendMessage(player.getSocket(), "系统", "pong");
-                break;
-            
-            case "/info":
-                sendMessage(player.getSocket(), "系统", "服务器信息：\n" +
-                        "- 在线人数: " + players.size() + "\n" +
-                        "- 你的ID: " + playerId + "\n" +
-                        "- 你的昵称: " + (player.getName() != null ? player.getName() : "未设置"));
-                break;
+            case ABUSIVE:
+                logger.warn("玩家 {} 持续发送过快，累计被限流 {} 条消息，踢出游戏", player.getId(), limiter.getLimitedCount());
+                disconnect(player, "你因发送消息过快被踢出游戏");
+                return false;
             
             default:
-                sendMessage(player.getSocket(), "系统", "未知命令: " + cmd + "，输入 /help 查看可用命令");
-                break;
+                // 每个统计窗口只提醒一次，避免提醒本身造成放大
+                if (limiter.getViolations() == 1) {
+                    sendMessage(player, "系统", "发送过快，部分消息已被丢弃");
+                }
+                return false;
         }
     }
 
     /**
-     * 发送消息给指定玩家
-     * @param playerId 玩家ID
-     * @param message 消息内容
+     * /name：修改昵称，参数已通过NAME_PATTERN校验
+     * 改名通知与聊天一样只发给同一房间的玩家，按聊天限流
      */
-    public void sendMessage(String playerId, String message) {
-        Player player = players.get(playerId);
-        if (player != null) {
-            sendMessage(player.getSocket(), "系统", message);
+    private void rename(Player player, String newName) {
+        String oldName = player.getName();
+        // 只改变大小写时沿用原来的登记
+        if (oldName == null || !NameIndex.key(oldName).equals(NameIndex.key(newName))) {
+            if (!names.claim(newName, shard.getAddress(), player.getId())) {
+                sendMessage(player, "系统", "昵称 " + newName + " 已被其他玩家使用");
+                return;
+            }
+            if (oldName != null) {
+                names.release(oldName, shard.getAddress(), player.getId());
+            }
         }
+        player.setName(newName);
+        world.rename(player);
+        sendMessage(player, "系统", "你的昵称已更改为: " + newName);
+        roomManager.rename(player, oldName != null ? oldName : player.getTokenText());
     }
 
     /**
-     * 发送消息给指定的Socket
-     * @param socket 目标Socket
+     * /whisper：通过昵称索引找到接收者所在的分片，只投递给接收者
+     */
+    private void whisper(Player player, String args) {
+        String[] parts = args.split("\\s+", 2);
+        String targetName = parts[0];
+        String text = parts[1];
+        NameIndex.Entry target = names.lookup(targetName);
+        if (target == null) {
+            sendMessage(player, "系统", "玩家 " + targetName + " 不在线");
+            return;
+        }
+        if (target.getPlayerId() == player.getId() && target.getShardAddress().equals(shard.getAddress())) {
+            sendMessage(player, "系统", "不能给自己发送私聊");
+            return;
+        }
+
+        OutboundMessage message = OutboundMessage.text(player.getDisplayName() + " 悄悄对你说", text);
+        if (target.getShardAddress().equals(shard.getAddress())) {
+            Player recipient = shard.get(target.getPlayerId());
+            if (recipient == null) {
+                sendMessage(player, "系统", "玩家 " + targetName + " 不在线");
+                return;
+            }
+            send(recipient, message, DeliveryPolicy.NEVER_DROP);
+            sendMessage(player, "你悄悄对 " + targetName + " 说", text);
+            return;
+        }
+
+        DeliveryOptions options = new DeliveryOptions().addHeader(RECIPIENT_HEADER, Integer.toString(target.getPlayerId()));
+        vertx.eventBus().<Boolean>request(directAddress(target.getShardAddress()), message, options, ar -> {
+            if (ar.succeeded() && Boolean.TRUE.equals(ar.result().body())) {
+                sendMessage(player, "你悄悄对 " + targetName + " 说", text);
+            } else {
+                sendMessage(player, "系统", "玩家 " + targetName + " 不在线");
+            }
+        });
+    }
+
+    /**
+     * /list：查询所有实例上的在线玩家
+     */
+    private void listPlayers(Player player, String args) {
+        directory.listPlayers(ar -> {
+            if (ar.failed()) {
+                logger.error("查询在线玩家列表失败", ar.cause());
+                sendMessage(player, "系统", "查询在线玩家列表失败，请稍后重试");
+                return;
+            }
+            StringBuilder playerList = new StringBuilder("在线玩家列表:\n");
+            for (PlayerInfo info : ar.result()) {
+                playerList.append("- ")
+                        .append(info.getDisplayName())
+                        .append(info.getId().equals(player.getTokenText()) ? " (你)" : "")
+                        .append("\n");
+            }
+            sendMessage(player, "系统", playerList.toString());
+        });
+    }
+
+    /**
+     * /help：按注册顺序列出命令
+     */
+    private void showHelp(Player player, String args) {
+        StringBuilder helpMsg = new StringBuilder("可用命令:\n");
+        for (String usage : commands.usages()) {
+            helpMsg.append(usage).append("\n");
+        }
+        helpMsg.append("直接输入消息发送聊天");
+        sendMessage(player, "系统", helpMsg.toString());
+    }
+
+    /**
+     * /quit：断开连接
+     */
+    private void quit(Player player, String args) {
+        disconnect(player, "再见！");
+    }
+
+    /**
+     * /info：服务器信息和玩家延迟
+     */
+    private void showInfo(Player player, String args) {
+        directory.countPlayers(ar -> {
+            String online = ar.succeeded() ? String.valueOf(ar.result()) : "未知";
+            HeartbeatState heartbeat = player.getHeartbeat();
+            String latency = heartbeat.hasSamples()
+                    ? String.format("%.1fms（抖动 %.1fms）", heartbeat.getSmoothedRttMs(), heartbeat.getJitterMs())
+                    : "未测量（客户端未启用心跳）";
+            sendMessage(player, "系统", "服务器信息：\n" +
+                    "- 在线人数: " + online + "\n" +
+                    "- 你的ID: " + player.getTokenText() + "\n" +
+                    "- 你的昵称: " + (player.getName() != null ? player.getName() : "未设置") + "\n" +
+                    "- 协议版本: " + (player.getProtocolVersion() > 0 ? String.valueOf(player.getProtocolVersion()) : "未握手") + "\n" +
+                    "- 延迟: " + latency);
+        });
+    }
+
+    /**
+     * /move：移动一格或移动到指定坐标，在世界的下一个tick中生效
+     */
+    private void move(Player player, String args) {
+        Direction direction = Direction.fromName(args);
+        if (direction != null) {
+            world.step(player, direction);
+            return;
+        }
+        int comma = args.indexOf(',');
+        world.moveTo(player, Integer.parseInt(args.substring(0, comma).trim()), Integer.parseInt(args.substring(comma + 1).trim()));
+    }
+
+    /**
+     * /where：查看位置和视野内的玩家，由世界在下一个tick回复
+     */
+    private void where(Player player, String args) {
+        world.where(player);
+    }
+
+    /**
+     * /join：进入房间，通知原房间和新房间的成员
+     */
+    private void join(Player player, String args) {
+        String name = RoomManager.normalize(args);
+        Room current = player.getRoom();
+        if (current != null && current.getName().equals(name)) {
+            sendMessage(player, "系统", "你已经在房间 " + name + " 中");
+            return;
+        }
+        switchRoom(player, name);
+    }
+
+    /**
+     * /leave：离开房间回到大厅
+     */
+    private void leave(Player player, String args) {
+        Room current = player.getRoom();
+        if (current != null && current.getName().equals(RoomManager.LOBBY)) {
+            sendMessage(player, "系统", "你已经在大厅中");
+            return;
+        }
+        switchRoom(player, RoomManager.LOBBY);
+    }
+
+    private void switchRoom(Player player, String name) {
+        Room joined = roomManager.join(player, name, true);
+        sendMessage(player, "系统", "你已进入房间 " + joined.getName());
+    }
+
+    /**
+     * /rooms：汇总所有实例的房间人数
+     */
+    private void listRooms(Player player, String args) {
+        directory.countRooms(ar -> {
+            if (ar.failed()) {
+                logger.error("查询房间列表失败", ar.cause());
+                sendMessage(player, "系统", "查询房间列表失败，请稍后重试");
+                return;
+            }
+            Room current = player.getRoom();
+            StringBuilder roomList = new StringBuilder("房间列表:\n");
+            for (Map.Entry<String, Integer> room : ar.result().entrySet()) {
+                roomList.append("- ")
+                        .append(room.getKey())
+                        .append(" (").append(room.getValue()).append("人)")
+                        .append(current != null && current.getName().equals(room.getKey()) ? " (当前)" : "")
+                        .append("\n");
+            }
+            sendMessage(player, "系统", roomList.toString());
+        });
+    }
+
+    /**
+     * /say：附近聊天，由世界发给视野内的玩家和自己
+     */
+    private void say(Player player, String args) {
+        if (args.isEmpty()) {
+            sendMessage(player, "系统", "用法: /say <消息>");
+            return;
+        }
+        world.say(player, args);
+    }
+
+    /**
+     * 二进制Chat：发给同一房间的玩家
+     */
+    private void binaryChat(Player player, ProtocolReader reader) {
+        String text = ChatMessage.decode(reader).getText().trim();
+        if (!text.isEmpty()) {
+            broadcastToRoom(player, text);
+        }
+    }
+
+    /**
+     * 二进制Command：与文本协议的命令行相同，按命令的类别限流
+     */
+    private void binaryCommand(Player player, ProtocolReader reader) {
+        handleMessage(player, Buffer.buffer(CommandMessage.decode(reader).getLine()));
+    }
+
+    /**
+     * 二进制Move：向指定方向移动一格
+     */
+    private void binaryMove(Player player, ProtocolReader reader) {
+        Direction direction = Direction.fromCode(MoveMessage.decode(reader).getDirection());
+        if (direction == null) {
+            throw new ProtocolException("移动方向不合法");
+        }
+        world.step(player, direction);
+    }
+
+    /**
+     * 二进制MoveTo：移动到指定坐标
+     */
+    private void binaryMoveTo(Player player, ProtocolReader reader) {
+        MoveToMessage moveTo = MoveToMessage.decode(reader);
+        world.moveTo(player, moveTo.getX(), moveTo.getY());
+    }
+
+    /**
+     * 二进制Heartbeat：与文本协议的 /hb 相同
+     */
+    private void binaryHeartbeat(Player player, ProtocolReader reader) {
+        HeartbeatMessage heartbeat = HeartbeatMessage.decode(reader);
+        heartbeatMonitor.onHeartbeat(player, heartbeat.getSentAt(), heartbeat.getEcho());
+    }
+
+    /**
+     * /hb：心跳，不在帮助中显示
+     */
+    private void heartbeat(Player player, String args) {
+        if (!heartbeatMonitor.handleHeartbeat(player, args)) {
+            sendMessage(player, "系统", "心跳格式错误，格式: /hb 时间戳 [回显时间戳]");
+        }
+    }
+
+    /**
+     * 发送消息给指定玩家
+     * 直接发给玩家的消息不会被丢弃
+     * @param player 目标玩家
      * @param sender 发送者
      * @param content 消息内容
      */
-    private void sendMessage(NetSocket socket, String sender, String content) {
-        // 检查连接状态和写入队列状态
-        if (socket != null && !socket.writeQueueFull()) {
+    public void sendMessage(Player player, String sender, String content) {
+        send(player, OutboundMessage.text(sender, content), DeliveryPolicy.NEVER_DROP);
+    }
+
+    /**
+     * 发送系统通知后断开玩家
+     * 发送队列中的消息（包括这条通知）写出后才关闭连接，之后发给该玩家的消息不再发送
+     * @param player 目标玩家
+     * @param notice 通知内容
+     */
+    public void disconnect(Player player, String notice) {
+        sendMessage(player, "系统", notice);
+        OutboundQueue queue = player.getOutboundQueue();
+        if (queue != null) {
+            queue.closeAfterFlush(v -> player.getConnection().close());
+        } else {
+            player.getConnection().close();
+        }
+    }
+
+    /**
+     * 发送已编码的消息给指定玩家，按玩家连接的帧格式封装
+     * @param player 目标玩家
+     * @param message 已编码的消息
+     * @param policy 发送队列积压时的投递策略
+     */
+    @Override
+    public void send(Player player, OutboundMessage message, DeliveryPolicy policy) {
+        OutboundQueue queue = player.getOutboundQueue();
+        if (queue != null) {
             try {
-                String fullMessage = "[" + sender + "]: " + content + "\n";
-                socket.write(Buffer.buffer(fullMessage, "UTF-8"));
+                queue.enqueue(message.framed(player.getConnection()), policy);
             } catch (Exception e) {
                 logger.error("发送消息失败", e);
             }
@@ -166,29 +491,69 @@ public class MessageHandler {
 
     /**
      * 广播消息给所有玩家
+     * 消息只编码一次，通过事件总线交给每个实例，由各实例写给自己的玩家
      * @param sender 发送者
      * @param content 消息内容
      */
     public void broadcastToAll(String sender, String content) {
-        for (Map.Entry<String, Player> entry : players.entrySet()) {
-            Player player = entry.getValue();
-            sendMessage(player.getSocket(), sender, content);
-        }
+        vertx.eventBus().publish(BROADCAST_ADDRESS, OutboundMessage.text(sender, content));
     }
 
     /**
-     * 广播消息给所有玩家，但排除指定玩家
-     * @param sender 发送者
+     * 把玩家的聊天消息发给同一房间的所有成员
+     * 消息由托管房间的实例编码一次，不在房间中的玩家收不到
+     * @param player 发送消息的玩家
      * @param content 消息内容
-     * @param excludePlayerId 排除的玩家ID
-     */
-    public void broadcastToAll(String sender, String content, String excludePlayerId) {
-        for (Map.Entry<String, Player> entry : players.entrySet()) {
-            String playerId = entry.getKey();
-            if (!playerId.equals(excludePlayerId)) {
-                Player player = entry.getValue();
-                sendMessage(player.getSocket(), sender, content);
-            }
+     */
+    public void broadcastToRoom(Player player, String content) {
+        if (!roomManager.chat(player, content)) {
+            broadcastToAll(player.getDisplayName(), content);
+        }
+    }
+
+    /**
+     * 获取私聊消息的事件总线地址
+     * @param shardAddress 接收者所在分片的地址
+     * @return 私聊地址
+     */
+    public static String directAddress(String shardAddress) {
+        return shardAddress + DIRECT_ADDRESS_SUFFIX;
+    }
+
+    /**
+     * 处理其他实例发来的私聊，投递给本实例上的接收者
+     * 回复true表示已投递，接收者已断开时回复false
+     * @param direct 私聊消息
+     */
+    public void deliverDirect(Message<OutboundMessage> direct) {
+        Player recipient = shard.get(Integer.parseInt(direct.headers().get(RECIPIENT_HEADER)));
+        if (recipient == null) {
+            direct.reply(false);
+            return;
+        }
+        send(recipient, direct.body(), DeliveryPolicy.NEVER_DROP);
+        direct.reply(true);
+    }
+
+    /**
+     * 玩家断开时释放昵称
+     * @param player 断开的玩家
+     */
+    public void releaseName(Player player) {
+        if (player.getName() != null) {
+            names.release(player.getName(), shard.getAddress(), player.getId());
+        }
+    }
+
+    /**
+     * 处理事件总线上的广播，发给当前实例上的玩家
+     * 广播的是聊天和系统通知，不会被后续消息覆盖，因此不可丢弃
+     * @param broadcast 广播消息
+     */
+    public void deliverBroadcast(Message<OutboundMessage> broadcast) {
+        OutboundMessage message = broadcast.body();
+        for (Player player : shard.players()) {
+            send(player, message, DeliveryPolicy.NEVER_DROP);
         }
     }
 }
\ No newline at end of file
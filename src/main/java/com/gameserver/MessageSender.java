@@ -0,0 +1,21 @@
+package com.gameserver;
+
+import com.gameserver.net.DeliveryPolicy;
+import com.gameserver.net.OutboundMessage;
+
+/**
+ * 消息发送方式
+ * 把已经编码好的消息放入玩家的发送队列，由{@link MessageHandler}实现，
+ * 视野同步、房间等模块通过它发送消息，不直接依赖MessageHandler。
+ */
+@FunctionalInterface
+public interface MessageSender {
+
+    /**
+     * 发送消息给玩家
+     * @param player 接收消息的玩家
+     * @param message 待发送的消息
+     * @param policy 投递策略
+     */
+    void send(Player player, OutboundMessage message, DeliveryPolicy policy);
+}
@@ -0,0 +1,107 @@
+package com.gameserver;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.core.shareddata.Shareable;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * 昵称索引
+ * 昵称（不区分大小写）到玩家所在分片和会话ID的映射，保存在Vert.x的共享LocalMap中，所有实例并发访问。
+ * 通过putIfAbsent登记昵称，保证全服唯一；按昵称查找玩家不需要遍历任何分片。
+ * 由MessageHandler在改名和玩家断开时维护。
+ */
+public class NameIndex {
+    private static final String MAP_NAME = "game.names";
+
+    private final LocalMap<String, Entry> names;
+
+    /**
+     * 构造方法
+     * @param vertx Vert.x实例，同一Vert.x实例上的所有索引共享数据
+     */
+    public NameIndex(Vertx vertx) {
+        this.names = vertx.sharedData().getLocalMap(MAP_NAME);
+    }
+
+    /**
+     * 获取昵称的索引键，昵称比较不区分大小写
+     * @param name 昵称
+     * @return 索引键
+     */
+    public static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 登记昵称
+     * @param name 昵称
+     * @param shardAddress 玩家所在分片的地址
+     * @param playerId 玩家会话ID
+     * @return 昵称未被其他玩家使用并登记成功时返回true
+     */
+    public boolean claim(String name, String shardAddress, int playerId) {
+        Entry entry = new Entry(shardAddress, playerId);
+        Entry existing = names.putIfAbsent(key(name), entry);
+        return existing == null || existing.equals(entry);
+    }
+
+    /**
+     * 释放昵称，只有登记者本人可以释放
+     * @param name 昵称
+     * @param shardAddress 玩家所在分片的地址
+     * @param playerId 玩家会话ID
+     */
+    public void release(String name, String shardAddress, int playerId) {
+        names.remove(key(name), new Entry(shardAddress, playerId));
+    }
+
+    /**
+     * 按昵称查找玩家
+     * @param name 昵称
+     * @return 玩家所在的分片和会话ID，昵称未被使用时返回null
+     */
+    public Entry lookup(String name) {
+        return names.get(key(name));
+    }
+
+    /**
+     * 昵称对应的玩家位置，不可变，可以在实例之间共享而不复制
+     */
+    public static final class Entry implements Shareable {
+        private final String shardAddress;
+        private final int playerId;
+
+        Entry(String shardAddress, int playerId) {
+            this.shardAddress = shardAddress;
+            this.playerId = playerId;
+        }
+
+        public String getShardAddress() {
+            return shardAddress;
+        }
+
+        public int getPlayerId() {
+            return playerId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry other = (Entry) o;
+            return playerId == other.playerId && shardAddress.equals(other.shardAddress);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(shardAddress, playerId);
+        }
+    }
+}
@@ -1,25 +1,44 @@
 package com.gameserver;
 
-import io.vertx.core.net.NetSocket;
+import com.gameserver.limit.RateLimiter;
+import com.gameserver.net.Connection;
+import com.gameserver.net.FramingMode;
+import com.gameserver.net.HeartbeatState;
+import com.gameserver.net.WireFormat;
+import com.gameserver.net.OutboundQueue;
+import com.gameserver.room.Room;
+import com.gameserver.util.SessionIds;
+import com.gameserver.util.TimingWheel;
 
 /**
  * 玩家类
  * 表示游戏中的玩家对象
+ * 只在所属PlayerShard的事件循环线程中访问，字段不需要同步
  */
 public class Player {
-    private String id;          // 玩家唯一标识符
+    private final int id;       // 会话ID，只在服务器内部使用
+    private final int token;    // 对外的不透明令牌
+    private final String tokenText; // 令牌的16进制文本
     private String name;        // 玩家名称
-    private NetSocket socket;   // 玩家的网络连接
+    private Connection connection; // 玩家的网络连接（TCP或WebSocket）
     private long lastActiveTime; // 最后活动时间
+    private OutboundQueue outboundQueue; // 发送队列
+    private long udpToken;      // UDP会话令牌，未启用UDP时为0
+    private RateLimiter rateLimiter; // 消息限流器
+    private TimingWheel.Timeout<Player> idleTimeout; // 空闲超时定时任务
+    private final HeartbeatState heartbeat = new HeartbeatState(); // 心跳和RTT统计
+    private Room room;          // 所在房间
 
     /**
      * 构造方法
-     * @param id 玩家ID
-     * @param socket 玩家的网络连接
+     * @param id 会话ID，由{@link SessionIds}分配
+     * @param connection 玩家的网络连接
      */
-    public Player(String id, NetSocket socket) {
+    public Player(int id, Connection connection) {
         this.id = id;
-        this.socket = socket;
+        this.token = SessionIds.token(id);
+        this.tokenText = SessionIds.format(token);
+        this.connection = connection;
         this.name = null; // 初始名称为null
         this.lastActiveTime = System.currentTimeMillis();
     }
@@ -32,18 +51,35 @@ public class Player {
     }
 
     /**
-     * 更新玩家最后活动时间（兼容方法）
+     * 获取会话ID
+     * @return 会话ID
      */
-    public void updateLastActiveTime() {
-        updateActivity();
+    public int getId() {
+        return id;
     }
 
     /**
-     * 获取玩家ID
-     * @return 玩家ID
+     * 获取对外的令牌，发给客户端的消息中用它标识玩家
+     * @return 令牌
      */
-    public String getId() {
-        return id;
+    public int getToken() {
+        return token;
+    }
+
+    /**
+     * 获取令牌的16进制文本
+     * @return 8位16进制字符串
+     */
+    public String getTokenText() {
+        return tokenText;
+    }
+
+    /**
+     * 获取显示名称
+     * @return 玩家名称，未设置时为令牌文本
+     */
+    public String getDisplayName() {
+        return name != null ? name : tokenText;
     }
 
     /**
@@ -66,8 +102,121 @@ public class Player {
      * 获取玩家的网络连接
      * @return 网络连接
      */
-    public NetSocket getSocket() {
-        return socket;
+    public Connection getConnection() {
+        return connection;
+    }
+
+    /**
+     * 获取连接使用的帧格式
+     * @return 帧格式
+     */
+    public FramingMode getFramingMode() {
+        return connection.framingMode();
+    }
+
+    /**
+     * 获取玩家连接的消息编码方式
+     * @return 消息编码方式
+     */
+    public WireFormat getWireFormat() {
+        return connection.wireFormat();
+    }
+
+    /**
+     * 获取玩家连接协商的协议版本
+     * @return 协议版本，未握手时为0
+     */
+    public int getProtocolVersion() {
+        return connection.protocolVersion();
+    }
+
+    /**
+     * 获取玩家的发送队列
+     * @return 发送队列
+     */
+    public OutboundQueue getOutboundQueue() {
+        return outboundQueue;
+    }
+
+    /**
+     * 设置玩家的发送队列
+     * @param outboundQueue 发送队列
+     */
+    public void setOutboundQueue(OutboundQueue outboundQueue) {
+        this.outboundQueue = outboundQueue;
+    }
+
+    /**
+     * 获取UDP会话令牌
+     * @return UDP会话令牌，未启用UDP时为0
+     */
+    public long getUdpToken() {
+        return udpToken;
+    }
+
+    /**
+     * 设置UDP会话令牌
+     * @param udpToken UDP会话令牌
+     */
+    public void setUdpToken(long udpToken) {
+        this.udpToken = udpToken;
+    }
+
+    /**
+     * 获取玩家的消息限流器
+     * @return 限流器
+     */
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * 设置玩家的消息限流器
+     * @param rateLimiter 限流器
+     */
+    public void setRateLimiter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * 获取玩家的空闲超时定时任务
+     * @return 定时任务
+     */
+    public TimingWheel.Timeout<Player> getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * 设置玩家的空闲超时定时任务
+     * @param idleTimeout 定时任务
+     */
+    public void setIdleTimeout(TimingWheel.Timeout<Player> idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * 获取所在房间
+     * @return 房间，不在任何房间时返回null
+     */
+    public Room getRoom() {
+        return room;
+    }
+
+    /**
+     * 设置所在房间
+     * 只应由RoomManager调用，以保持房间成员与玩家一致
+     * @param room 房间
+     */
+    public void setRoom(Room room) {
+        this.room = room;
+    }
+
+    /**
+     * 获取玩家的心跳状态
+     * @return 心跳状态（包含RTT和抖动）
+     */
+    public HeartbeatState getHeartbeat() {
+        return heartbeat;
     }
 
     /**
@@ -0,0 +1,99 @@
+package com.gameserver;
+
+import com.gameserver.net.HeartbeatState;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * 玩家信息快照
+ * 分片之间通过事件总线交换的玩家信息
+ */
+public final class PlayerInfo {
+    private final String id;
+    private final String name;
+    private final double rttMs;     // 平滑RTT，未测量时为-1
+    private final double jitterMs;  // RTT抖动，未测量时为-1
+
+    /**
+     * 构造方法
+     * @param id 玩家令牌的16进制文本
+     * @param name 玩家名称（未设置时为null）
+     * @param rttMs 平滑RTT（毫秒），未测量时为-1
+     * @param jitterMs RTT抖动（毫秒），未测量时为-1
+     */
+    public PlayerInfo(String id, String name, double rttMs, double jitterMs) {
+        this.id = id;
+        this.name = name;
+        this.rttMs = rttMs;
+        this.jitterMs = jitterMs;
+    }
+
+    /**
+     * 生成玩家当前信息的快照
+     * @param player 玩家
+     * @return 玩家信息
+     */
+    public static PlayerInfo of(Player player) {
+        HeartbeatState heartbeat = player.getHeartbeat();
+        return heartbeat.hasSamples()
+                ? new PlayerInfo(player.getTokenText(), player.getName(), heartbeat.getSmoothedRttMs(), heartbeat.getJitterMs())
+                : new PlayerInfo(player.getTokenText(), player.getName(), -1, -1);
+    }
+
+    /**
+     * 从事件总线消息中还原玩家信息
+     * @param json 由toJson生成的JSON
+     * @return 玩家信息
+     */
+    public static PlayerInfo fromJson(JsonObject json) {
+        return new PlayerInfo(json.getString("id"), json.getString("name"),
+                json.getDouble("rttMs", -1.0), json.getDouble("jitterMs", -1.0));
+    }
+
+    /**
+     * 转换为可通过事件总线发送的JSON
+     * @return JSON对象
+     */
+    public JsonObject toJson() {
+        return new JsonObject().put("id", id).put("name", name).put("rttMs", rttMs).put("jitterMs", jitterMs);
+    }
+
+    /**
+     * 获取玩家ID
+     * @return 玩家令牌的16进制文本
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * 获取玩家名称
+     * @return 玩家名称，未设置时为null
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 获取平滑RTT
+     * @return 平滑RTT（毫秒），未测量时为-1
+     */
+    public double getRttMs() {
+        return rttMs;
+    }
+
+    /**
+     * 获取RTT抖动
+     * @return 抖动（毫秒），未测量时为-1
+     */
+    public double getJitterMs() {
+        return jitterMs;
+    }
+
+    /**
+     * 获取用于展示的名称
+     * @return 玩家名称，未设置时为玩家ID
+     */
+    public String getDisplayName() {
+        return name != null ? name : id;
+    }
+}
@@ -0,0 +1,143 @@
+package com.gameserver;
+
+import com.gameserver.util.SessionIds;
+import io.netty.util.collection.IntObjectHashMap;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 玩家分片
+ * 每个GameServerVerticle实例拥有一个分片，分片中的玩家只在该实例的事件循环线程中访问，
+ * 因此使用不加锁的IntObjectHashMap（以会话ID为键，不装箱），Player的字段也不需要跨线程可见。
+ * 分片同时负责分配本分片玩家的会话ID。
+ * 其他实例通过事件总线向分片地址发送查询，而不是直接访问分片数据。
+ */
+public class PlayerShard {
+    // 分片查询的类型
+    public static final String QUERY_LIST = "list";
+    public static final String QUERY_COUNT = "count";
+    public static final String QUERY_ROOMS = "rooms";
+    public static final String QUERY_INFO = "info";
+    // QUERY_INFO查询的玩家会话ID
+    public static final String ID_HEADER = "id";
+
+    private static final AtomicInteger NEXT_SHARD_ID = new AtomicInteger();
+
+    private final String address;
+    private final IntObjectHashMap<Player> players = new IntObjectHashMap<>();
+    private final SessionIds sessionIds;
+
+    public PlayerShard() {
+        int shardId = NEXT_SHARD_ID.getAndIncrement();
+        this.address = "game.shard." + shardId;
+        // 重新部署后编号会继续增长，同时存活的分片不会超过会话ID能区分的数量
+        this.sessionIds = new SessionIds(shardId % SessionIds.MAX_SHARDS);
+    }
+
+    /**
+     * 分配会话ID
+     * @return 会话ID
+     */
+    public int allocateId() {
+        return sessionIds.allocate();
+    }
+
+    /**
+     * 获取分片的事件总线地址
+     * @return 事件总线地址
+     */
+    public String getAddress() {
+        return address;
+    }
+
+    /**
+     * 添加玩家
+     * @param player 玩家
+     */
+    public void add(Player player) {
+        players.put(player.getId(), player);
+    }
+
+    /**
+     * 移除玩家并回收会话ID
+     * @param playerId 会话ID
+     * @return 被移除的玩家，不存在时返回null
+     */
+    public Player remove(int playerId) {
+        Player player = players.remove(playerId);
+        if (player != null) {
+            sessionIds.release(playerId);
+        }
+        return player;
+    }
+
+    /**
+     * 查找玩家
+     * @param playerId 会话ID
+     * @return 玩家，不存在时返回null
+     */
+    public Player get(int playerId) {
+        return players.get(playerId);
+    }
+
+    /**
+     * 获取分片中的玩家数
+     * @return 玩家数
+     */
+    public int size() {
+        return players.size();
+    }
+
+    /**
+     * 获取分片中的所有玩家
+     * @return 玩家集合（不要在遍历时增删玩家）
+     */
+    public Collection<Player> players() {
+        return players.values();
+    }
+
+    /**
+     * 处理来自其他实例的查询
+     * @param query 查询消息，消息体为查询类型
+     */
+    public void handleQuery(Message<String> query) {
+        switch (query.body()) {
+            case QUERY_COUNT:
+                query.reply(players.size());
+                break;
+
+            case QUERY_LIST:
+                JsonArray list = new JsonArray();
+                for (Player player : players.values()) {
+                    list.add(PlayerInfo.of(player).toJson());
+                }
+                query.reply(list);
+                break;
+
+            case QUERY_INFO:
+                // 玩家不在本分片（已断开）时回复null
+                Player target = players.get(Integer.parseInt(query.headers().get(ID_HEADER)));
+                query.reply(target != null ? PlayerInfo.of(target).toJson() : null);
+                break;
+
+            case QUERY_ROOMS:
+                JsonObject rooms = new JsonObject();
+                for (Player player : players.values()) {
+                    if (player.getRoom() != null) {
+                        String name = player.getRoom().getName();
+                        rooms.put(name, rooms.getInteger(name, 0) + 1);
+                    }
+                }
+                query.reply(rooms);
+                break;
+
+            default:
+                query.fail(400, "未知的分片查询: " + query.body());
+                break;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.gameserver;
+
+import com.gameserver.game.World;
+import com.gameserver.limit.AdmissionController;
+import com.gameserver.limit.RateLimitPolicy;
+import com.gameserver.limit.TrafficClass;
+import com.gameserver.net.FramingMode;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.net.NetServerOptions;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 服务器配置
+ * 对Verticle的config()做一层带默认值的封装
+ */
+public class ServerConfig {
+    // 默认配置
+    public static final int DEFAULT_MAX_FRAME_SIZE = 64 * 1024;
+    public static final int DEFAULT_OUTBOUND_QUEUE_SIZE = 256;
+    public static final int DEFAULT_OUTBOUND_RELIABLE_LIMIT = 1024;
+    public static final int DEFAULT_SLOW_CONSUMER_TIMEOUT_SECONDS = 10;
+    public static final int DEFAULT_ACCEPT_BACKLOG = 1024;
+    public static final int DEFAULT_WRITE_QUEUE_MAX_SIZE = 64 * 1024;
+    public static final int DEFAULT_UDP_PORT = 9092;
+    public static final int DEFAULT_BINARY_PORT = 0;
+    public static final int MIN_TICK_RATE = 20;
+    public static final int MAX_TICK_RATE = 60;
+
+    private final JsonObject config;
+
+    /**
+     * 构造方法
+     * @param config 原始配置（可以为null）
+     */
+    public ServerConfig(JsonObject config) {
+        this.config = config != null ? config : new JsonObject();
+    }
+
+    /**
+     * 获取GameServerVerticle的部署实例数
+     * 配置为0或负数时，每个CPU核心部署一个实例
+     * @return 实例数
+     */
+    public int getInstances() {
+        int instances = config.getInteger("instances", 1);
+        return instances > 0 ? instances : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * 获取RoomVerticle实例数
+     * 配置为0或负数时，每个CPU核心部署一个实例
+     * @return 实例数
+     */
+    public int getRoomVerticles() {
+        int instances = config.getInteger("roomVerticles", 0);
+        return instances > 0 ? instances : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * 获取TCP连接的帧格式
+     * @return 帧格式，默认为换行分隔
+     */
+    public FramingMode getFramingMode() {
+        return FramingMode.fromConfig(config.getString("framing", "line"));
+    }
+
+    /**
+     * 获取单帧最大字节数
+     * @return 单帧最大字节数
+     */
+    public int getMaxFrameSize() {
+        return config.getInteger("maxFrameSize", DEFAULT_MAX_FRAME_SIZE);
+    }
+
+    /**
+     * 获取每个玩家可丢弃消息的最大排队数
+     * @return 最大排队数
+     */
+    public int getOutboundQueueSize() {
+        return config.getInteger("outboundQueueSize", DEFAULT_OUTBOUND_QUEUE_SIZE);
+    }
+
+    /**
+     * 获取每个玩家不可丢弃消息的最大排队数
+     * @return 最大排队数
+     */
+    public int getOutboundReliableLimit() {
+        return config.getInteger("outboundReliableLimit", DEFAULT_OUTBOUND_RELIABLE_LIMIT);
+    }
+
+    /**
+     * 获取慢速连接判定时间
+     * @return 发送队列持续积压的最长时间（毫秒）
+     */
+    public long getSlowConsumerTimeoutMs() {
+        return TimeUnit.SECONDS.toMillis(config.getInteger("slowConsumerTimeoutSeconds", DEFAULT_SLOW_CONSUMER_TIMEOUT_SECONDS));
+    }
+
+    /**
+     * 构建游戏服务器（9090端口）的TCP参数
+     * 发送/接收缓冲区配置为0或负数时使用操作系统默认值
+     * @return TCP服务器参数
+     */
+    public NetServerOptions createNetServerOptions() {
+        NetServerOptions options = new NetServerOptions()
+                .setTcpNoDelay(config.getBoolean("tcpNoDelay", true))
+                .setTcpKeepAlive(config.getBoolean("tcpKeepAlive", true))
+                .setReuseAddress(true)
+                .setReusePort(config.getBoolean("reusePort", false))
+                .setAcceptBacklog(config.getInteger("acceptBacklog", DEFAULT_ACCEPT_BACKLOG));
+
+        int sendBufferSize = config.getInteger("sendBufferSize", -1);
+        if (sendBufferSize > 0) {
+            options.setSendBufferSize(sendBufferSize);
+        }
+        int receiveBufferSize = config.getInteger("receiveBufferSize", -1);
+        if (receiveBufferSize > 0) {
+            options.setReceiveBufferSize(receiveBufferSize);
+        }
+        return options;
+    }
+
+    /**
+     * 获取每个连接的写缓冲区上限（高水位，字节）
+     * 超过后socket.writeQueueFull()返回true，回落到一半（低水位）以下时触发drainHandler
+     * @return 写缓冲区上限
+     */
+    public int getWriteQueueMaxSize() {
+        return config.getInteger("writeQueueMaxSize", DEFAULT_WRITE_QUEUE_MAX_SIZE);
+    }
+
+    /**
+     * 是否启用UDP移动通道
+     * @return 启用时返回true
+     */
+    public boolean isUdpEnabled() {
+        return config.getBoolean("udpEnabled", false);
+    }
+
+    /**
+     * 获取UDP移动通道的端口
+     * @return UDP端口
+     */
+    public int getUdpPort() {
+        return config.getInteger("udpPort", DEFAULT_UDP_PORT);
+    }
+
+    /**
+     * 获取等待客户端握手请求的时间
+     * 超时未收到数据的连接按旧客户端（文本协议）处理
+     * @return 等待时间（毫秒）
+     */
+    public long getHandshakeTimeoutMs() {
+        return config.getInteger("handshakeTimeoutMs", 300);
+    }
+
+    /**
+     * 获取二进制协议的TCP端口
+     * 该端口不握手，固定使用二进制协议和长度前缀分帧；9090端口可以通过握手协商二进制协议
+     * @return 端口，0（默认）表示不开启二进制协议端口
+     */
+    public int getBinaryPort() {
+        return config.getInteger("binaryPort", DEFAULT_BINARY_PORT);
+    }
+
+    /**
+     * 构建玩家消息的限流策略
+     * 每类消息可配置每秒条数和突发上限，例如 chatRate / chatBurst
+     * @return 限流策略
+     */
+    public RateLimitPolicy createRateLimitPolicy() {
+        return new RateLimitPolicy(config.getInteger("abuseThreshold", 50), config.getInteger("abuseWindowSeconds", 10))
+                .limit(TrafficClass.CHAT, config.getDouble("chatRate", 2.0), config.getDouble("chatBurst", 5.0))
+                .limit(TrafficClass.MOVEMENT, config.getDouble("moveRate", 20.0), config.getDouble("moveBurst", 30.0))
+                .limit(TrafficClass.COMMAND, config.getDouble("commandRate", 5.0), config.getDouble("commandBurst", 10.0))
+                .limit(TrafficClass.HEARTBEAT, config.getDouble("heartbeatRate", 2.0), config.getDouble("heartbeatBurst", 5.0));
+    }
+
+    /**
+     * 构建（或获取已有的）连接准入控制器
+     * @param vertx Vert.x实例
+     * @return 所有实例共享的准入控制器
+     */
+    public AdmissionController sharedAdmissionController(Vertx vertx) {
+        return AdmissionController.shared(vertx,
+                config.getInteger("maxConnectionsPerIp", 20),
+                config.getInteger("maxOnline", 10000),
+                config.getDouble("acceptRate", 200.0),
+                config.getDouble("acceptBurst", 500.0));
+    }
+
+    /**
+     * 获取每个实例排队等待进入的最大连接数
+     * @return 排队上限
+     */
+    public int getWaitingRoomSize() {
+        return config.getInteger("waitingRoomSize", 1000);
+    }
+
+    /**
+     * 获取合并发送玩家加入和离开通知的间隔
+     * @return 间隔（毫秒）
+     */
+    public long getJoinNoticeIntervalMs() {
+        return config.getInteger("joinNoticeIntervalMs", 1000);
+    }
+
+    /**
+     * 获取玩家空闲超时时间
+     * @return 超时时间（毫秒）
+     */
+    public long getIdleTimeoutMs() {
+        return TimeUnit.SECONDS.toMillis(config.getInteger("idleTimeoutSeconds", 300));
+    }
+
+    /**
+     * 获取空闲检查的精度（时间轮每个tick的时长）
+     * @return 检查间隔（毫秒）
+     */
+    public long getIdleCheckIntervalMs() {
+        return config.getInteger("idleCheckIntervalMs", 1000);
+    }
+
+    /**
+     * 获取服务器发起心跳的间隔
+     * @return 心跳间隔（毫秒）
+     */
+    public long getHeartbeatIntervalMs() {
+        return config.getInteger("heartbeatIntervalMs", 5000);
+    }
+
+    /**
+     * 获取允许连续未回应的心跳数
+     * @return 未回应心跳数上限
+     */
+    public int getMaxMissedHeartbeats() {
+        return config.getInteger("maxMissedHeartbeats", 3);
+    }
+
+    /**
+     * 获取游戏循环的tick频率
+     * 限制在20-60Hz之间
+     * @return 每秒tick数
+     */
+    public int getTickRate() {
+        int tickRate = config.getInteger("tickRate", 20);
+        return Math.max(MIN_TICK_RATE, Math.min(MAX_TICK_RATE, tickRate));
+    }
+
+    /**
+     * 创建游戏世界，由WorldVerticle托管，整个服务器只有一个
+     * @return 游戏世界
+     */
+    public World createWorld() {
+        return new World(config.getInteger("worldWidth", 1000), config.getInteger("worldHeight", 1000),
+                config.getInteger("gridCellSize", 50), config.getInteger("maxMoveDistance", 10));
+    }
+
+    /**
+     * 获取玩家的视野半径，其他玩家进入该半径后互相可见
+     * @return 视野半径
+     */
+    public int getViewRadius() {
+        return config.getInteger("viewRadius", 50);
+    }
+
+    /**
+     * 获取离开视野的滞后距离，可见的玩家超出视野半径加上该距离后才互相不可见
+     * @return 滞后距离
+     */
+    public int getViewHysteresis() {
+        return Math.max(0, config.getInteger("viewHysteresis", 10));
+    }
+}
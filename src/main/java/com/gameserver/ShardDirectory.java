@@ -0,0 +1,157 @@
+package com.gameserver;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.LocalMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 分片目录
+ * 记录所有玩家分片的事件总线地址，并把跨分片的查询分发到每个分片后汇总结果。
+ * 回调在调用方的上下文中执行。
+ */
+public class ShardDirectory {
+    private static final String MAP_NAME = "game.shards";
+
+    private final Vertx vertx;
+    private final LocalMap<String, Boolean> shards;
+
+    /**
+     * 构造方法
+     * @param vertx Vert.x实例，同一Vert.x实例上的所有目录共享数据
+     */
+    public ShardDirectory(Vertx vertx) {
+        this.vertx = vertx;
+        this.shards = vertx.sharedData().getLocalMap(MAP_NAME);
+    }
+
+    /**
+     * 登记分片
+     * @param shard 玩家分片
+     */
+    public void register(PlayerShard shard) {
+        shards.put(shard.getAddress(), Boolean.TRUE);
+    }
+
+    /**
+     * 注销分片
+     * @param shard 玩家分片
+     */
+    public void unregister(PlayerShard shard) {
+        shards.remove(shard.getAddress());
+    }
+
+    /**
+     * 统计所有分片的在线人数
+     * @param handler 结果处理器
+     */
+    public void countPlayers(Handler<AsyncResult<Integer>> handler) {
+        this.<Integer>queryAll(PlayerShard.QUERY_COUNT, ar -> {
+            if (ar.failed()) {
+                handler.handle(Future.failedFuture(ar.cause()));
+                return;
+            }
+            int total = 0;
+            for (Integer count : ar.result()) {
+                total += count;
+            }
+            handler.handle(Future.succeededFuture(total));
+        });
+    }
+
+    /**
+     * 获取所有分片的在线玩家
+     * @param handler 结果处理器
+     */
+    public void listPlayers(Handler<AsyncResult<List<PlayerInfo>>> handler) {
+        this.<JsonArray>queryAll(PlayerShard.QUERY_LIST, ar -> {
+            if (ar.failed()) {
+                handler.handle(Future.failedFuture(ar.cause()));
+                return;
+            }
+            List<PlayerInfo> players = new ArrayList<>();
+            for (JsonArray list : ar.result()) {
+                for (int i = 0; i < list.size(); i++) {
+                    players.add(PlayerInfo.fromJson(list.getJsonObject(i)));
+                }
+            }
+            handler.handle(Future.succeededFuture(players));
+        });
+    }
+
+    /**
+     * 查询指定分片上的玩家
+     * @param shardAddress 分片地址
+     * @param playerId 玩家会话ID
+     * @param handler 结果处理器，玩家已不在该分片时结果为null
+     */
+    public void findPlayer(String shardAddress, int playerId, Handler<AsyncResult<PlayerInfo>> handler) {
+        DeliveryOptions options = new DeliveryOptions().addHeader(PlayerShard.ID_HEADER, Integer.toString(playerId));
+        vertx.eventBus().<JsonObject>request(shardAddress, PlayerShard.QUERY_INFO, options, ar -> {
+            if (ar.failed()) {
+                handler.handle(Future.failedFuture(ar.cause()));
+                return;
+            }
+            JsonObject json = ar.result().body();
+            handler.handle(Future.succeededFuture(json != null ? PlayerInfo.fromJson(json) : null));
+        });
+    }
+
+    /**
+     * 统计所有分片中每个房间的人数
+     * @param handler 结果处理器，按房间名排序
+     */
+    public void countRooms(Handler<AsyncResult<Map<String, Integer>>> handler) {
+        this.<JsonObject>queryAll(PlayerShard.QUERY_ROOMS, ar -> {
+            if (ar.failed()) {
+                handler.handle(Future.failedFuture(ar.cause()));
+                return;
+            }
+            Map<String, Integer> rooms = new TreeMap<>();
+            for (JsonObject counts : ar.result()) {
+                for (String name : counts.fieldNames()) {
+                    rooms.merge(name, counts.getInteger(name), Integer::sum);
+                }
+            }
+            handler.handle(Future.succeededFuture(rooms));
+        });
+    }
+
+    /**
+     * 向每个分片发送查询并收集所有回复
+     */
+    @SuppressWarnings("rawtypes")
+    private <T> void queryAll(String query, Handler<AsyncResult<List<T>>> handler) {
+        List<Future> replies = new ArrayList<>();
+        for (String address : shards.keySet()) {
+            Promise<Message<T>> reply = Promise.promise();
+            vertx.eventBus().request(address, query, reply);
+            replies.add(reply.future());
+        }
+
+        CompositeFuture.all(replies).onComplete(ar -> {
+            if (ar.failed()) {
+                handler.handle(Future.failedFuture(ar.cause()));
+                return;
+            }
+            List<T> bodies = new ArrayList<>(replies.size());
+            for (int i = 0; i < replies.size(); i++) {
+                Message<T> message = ar.result().resultAt(i);
+                bodies.add(message.body());
+            }
+            handler.handle(Future.succeededFuture(bodies));
+        });
+    }
+}
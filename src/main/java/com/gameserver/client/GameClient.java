@@ -1,8 +1,10 @@
 package com.gameserver.client;
 
 import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.net.NetClient;
+import io.vertx.core.net.NetClientOptions;
 import io.vertx.core.net.NetSocket;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,8 +26,11 @@ public class GameClient {
     private int port = 9090;
 
     public GameClient() {
-        this.vertx = Vertx.vertx();
-        this.client = vertx.createNetClient();
+        this.vertx = Vertx.vertx(new VertxOptions().setPreferNativeTransport(true));
+        // 关闭Nagle算法，避免移动等小包被延迟发送
+        this.client = vertx.createNetClient(new NetClientOptions()
+                .setTcpNoDelay(true)
+                .setTcpKeepAlive(true));
     }
 
     /**
@@ -0,0 +1,18 @@
+package com.gameserver.command;
+
+import com.gameserver.Player;
+
+/**
+ * 命令处理器
+ * 在玩家所在分片的事件循环上执行
+ */
+@FunctionalInterface
+public interface CommandHandler {
+
+    /**
+     * 执行命令
+     * @param player 发送命令的玩家
+     * @param args 命令名之后的参数（已去除首尾空白，没有参数时为空字符串），已通过注册时的校验
+     */
+    void handle(Player player, String args);
+}
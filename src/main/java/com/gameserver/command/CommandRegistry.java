@@ -0,0 +1,259 @@
+package com.gameserver.command;
+
+import com.gameserver.Player;
+import com.gameserver.limit.TrafficClass;
+import com.gameserver.net.FrameText;
+import com.gameserver.protocol.ProtocolReader;
+import io.vertx.core.buffer.Buffer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+import java.util.regex.Pattern;
+
+/**
+ * 命令注册表
+ * 命令名按ASCII忽略大小写匹配，直接在帧的字节上计算哈希并逐字节比较，
+ * 分发时不解码命令名；只有带参数的命令才把参数解码为字符串。
+ * 参数的格式校验使用注册时预编译的正则。
+ * 每个命令注册时指定限流类别，按查找到的命令限流，命令名的大小写不影响所用的令牌桶。
+ * 二进制协议的消息按操作码注册在同一个注册表中，用操作码直接索引，同样先限流再交给处理器。
+ * 新增命令只需注册处理器，分发开销不随命令数量增长。
+ * 只在所属实例的事件循环上使用，不做同步。
+ */
+public class CommandRegistry {
+    private static final int TABLE_SIZE = 64; // 开放寻址表大小（2的幂，需大于命令数）
+    private static final int OPCODE_COUNT = 256; // 操作码为1字节
+
+    private final Command[] table = new Command[TABLE_SIZE];
+    private final Opcode[] opcodes = new Opcode[OPCODE_COUNT];
+    private final List<Command> commands = new ArrayList<>();
+    private final BiConsumer<Player, String> replyHandler;
+    private final BiPredicate<Player, TrafficClass> rateLimiter;
+
+    /**
+     * 构造方法
+     * @param replyHandler 参数校验失败时向玩家回复用法说明
+     * @param rateLimiter 按命令的类别限流，返回false时丢弃该命令
+     */
+    public CommandRegistry(BiConsumer<Player, String> replyHandler, BiPredicate<Player, TrafficClass> rateLimiter) {
+        this.replyHandler = replyHandler;
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * 注册不校验参数的普通命令
+     * @param name 命令名（以/开头，小写）
+     * @param usage 帮助信息中的说明，为null时不在帮助中显示
+     * @param handler 处理器
+     * @return 当前注册表
+     */
+    public CommandRegistry register(String name, String usage, CommandHandler handler) {
+        return register(name, usage, null, TrafficClass.COMMAND, handler);
+    }
+
+    /**
+     * 注册普通命令
+     * @param name 命令名（以/开头，小写）
+     * @param usage 帮助信息中的说明，为null时不在帮助中显示
+     * @param argsPattern 参数必须完整匹配的正则，为null时不校验
+     * @param handler 处理器
+     * @return 当前注册表
+     */
+    public CommandRegistry register(String name, String usage, Pattern argsPattern, CommandHandler handler) {
+        return register(name, usage, argsPattern, TrafficClass.COMMAND, handler);
+    }
+
+    /**
+     * 注册命令
+     * @param name 命令名（以/开头，小写）
+     * @param usage 帮助信息中的说明，为null时不在帮助中显示
+     * @param argsPattern 参数必须完整匹配的正则，为null时不校验
+     * @param trafficClass 限流类别
+     * @param handler 处理器
+     * @return 当前注册表
+     */
+    public CommandRegistry register(String name, String usage, Pattern argsPattern, TrafficClass trafficClass,
+                                    CommandHandler handler) {
+        if (commands.size() >= TABLE_SIZE / 2) {
+            throw new IllegalStateException("注册的命令过多: " + name);
+        }
+        Command command = new Command(name, usage, argsPattern, trafficClass, handler);
+        int slot = hash(name) & (TABLE_SIZE - 1);
+        while (table[slot] != null) {
+            if (table[slot].name.equals(name)) {
+                throw new IllegalStateException("命令已注册: " + name);
+            }
+            slot = (slot + 1) & (TABLE_SIZE - 1);
+        }
+        table[slot] = command;
+        commands.add(command);
+        return this;
+    }
+
+    /**
+     * 注册二进制协议的操作码
+     * @param opcode 操作码
+     * @param trafficClass 限流类别，为null时不在这里限流（处理器把内容交给按命令限流的{@link #dispatch}）
+     * @param handler 处理器
+     * @return 当前注册表
+     */
+    public CommandRegistry registerOpcode(int opcode, TrafficClass trafficClass, OpcodeHandler handler) {
+        if (opcode < 0 || opcode >= OPCODE_COUNT) {
+            throw new IllegalArgumentException("操作码超出范围: " + opcode);
+        }
+        if (opcodes[opcode] != null) {
+            throw new IllegalStateException("操作码已注册: 0x" + Integer.toHexString(opcode));
+        }
+        opcodes[opcode] = new Opcode(trafficClass, handler);
+        return this;
+    }
+
+    /**
+     * 分发命令，先按命令的类别限流
+     * @param player 发送命令的玩家
+     * @param frame 消息帧
+     * @param start 去除空白后的起始位置（含），该位置的字节为/
+     * @param end 去除空白后的结束位置（不含）
+     * @return 找到对应命令时返回true（包括被限流丢弃的命令）
+     */
+    public boolean dispatch(Player player, Buffer frame, int start, int end) {
+        int nameEnd = FrameText.indexOf(frame, (byte) ' ', start, end);
+        Command command = lookup(frame, start, nameEnd);
+        if (command == null) {
+            return false;
+        }
+        if (!rateLimiter.test(player, command.trafficClass)) {
+            return true;
+        }
+
+        // 参数前后的空白：命令名后至少有一个空格，结尾已去除空白
+        int argsStart = nameEnd;
+        while (argsStart < end && (frame.getByte(argsStart) & 0xFF) <= ' ') {
+            argsStart++;
+        }
+        String args = FrameText.decode(frame, argsStart, end);
+        if (command.argsPattern != null && !command.argsPattern.matcher(args).matches()) {
+            replyHandler.accept(player, "格式错误，用法: " + command.usage);
+            return true;
+        }
+        command.handler.handle(player, args);
+        return true;
+    }
+
+    /**
+     * 分发二进制消息，先按操作码的类别限流
+     * @param player 发送消息的玩家
+     * @param frame 消息帧（操作码 + 字段），不能为空
+     * @return 找到对应操作码时返回true（包括被限流丢弃的消息）
+     */
+    public boolean dispatchBinary(Player player, Buffer frame) {
+        Opcode opcode = opcodes[frame.getUnsignedByte(0)];
+        if (opcode == null) {
+            return false;
+        }
+        if (opcode.trafficClass != null && !rateLimiter.test(player, opcode.trafficClass)) {
+            return true;
+        }
+        opcode.handler.handle(player, new ProtocolReader(frame, 1, frame.length()));
+        return true;
+    }
+
+    /**
+     * 获取消息中的命令名，仅用于提示信息
+     * @param frame 消息帧
+     * @param start 命令起始位置（含）
+     * @param end 消息结束位置（不含）
+     * @return 命令名
+     */
+    public static String commandName(Buffer frame, int start, int end) {
+        return FrameText.decode(frame, start, FrameText.indexOf(frame, (byte) ' ', start, end));
+    }
+
+    /**
+     * 获取所有命令的帮助信息，按注册顺序排列
+     * @return 帮助信息列表
+     */
+    public List<String> usages() {
+        List<String> usages = new ArrayList<>(commands.size());
+        for (Command command : commands) {
+            if (command.usage != null) {
+                usages.add(command.usage);
+            }
+        }
+        return Collections.unmodifiableList(usages);
+    }
+
+    private Command lookup(Buffer frame, int start, int end) {
+        int length = end - start;
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + toLowerAscii(frame.getByte(i));
+        }
+        int slot = spread(h) & (TABLE_SIZE - 1);
+        Command command;
+        while ((command = table[slot]) != null) {
+            if (command.name.length() == length && matches(frame, start, command.name)) {
+                return command;
+            }
+            slot = (slot + 1) & (TABLE_SIZE - 1);
+        }
+        return null;
+    }
+
+    private static boolean matches(Buffer frame, int start, String name) {
+        for (int i = 0; i < name.length(); i++) {
+            if (toLowerAscii(frame.getByte(start + i)) != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 计算命令名的哈希，与按字节计算的结果一致
+     */
+    private static int hash(String name) {
+        int h = 0;
+        for (int i = 0; i < name.length(); i++) {
+            h = 31 * h + name.charAt(i);
+        }
+        return spread(h);
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private static int toLowerAscii(byte b) {
+        return b >= 'A' && b <= 'Z' ? b + ('a' - 'A') : b & 0xFF;
+    }
+
+    private static final class Command {
+        final String name;
+        final String usage;
+        final Pattern argsPattern;
+        final TrafficClass trafficClass;
+        final CommandHandler handler;
+
+        Command(String name, String usage, Pattern argsPattern, TrafficClass trafficClass, CommandHandler handler) {
+            this.name = name;
+            this.usage = usage;
+            this.argsPattern = argsPattern;
+            this.trafficClass = trafficClass;
+            this.handler = handler;
+        }
+    }
+
+    private static final class Opcode {
+        final TrafficClass trafficClass;
+        final OpcodeHandler handler;
+
+        Opcode(TrafficClass trafficClass, OpcodeHandler handler) {
+            this.trafficClass = trafficClass;
+            this.handler = handler;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.gameserver.command;
+
+import com.gameserver.Player;
+import com.gameserver.protocol.ProtocolReader;
+
+/**
+ * 二进制消息处理器
+ * 在玩家所在分片的事件循环上执行
+ */
+@FunctionalInterface
+public interface OpcodeHandler {
+
+    /**
+     * 执行二进制消息
+     * @param player 发送消息的玩家
+     * @param reader 位于操作码之后的字段读取器，格式错误时抛出{@link com.gameserver.protocol.ProtocolException}
+     */
+    void handle(Player player, ProtocolReader reader);
+}
@@ -0,0 +1,79 @@
+package com.gameserver.game;
+
+import com.gameserver.util.SessionIds;
+
+/**
+ * 玩家在世界中的化身
+ * 玩家的连接留在所属的GameServerVerticle分片中，世界只保存同步位置所需的信息：
+ * 会话ID、对外令牌、显示名称和所在分片的地址，发给玩家的消息按分片地址汇总后投递。
+ * 只在{@link WorldVerticle}的事件循环上使用。
+ */
+public final class Avatar {
+    private final int playerId;
+    private final int token;
+    private final String shardAddress;
+    private String name;
+    private int entity = EntityStore.NONE;
+    private boolean udpBound;   // 客户端已绑定UDP通道，位置更新改走UDP
+
+    /**
+     * 构造方法
+     * @param playerId 玩家的会话ID
+     * @param shardAddress 玩家所在分片的地址
+     * @param name 显示名称
+     */
+    public Avatar(int playerId, String shardAddress, String name) {
+        this.playerId = playerId;
+        this.token = SessionIds.token(playerId);
+        this.shardAddress = shardAddress;
+        this.name = name;
+    }
+
+    public int getPlayerId() {
+        return playerId;
+    }
+
+    /**
+     * 获取对外的令牌，与玩家连接上使用的令牌相同
+     * @return 令牌
+     */
+    public int getToken() {
+        return token;
+    }
+
+    public String getShardAddress() {
+        return shardAddress;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public boolean isUdpBound() {
+        return udpBound;
+    }
+
+    public void setUdpBound(boolean udpBound) {
+        this.udpBound = udpBound;
+    }
+
+    /**
+     * 获取实体句柄
+     * @return 实体句柄，不在世界中时为{@link EntityStore#NONE}
+     */
+    public int getEntity() {
+        return entity;
+    }
+
+    /**
+     * 设置实体句柄，只应由World调用
+     * @param entity 实体句柄
+     */
+    public void setEntity(int entity) {
+        this.entity = entity;
+    }
+}
@@ -0,0 +1,61 @@
+package com.gameserver.game;
+
+/**
+ * 移动方向
+ * 编码与UDP移动通道和二进制协议的Move消息一致
+ */
+public enum Direction {
+    UP(0, -1),
+    DOWN(0, 1),
+    LEFT(-1, 0),
+    RIGHT(1, 0);
+
+    private static final Direction[] BY_CODE = values();
+
+    private final int dx;
+    private final int dy;
+
+    Direction(int dx, int dy) {
+        this.dx = dx;
+        this.dy = dy;
+    }
+
+    public int getDx() {
+        return dx;
+    }
+
+    public int getDy() {
+        return dy;
+    }
+
+    /**
+     * 获取方向编码
+     * @return 方向编码（0上 1下 2左 3右）
+     */
+    public int getCode() {
+        return ordinal();
+    }
+
+    /**
+     * 根据编码获取方向
+     * @param code 方向编码（0上 1下 2左 3右）
+     * @return 方向，编码无效时返回null
+     */
+    public static Direction fromCode(int code) {
+        return code >= 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+    }
+
+    /**
+     * 根据名称获取方向（忽略大小写）
+     * @param name up / down / left / right
+     * @return 方向，名称无效时返回null
+     */
+    public static Direction fromName(String name) {
+        for (Direction direction : BY_CODE) {
+            if (direction.name().equalsIgnoreCase(name)) {
+                return direction;
+            }
+        }
+        return null;
+    }
+}
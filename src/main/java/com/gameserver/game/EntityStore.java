@@ -0,0 +1,162 @@
+package com.gameserver.game;
+
+import java.util.Arrays;
+
+/**
+ * 实体存储
+ * 按列（结构数组）保存实体的组件：每个组件一个基本类型数组，存活的实体紧密排列在 [0, size) 中，
+ * tick循环按下标线性遍历，不需要解引用对象，也没有装箱。销毁实体时把最后一个实体移到空出的位置。
+ *
+ * 实体用int句柄引用：低 {@value #INDEX_BITS} 位是槽位，高位是槽位的代数。槽位被回收再分配时代数加一，
+ * 旧句柄因代数不匹配而失效，不会误指到新实体。句柄0永远无效，可以表示“没有实体”。
+ * 密集下标会随销毁而变化，只能在同一个tick内使用，跨tick保存实体时应保存句柄。
+ *
+ * 只在所属实例的事件循环上使用。
+ * @param <T> 实体所有者的类型（如玩家）
+ */
+public final class EntityStore<T> {
+    // 无效句柄
+    public static final int NONE = 0;
+
+    private static final int INDEX_BITS = 20;
+    private static final int INDEX_MASK = (1 << INDEX_BITS) - 1;
+    private static final int GENERATION_MASK = (1 << (Integer.SIZE - INDEX_BITS)) - 1;
+    private static final int MAX_ENTITIES = 1 << INDEX_BITS;
+    private static final int INITIAL_CAPACITY = 64;
+
+    // 按槽位索引：槽位的当前代数和实体的密集下标
+    private int[] generations = new int[INITIAL_CAPACITY];
+    private int[] denseIndex = new int[INITIAL_CAPACITY];
+    private int[] freeSlots = new int[INITIAL_CAPACITY];
+    private int freeCount;
+    private int slotCount;
+
+    // 按密集下标索引：实体所在的槽位和各个组件
+    private int[] slots = new int[INITIAL_CAPACITY];
+    private int[] x = new int[INITIAL_CAPACITY];
+    private int[] y = new int[INITIAL_CAPACITY];
+    private Object[] owners = new Object[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * 创建实体，组件初始为0
+     * @param owner 实体的所有者
+     * @return 实体句柄
+     * @throws IllegalStateException 实体数达到上限时抛出
+     */
+    public int create(T owner) {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (slotCount == MAX_ENTITIES) {
+                throw new IllegalStateException("实体数已达到上限: " + MAX_ENTITIES);
+            }
+            if (slotCount == generations.length) {
+                generations = Arrays.copyOf(generations, slotCount * 2);
+                denseIndex = Arrays.copyOf(denseIndex, slotCount * 2);
+            }
+            slot = slotCount++;
+            generations[slot] = 1;
+        }
+
+        if (size == slots.length) {
+            grow(size * 2);
+        }
+        int index = size++;
+        slots[index] = slot;
+        owners[index] = owner;
+        x[index] = 0;
+        y[index] = 0;
+        denseIndex[slot] = index;
+        return (generations[slot] << INDEX_BITS) | slot;
+    }
+
+    /**
+     * 销毁实体，句柄随即失效
+     * @param handle 实体句柄
+     * @return 实体存在并被销毁时返回true
+     */
+    public boolean destroy(int handle) {
+        int index = indexOf(handle);
+        if (index < 0) {
+            return false;
+        }
+
+        // 最后一个实体移到空出的位置，保持紧密排列
+        int last = --size;
+        if (index != last) {
+            slots[index] = slots[last];
+            owners[index] = owners[last];
+            x[index] = x[last];
+            y[index] = y[last];
+            denseIndex[slots[index]] = index;
+        }
+        owners[last] = null;
+
+        // 代数加一后回收槽位，跳过0以保证句柄不为0
+        int slot = handle & INDEX_MASK;
+        int generation = (generations[slot] + 1) & GENERATION_MASK;
+        generations[slot] = generation == 0 ? 1 : generation;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+        return true;
+    }
+
+    /**
+     * 获取实体当前的密集下标
+     * @param handle 实体句柄
+     * @return 密集下标，句柄无效或实体已销毁时返回-1
+     */
+    public int indexOf(int handle) {
+        int slot = handle & INDEX_MASK;
+        if (handle == NONE || slot >= slotCount || generations[slot] != handle >>> INDEX_BITS) {
+            return -1;
+        }
+        return denseIndex[slot];
+    }
+
+    /**
+     * 判断句柄指向的实体是否存活
+     * @param handle 实体句柄
+     * @return 存活时返回true
+     */
+    public boolean isAlive(int handle) {
+        return indexOf(handle) >= 0;
+    }
+
+    /**
+     * 获取存活的实体数，密集下标范围为 [0, size)
+     * @return 实体数
+     */
+    public int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T getOwner(int index) {
+        return (T) owners[index];
+    }
+
+    public int getX(int index) {
+        return x[index];
+    }
+
+    public int getY(int index) {
+        return y[index];
+    }
+
+    public void setPosition(int index, int newX, int newY) {
+        x[index] = newX;
+        y[index] = newY;
+    }
+
+    private void grow(int capacity) {
+        slots = Arrays.copyOf(slots, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        owners = Arrays.copyOf(owners, capacity);
+    }
+}
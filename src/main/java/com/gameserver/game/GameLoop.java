@@ -0,0 +1,228 @@
+package com.gameserver.game;
+
+import io.vertx.core.Vertx;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 固定步长的游戏循环
+ * 每个tick依次执行三个阶段：
+ * <ol>
+ * <li>按到达顺序应用上一个tick以来排队的玩家输入</li>
+ * <li>按注册顺序调用各个{@link GameSystem}推进世界状态</li>
+ * <li>调用flush处理器，把本tick产生的状态变化一次性发给玩家</li>
+ * </ol>
+ * 循环由{@link WorldVerticle}创建并运行在它的事件循环上，与世界、视野和发件箱共用一个线程，
+ * 因此输入、系统和发送都不需要加锁；玩家分片的请求经事件总线到达后才提交为输入。Vert.x定时器只有毫秒精度，循环按纳秒记录下一个tick的时间点，
+ * 定时器提前触发时不执行，落后时最多连续补 {@value #MAX_CATCH_UP_TICKS} 个tick，再落后就跳过并计数。
+ */
+public class GameLoop {
+    private static final Logger logger = LoggerFactory.getLogger(GameLoop.class);
+
+    private static final int MAX_CATCH_UP_TICKS = 5;
+    private static final long OVERRUN_LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    // 累计统计，由各个GameServerVerticle的HTTP状态接口跨线程读取
+    private static final LongAdder TOTAL_TICKS = new LongAdder();
+    private static final LongAdder TOTAL_TICK_NANOS = new LongAdder();
+    private static final LongAdder TOTAL_OVERRUNS = new LongAdder();
+    private static final LongAdder TOTAL_SKIPPED = new LongAdder();
+    private static final LongAccumulator MAX_TICK_NANOS = new LongAccumulator(Math::max, 0);
+
+    private final Vertx vertx;
+    private final int tickRate;
+    private final long periodNanos;
+    private final double deltaSeconds;
+    private final ArrayDeque<Runnable> inputs = new ArrayDeque<>();
+    private final List<GameSystem> systems = new ArrayList<>();
+    private final List<Runnable> flushHandlers = new ArrayList<>();
+
+    private long tick;
+    private long nextTickNanos;
+    private long timerId = -1;
+    private boolean running;
+    private long lastOverrunLogNanos;
+
+    /**
+     * 构造方法
+     * @param vertx Vert.x实例
+     * @param tickRate 每秒tick数
+     */
+    public GameLoop(Vertx vertx, int tickRate) {
+        this.vertx = vertx;
+        this.tickRate = tickRate;
+        this.periodNanos = TimeUnit.SECONDS.toNanos(1) / tickRate;
+        this.deltaSeconds = 1.0 / tickRate;
+    }
+
+    /**
+     * 注册游戏系统
+     * @param system 游戏系统
+     * @return 当前循环
+     */
+    public GameLoop addSystem(GameSystem system) {
+        systems.add(system);
+        return this;
+    }
+
+    /**
+     * 注册每个tick结束时的发送处理器
+     * @param handler 发送处理器
+     * @return 当前循环
+     */
+    public GameLoop flushHandler(Runnable handler) {
+        flushHandlers.add(handler);
+        return this;
+    }
+
+    /**
+     * 提交玩家输入，在下一个tick开始时按提交顺序执行
+     * 只能在WorldVerticle的事件循环上调用，其他线程的输入应通过事件总线发给WorldVerticle
+     * @param input 输入
+     */
+    public void submit(Runnable input) {
+        inputs.add(input);
+    }
+
+    /**
+     * 启动循环
+     */
+    public void start() {
+        running = true;
+        nextTickNanos = System.nanoTime() + periodNanos;
+        schedule();
+        logger.info("游戏循环已启动，tick频率: {}Hz", tickRate);
+    }
+
+    /**
+     * 停止循环，未处理的输入被丢弃
+     */
+    public void stop() {
+        running = false;
+        if (timerId >= 0) {
+            vertx.cancelTimer(timerId);
+        }
+        inputs.clear();
+    }
+
+    private void schedule() {
+        long delayMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(nextTickNanos - System.nanoTime()));
+        timerId = vertx.setTimer(delayMs, id -> run());
+    }
+
+    private void run() {
+        if (!running) {
+            return;
+        }
+        long now = System.nanoTime();
+        int caughtUp = 0;
+        while (now >= nextTickNanos && caughtUp < MAX_CATCH_UP_TICKS) {
+            runTick();
+            nextTickNanos += periodNanos;
+            caughtUp++;
+            now = System.nanoTime();
+        }
+
+        // 补不上的tick直接跳过，避免越落后越慢
+        if (now >= nextTickNanos) {
+            long skipped = (now - nextTickNanos) / periodNanos + 1;
+            nextTickNanos += skipped * periodNanos;
+            TOTAL_SKIPPED.add(skipped);
+            logger.warn("游戏循环严重落后，跳过 {} 个tick", skipped);
+        }
+        schedule();
+    }
+
+    private void runTick() {
+        long start = System.nanoTime();
+        tick++;
+
+        // 只处理本tick开始前到达的输入，执行过程中新提交的输入留到下一个tick
+        for (int i = inputs.size(); i > 0; i--) {
+            Runnable input = inputs.poll();
+            try {
+                input.run();
+            } catch (Exception e) {
+                logger.error("应用玩家输入时出错", e);
+            }
+        }
+
+        for (GameSystem system : systems) {
+            try {
+                system.update(tick, deltaSeconds);
+            } catch (Exception e) {
+                logger.error("游戏系统更新时出错", e);
+            }
+        }
+
+        for (Runnable handler : flushHandlers) {
+            try {
+                handler.run();
+            } catch (Exception e) {
+                logger.error("发送tick状态时出错", e);
+            }
+        }
+
+        long end = System.nanoTime();
+        long duration = end - start;
+        TOTAL_TICKS.increment();
+        TOTAL_TICK_NANOS.add(duration);
+        MAX_TICK_NANOS.accumulate(duration);
+        if (duration > periodNanos) {
+            TOTAL_OVERRUNS.increment();
+            if (end - lastOverrunLogNanos > OVERRUN_LOG_INTERVAL_NANOS) {
+                lastOverrunLogNanos = end;
+                logger.warn("tick {} 耗时 {}ms，超过tick周期 {}ms", tick,
+                        TimeUnit.NANOSECONDS.toMillis(duration), TimeUnit.NANOSECONDS.toMillis(periodNanos));
+            }
+        }
+    }
+
+    /**
+     * 获取累计执行的tick数
+     * @return tick数
+     */
+    public static long getTotalTicks() {
+        return TOTAL_TICKS.sum();
+    }
+
+    /**
+     * 获取平均tick耗时
+     * @return 平均耗时（毫秒）
+     */
+    public static double getAverageTickMillis() {
+        long ticks = TOTAL_TICKS.sum();
+        return ticks == 0 ? 0 : TOTAL_TICK_NANOS.sum() / (double) ticks / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * 获取最长的一次tick耗时
+     * @return 最长耗时（毫秒）
+     */
+    public static double getMaxTickMillis() {
+        return MAX_TICK_NANOS.get() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * 获取耗时超过tick周期的次数
+     * @return 超时次数
+     */
+    public static long getTotalOverruns() {
+        return TOTAL_OVERRUNS.sum();
+    }
+
+    /**
+     * 获取因严重落后而跳过的tick数
+     * @return 跳过的tick数
+     */
+    public static long getTotalSkippedTicks() {
+        return TOTAL_SKIPPED.sum();
+    }
+}
@@ -0,0 +1,16 @@
+package com.gameserver.game;
+
+/**
+ * 游戏系统
+ * 每个tick按注册顺序调用一次，在应用完本tick的输入之后、发送状态之前执行
+ */
+@FunctionalInterface
+public interface GameSystem {
+
+    /**
+     * 推进一个tick的世界状态
+     * @param tick 当前tick编号（从1开始）
+     * @param deltaSeconds 固定的tick时长（秒）
+     */
+    void update(long tick, double deltaSeconds);
+}
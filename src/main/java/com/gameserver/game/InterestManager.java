@@ -0,0 +1,141 @@
+package com.gameserver.game;
+
+import com.gameserver.net.DeliveryPolicy;
+import com.gameserver.net.OutboundMessage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * 兴趣区域（AOI）管理
+ * 为世界中的每个玩家维护可见玩家集合，移动和附近聊天只发给可见的玩家，
+ * 发送量随局部密度增长，而不是随全服人数的平方增长。
+ *
+ * 可见关系带滞后：两名玩家距离不超过进入半径时互相可见，之后距离超过离开半径才互相不可见，
+ * 在边界附近来回走动的玩家不会反复收到进入/离开消息。可见关系是对称的，只在有人移动时重新计算，
+ * 静止的玩家之间不产生任何开销。
+ *
+ * 每个tick结束时由{@link GameLoop}的flush阶段调用{@link #flush()}，消息经{@link WorldOutbox}汇总后发给各个分片。
+ * 只在{@link WorldVerticle}的事件循环上使用。
+ */
+public class InterestManager {
+
+    private final World world;
+    private final int enterRadius;
+    private final long leaveRadiusSquared;
+    private final WorldOutbox outbox;
+    private final Map<Avatar, Set<Avatar>> visible = new HashMap<>();
+
+    /**
+     * 构造方法
+     * @param world 游戏世界
+     * @param enterRadius 进入视野的半径
+     * @param leaveRadius 离开视野的半径，不小于进入半径
+     * @param outbox 世界的发件箱
+     */
+    public InterestManager(World world, int enterRadius, int leaveRadius, WorldOutbox outbox) {
+        this.world = world;
+        this.enterRadius = enterRadius;
+        this.leaveRadiusSquared = (long) Math.max(enterRadius, leaveRadius) * Math.max(enterRadius, leaveRadius);
+        this.outbox = outbox;
+    }
+
+    /**
+     * 更新本tick移动过的玩家的可见关系，并发送进入、离开和移动消息
+     */
+    public void flush() {
+        world.drainMoved(this::update);
+    }
+
+    /**
+     * 玩家离开世界时调用，通知看得见他的玩家
+     * @param avatar 玩家
+     */
+    public void remove(Avatar avatar) {
+        Set<Avatar> observers = visible.remove(avatar);
+        if (observers == null) {
+            return;
+        }
+        OutboundMessage leave = OutboundMessage.playerLeave(avatar.getToken());
+        for (Avatar observer : observers) {
+            Set<Avatar> set = visible.get(observer);
+            if (set != null) {
+                set.remove(avatar);
+            }
+            outbox.send(observer, leave, DeliveryPolicy.NEVER_DROP);
+        }
+    }
+
+    /**
+     * 遍历看得见指定玩家的其他玩家
+     * @param avatar 玩家
+     * @param consumer 观察者的处理器
+     */
+    public void forEachObserver(Avatar avatar, Consumer<Avatar> consumer) {
+        visible.getOrDefault(avatar, Collections.emptySet()).forEach(consumer);
+    }
+
+    private void update(Avatar avatar) {
+        Set<Avatar> own = visible.computeIfAbsent(avatar, p -> new HashSet<>());
+
+        // 超出离开半径的玩家互相移出视野
+        List<Avatar> left = null;
+        for (Avatar other : own) {
+            if (distanceSquared(avatar, other) > leaveRadiusSquared) {
+                if (left == null) {
+                    left = new ArrayList<>();
+                }
+                left.add(other);
+            }
+        }
+        if (left != null) {
+            OutboundMessage leave = OutboundMessage.playerLeave(avatar.getToken());
+            for (Avatar other : left) {
+                own.remove(other);
+                visible.get(other).remove(avatar);
+                outbox.send(other, leave, DeliveryPolicy.NEVER_DROP);
+                outbox.send(avatar, OutboundMessage.playerLeave(other.getToken()), DeliveryPolicy.NEVER_DROP);
+            }
+        }
+
+        // 进入半径内新出现的玩家互相加入视野，进入消息已经带有位置
+        Set<Avatar> entered = new HashSet<>();
+        world.forEachNearby(avatar, enterRadius, other -> {
+            if (!own.contains(other)) {
+                entered.add(other);
+            }
+        });
+        OutboundMessage enter = entered.isEmpty() ? null
+                : OutboundMessage.playerEnter(avatar.getToken(), avatar.getName(), world.getX(avatar), world.getY(avatar));
+        for (Avatar other : entered) {
+            own.add(other);
+            visible.computeIfAbsent(other, p -> new HashSet<>()).add(avatar);
+            outbox.send(other, enter, DeliveryPolicy.NEVER_DROP);
+            outbox.send(avatar, OutboundMessage.playerEnter(other.getToken(), other.getName(), world.getX(other), world.getY(other)),
+                    DeliveryPolicy.NEVER_DROP);
+        }
+
+        // 位置更新发给自己和之前就能看见自己的玩家，可以被之后的位置覆盖
+        int x = world.getX(avatar);
+        int y = world.getY(avatar);
+        OutboundMessage moved = OutboundMessage.playerMoved(avatar.getToken(), x, y);
+        outbox.sendPosition(avatar, avatar, x, y, moved);
+        for (Avatar other : own) {
+            if (!entered.contains(other)) {
+                outbox.sendPosition(other, avatar, x, y, moved);
+            }
+        }
+    }
+
+    private long distanceSquared(Avatar a, Avatar b) {
+        long dx = world.getX(a) - world.getX(b);
+        long dy = world.getY(a) - world.getY(b);
+        return dx * dx + dy * dy;
+    }
+}
@@ -0,0 +1,108 @@
+package com.gameserver.game;
+
+import io.netty.util.collection.LongObjectHashMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 均匀网格空间索引
+ * 把世界划分为边长相同的格子，每个格子记录其中的对象。
+ * 查询某个范围内的对象只需要访问覆盖该范围的格子，开销与格子数和格子内的对象数有关，与总人数无关。
+ * 网格不记录对象的坐标，插入、移动和删除时由调用方提供坐标；只在所属实例的事件循环上使用。
+ * @param <T> 对象类型
+ */
+public final class SpatialGrid<T> {
+    private final int cellSize;
+    private final LongObjectHashMap<List<T>> cells = new LongObjectHashMap<>();
+
+    /**
+     * 构造方法
+     * @param cellSize 格子边长，通常取最常用的查询半径
+     */
+    public SpatialGrid(int cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("格子边长必须大于0: " + cellSize);
+        }
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * 插入对象
+     * @param item 对象
+     * @param x 横坐标
+     * @param y 纵坐标
+     */
+    public void insert(T item, int x, int y) {
+        long key = cellKey(cell(x), cell(y));
+        List<T> cell = cells.get(key);
+        if (cell == null) {
+            cell = new ArrayList<>(4);
+            cells.put(key, cell);
+        }
+        cell.add(item);
+    }
+
+    /**
+     * 删除对象
+     * @param item 对象
+     * @param x 对象当前的横坐标
+     * @param y 对象当前的纵坐标
+     */
+    public void remove(T item, int x, int y) {
+        long key = cellKey(cell(x), cell(y));
+        List<T> cell = cells.get(key);
+        if (cell != null && cell.remove(item) && cell.isEmpty()) {
+            cells.remove(key);
+        }
+    }
+
+    /**
+     * 移动对象，没有跨格子时不做任何操作
+     * @param item 对象
+     * @param oldX 原横坐标
+     * @param oldY 原纵坐标
+     * @param newX 新横坐标
+     * @param newY 新纵坐标
+     */
+    public void move(T item, int oldX, int oldY, int newX, int newY) {
+        if (cell(oldX) == cell(newX) && cell(oldY) == cell(newY)) {
+            return;
+        }
+        remove(item, oldX, oldY);
+        insert(item, newX, newY);
+    }
+
+    /**
+     * 遍历与矩形范围相交的格子中的所有对象
+     * 结果是候选集合，可能包含范围外但同格子的对象，需要调用方按实际坐标筛选
+     * @param minX 范围左边界（含）
+     * @param minY 范围上边界（含）
+     * @param maxX 范围右边界（含）
+     * @param maxY 范围下边界（含）
+     * @param consumer 对象处理器
+     */
+    public void query(int minX, int minY, int maxX, int maxY, Consumer<T> consumer) {
+        int maxCellX = cell(maxX);
+        int maxCellY = cell(maxY);
+        for (int cx = cell(minX); cx <= maxCellX; cx++) {
+            for (int cy = cell(minY); cy <= maxCellY; cy++) {
+                List<T> cell = cells.get(cellKey(cx, cy));
+                if (cell != null) {
+                    for (int i = 0; i < cell.size(); i++) {
+                        consumer.accept(cell.get(i));
+                    }
+                }
+            }
+        }
+    }
+
+    private int cell(int coordinate) {
+        return Math.floorDiv(coordinate, cellSize);
+    }
+
+    private static long cellKey(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+}
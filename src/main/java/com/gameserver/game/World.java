@@ -0,0 +1,206 @@
+package com.gameserver.game;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * 游戏世界
+ * 玩家的位置等状态保存在{@link EntityStore}的基本类型列中，所有移动都在这里校验并同步更新空间网格。
+ * 坐标为整数，范围是 [0, width) x [0, height)。
+ * 整个服务器只有一个世界，由{@link WorldVerticle}托管，只在它的事件循环上使用，
+ * 连接到不同GameServerVerticle实例的玩家在同一个世界中互相可见。
+ */
+public class World {
+    private final int width;
+    private final int height;
+    private final int maxMoveDistance;
+    private final SpatialGrid<Avatar> grid;
+    private final EntityStore<Avatar> entities = new EntityStore<>();
+    private final Set<Avatar> moved = new LinkedHashSet<>();   // 上次取出以来出生或移动过的玩家
+
+    /**
+     * 构造方法
+     * @param width 世界宽度
+     * @param height 世界高度
+     * @param cellSize 空间网格的格子边长
+     * @param maxMoveDistance 一次移动到指定坐标允许的最大距离
+     */
+    public World(int width, int height, int cellSize, int maxMoveDistance) {
+        this.width = width;
+        this.height = height;
+        this.maxMoveDistance = maxMoveDistance;
+        this.grid = new SpatialGrid<>(cellSize);
+    }
+
+    /**
+     * 为玩家创建实体，放到世界中的随机位置
+     * @param avatar 玩家
+     */
+    public void spawn(Avatar avatar) {
+        if (contains(avatar)) {
+            return;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int handle = entities.create(avatar);
+        int index = entities.indexOf(handle);
+        entities.setPosition(index, random.nextInt(width), random.nextInt(height));
+        avatar.setEntity(handle);
+        grid.insert(avatar, entities.getX(index), entities.getY(index));
+        moved.add(avatar);
+    }
+
+    /**
+     * 把玩家移出世界并销毁实体
+     * @param avatar 玩家
+     */
+    public void remove(Avatar avatar) {
+        int index = entities.indexOf(avatar.getEntity());
+        if (index < 0) {
+            return;
+        }
+        grid.remove(avatar, entities.getX(index), entities.getY(index));
+        entities.destroy(avatar.getEntity());
+        avatar.setEntity(EntityStore.NONE);
+        moved.remove(avatar);
+    }
+
+    /**
+     * 向指定方向移动一格，到达边界时停在边界上
+     * @param avatar 玩家
+     * @param direction 方向
+     * @return 玩家仍在世界中时返回true
+     */
+    public boolean step(Avatar avatar, Direction direction) {
+        int index = entities.indexOf(avatar.getEntity());
+        if (index < 0) {
+            return false;
+        }
+        int x = clamp(entities.getX(index) + direction.getDx(), width);
+        int y = clamp(entities.getY(index) + direction.getDy(), height);
+        setPosition(index, x, y);
+        return true;
+    }
+
+    /**
+     * 移动到指定坐标
+     * @param avatar 玩家
+     * @param x 目标横坐标
+     * @param y 目标纵坐标
+     * @return 坐标在世界范围内且距离不超过上限时返回true
+     */
+    public boolean moveTo(Avatar avatar, int x, int y) {
+        int index = entities.indexOf(avatar.getEntity());
+        if (index < 0 || x < 0 || x >= width || y < 0 || y >= height) {
+            return false;
+        }
+        long dx = x - entities.getX(index);
+        long dy = y - entities.getY(index);
+        if (dx * dx + dy * dy > (long) maxMoveDistance * maxMoveDistance) {
+            return false;
+        }
+        setPosition(index, x, y);
+        return true;
+    }
+
+    /**
+     * 遍历指定玩家附近的其他玩家
+     * @param avatar 中心玩家
+     * @param radius 半径
+     * @param consumer 附近玩家的处理器
+     */
+    public void forEachNearby(Avatar avatar, int radius, Consumer<Avatar> consumer) {
+        int index = entities.indexOf(avatar.getEntity());
+        if (index < 0) {
+            return;
+        }
+        int cx = entities.getX(index);
+        int cy = entities.getY(index);
+        long radiusSquared = (long) radius * radius;
+        grid.query(cx - radius, cy - radius, cx + radius, cy + radius, other -> {
+            int otherIndex = entities.indexOf(other.getEntity());
+            long dx = entities.getX(otherIndex) - cx;
+            long dy = entities.getY(otherIndex) - cy;
+            if (other != avatar && dx * dx + dy * dy <= radiusSquared) {
+                consumer.accept(other);
+            }
+        });
+    }
+
+    /**
+     * 取出上次调用以来出生或移动过的玩家，每个玩家只出现一次
+     * @param consumer 玩家的处理器
+     */
+    public void drainMoved(Consumer<Avatar> consumer) {
+        if (moved.isEmpty()) {
+            return;
+        }
+        List<Avatar> snapshot = new ArrayList<>(moved);
+        moved.clear();
+        snapshot.forEach(consumer);
+    }
+
+    /**
+     * 判断玩家是否在世界中
+     * @param avatar 玩家
+     * @return 在世界中时返回true
+     */
+    public boolean contains(Avatar avatar) {
+        return entities.isAlive(avatar.getEntity());
+    }
+
+    /**
+     * 获取玩家的横坐标
+     * @param avatar 玩家
+     * @return 横坐标，玩家不在世界中时返回-1
+     */
+    public int getX(Avatar avatar) {
+        int index = entities.indexOf(avatar.getEntity());
+        return index < 0 ? -1 : entities.getX(index);
+    }
+
+    /**
+     * 获取玩家的纵坐标
+     * @param avatar 玩家
+     * @return 纵坐标，玩家不在世界中时返回-1
+     */
+    public int getY(Avatar avatar) {
+        int index = entities.indexOf(avatar.getEntity());
+        return index < 0 ? -1 : entities.getY(index);
+    }
+
+    /**
+     * 获取世界中的玩家数
+     * @return 玩家数
+     */
+    public int size() {
+        return entities.size();
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    private void setPosition(int index, int x, int y) {
+        int oldX = entities.getX(index);
+        int oldY = entities.getY(index);
+        if (x == oldX && y == oldY) {
+            return;
+        }
+        Avatar avatar = entities.getOwner(index);
+        grid.move(avatar, oldX, oldY, x, y);
+        entities.setPosition(index, x, y);
+        moved.add(avatar);
+    }
+
+    private static int clamp(int value, int size) {
+        return Math.max(0, Math.min(size - 1, value));
+    }
+}
@@ -0,0 +1,113 @@
+package com.gameserver.game;
+
+import com.gameserver.MessageSender;
+import com.gameserver.Player;
+import com.gameserver.PlayerShard;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.Message;
+
+/**
+ * 游戏世界的客户端
+ * 每个GameServerVerticle实例一个，只在该实例的事件循环上使用。
+ * 把本实例玩家的上线、下线、改名、移动和附近聊天包装为{@link WorldRequest}经事件总线发给{@link WorldVerticle}，
+ * 同一实例发出的请求按发送顺序到达；世界每个tick汇总发来的{@link WorldUpdate}由{@link #deliver}写给本实例的玩家。
+ */
+public class WorldClient {
+    private final Vertx vertx;
+    private final PlayerShard shard;
+    private final MessageSender sender;
+
+    /**
+     * 构造方法
+     * @param vertx Vert.x实例
+     * @param shard 本实例的玩家分片
+     * @param sender 消息发送方式
+     */
+    public WorldClient(Vertx vertx, PlayerShard shard, MessageSender sender) {
+        this.vertx = vertx;
+        this.shard = shard;
+        this.sender = sender;
+    }
+
+    /**
+     * 玩家上线，放到世界中的随机位置
+     * @param player 玩家
+     */
+    public void spawn(Player player) {
+        send(WorldRequest.spawn(player.getId(), shard.getAddress(), player.getDisplayName()));
+    }
+
+    /**
+     * 玩家下线，移出世界
+     * @param player 玩家
+     */
+    public void remove(Player player) {
+        send(WorldRequest.remove(player.getId()));
+    }
+
+    /**
+     * 玩家改名，之后进入视野的消息使用新名字
+     * @param player 已设置新名字的玩家
+     */
+    public void rename(Player player) {
+        send(WorldRequest.rename(player.getId(), player.getDisplayName()));
+    }
+
+    /**
+     * 向指定方向移动一格，在世界的下一个tick中生效
+     * @param player 玩家
+     * @param direction 方向
+     */
+    public void step(Player player, Direction direction) {
+        send(WorldRequest.step(player.getId(), direction));
+    }
+
+    /**
+     * 移动到指定坐标，在世界的下一个tick中生效，无法移动时世界直接通知玩家
+     * @param player 玩家
+     * @param x 目标横坐标
+     * @param y 目标纵坐标
+     */
+    public void moveTo(Player player, int x, int y) {
+        send(WorldRequest.moveTo(player.getId(), x, y));
+    }
+
+    /**
+     * 附近聊天，发给视野内的玩家和自己
+     * @param player 玩家
+     * @param text 聊天内容
+     */
+    public void say(Player player, String text) {
+        send(WorldRequest.say(player.getId(), text));
+    }
+
+    /**
+     * 查询位置和视野内的玩家，世界在下一个tick把结果作为系统消息发给玩家
+     * @param player 玩家
+     */
+    public void where(Player player) {
+        send(WorldRequest.where(player.getId()));
+    }
+
+    /**
+     * 转发请求给世界，用于UDP通道等已经构造好请求的调用方
+     * @param request 世界请求
+     */
+    public void send(WorldRequest request) {
+        vertx.eventBus().send(WorldVerticle.ADDRESS, request);
+    }
+
+    /**
+     * 把世界发来的消息写给本实例上的玩家，已断开的玩家直接跳过
+     * @param message 一个tick内发给本实例玩家的消息
+     */
+    public void deliver(Message<WorldUpdate> message) {
+        WorldUpdate update = message.body();
+        for (int i = 0; i < update.size(); i++) {
+            Player player = shard.get(update.getRecipient(i));
+            if (player != null) {
+                sender.send(player, update.getMessage(i), update.getPolicy(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.gameserver.game;
+
+import com.gameserver.net.DeliveryPolicy;
+import com.gameserver.net.OutboundMessage;
+import com.gameserver.net.UdpGatewayVerticle;
+import com.gameserver.net.UdpStateUpdate;
+import io.vertx.core.eventbus.EventBus;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 世界的发件箱
+ * 世界在一个tick内产生的消息按接收者所在的分片汇总为{@link WorldUpdate}，
+ * tick结束时每个分片发送一次，事件总线上的消息数与分片数成正比，而不是与接收次数成正比。
+ * 已绑定UDP通道的玩家收到的位置更新汇总为一个{@link UdpStateUpdate}交给UDP网关，不占用TCP连接。
+ * 只在{@link WorldVerticle}的事件循环上使用。
+ */
+public class WorldOutbox {
+    private final EventBus eventBus;
+    private final Map<String, WorldUpdate> pending = new HashMap<>();
+    private UdpStateUpdate pendingUdp;
+
+    /**
+     * 构造方法
+     * @param eventBus 事件总线
+     */
+    public WorldOutbox(EventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    /**
+     * 发送消息给玩家，在下一次{@link #flush()}时投递
+     * @param avatar 接收消息的玩家
+     * @param message 消息
+     * @param policy 投递策略
+     */
+    public void send(Avatar avatar, OutboundMessage message, DeliveryPolicy policy) {
+        pending.computeIfAbsent(avatar.getShardAddress(), address -> new WorldUpdate())
+                .add(avatar.getPlayerId(), message, policy);
+    }
+
+    /**
+     * 发送位置更新给玩家，绑定了UDP通道的玩家通过UDP接收，否则作为可丢弃的消息走TCP
+     * @param avatar 接收更新的玩家
+     * @param subject 移动的玩家
+     * @param x 横坐标
+     * @param y 纵坐标
+     * @param moved 走TCP时发送的位置消息
+     */
+    public void sendPosition(Avatar avatar, Avatar subject, int x, int y, OutboundMessage moved) {
+        if (!avatar.isUdpBound()) {
+            send(avatar, moved, DeliveryPolicy.DROP_OLDEST);
+            return;
+        }
+        if (pendingUdp == null) {
+            pendingUdp = new UdpStateUpdate();
+        }
+        pendingUdp.add(avatar.getPlayerId(), subject.getToken(), x, y);
+    }
+
+    /**
+     * 把汇总的消息发给各个分片和UDP网关
+     */
+    public void flush() {
+        if (pendingUdp != null) {
+            eventBus.send(UdpGatewayVerticle.STATE_ADDRESS, pendingUdp);
+            pendingUdp = null;
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<String, WorldUpdate> entry : pending.entrySet()) {
+            eventBus.send(WorldUpdate.address(entry.getKey()), entry.getValue());
+        }
+        pending.clear();
+    }
+}
@@ -0,0 +1,96 @@
+package com.gameserver.game;
+
+/**
+ * 分片发给{@link WorldVerticle}的请求
+ * 只包含基本类型字段和少量字符串，通过{@link WorldRequestCodec}在本地投递，
+ * 移动这样高频的请求不需要构造和复制JsonObject。创建后不再修改，可以在线程间共享。
+ */
+public final class WorldRequest {
+    // 请求类型
+    public static final int SPAWN = 1;
+    public static final int REMOVE = 2;
+    public static final int RENAME = 3;
+    public static final int STEP = 4;
+    public static final int MOVE_TO = 5;
+    public static final int SAY = 6;
+    public static final int WHERE = 7;
+    public static final int UDP_BIND = 8;
+
+    private final int op;
+    private final int playerId;
+    private final Direction direction;
+    private final int x;
+    private final int y;
+    private final String text;      // 上线和改名时为名字，附近聊天时为内容
+    private final String shard;     // 上线时为玩家所在分片的地址
+
+    private WorldRequest(int op, int playerId, Direction direction, int x, int y, String text, String shard) {
+        this.op = op;
+        this.playerId = playerId;
+        this.direction = direction;
+        this.x = x;
+        this.y = y;
+        this.text = text;
+        this.shard = shard;
+    }
+
+    public static WorldRequest spawn(int playerId, String shard, String name) {
+        return new WorldRequest(SPAWN, playerId, null, 0, 0, name, shard);
+    }
+
+    public static WorldRequest remove(int playerId) {
+        return new WorldRequest(REMOVE, playerId, null, 0, 0, null, null);
+    }
+
+    public static WorldRequest rename(int playerId, String name) {
+        return new WorldRequest(RENAME, playerId, null, 0, 0, name, null);
+    }
+
+    public static WorldRequest step(int playerId, Direction direction) {
+        return new WorldRequest(STEP, playerId, direction, 0, 0, null, null);
+    }
+
+    public static WorldRequest moveTo(int playerId, int x, int y) {
+        return new WorldRequest(MOVE_TO, playerId, null, x, y, null, null);
+    }
+
+    public static WorldRequest say(int playerId, String text) {
+        return new WorldRequest(SAY, playerId, null, 0, 0, text, null);
+    }
+
+    public static WorldRequest where(int playerId) {
+        return new WorldRequest(WHERE, playerId, null, 0, 0, null, null);
+    }
+
+    public static WorldRequest udpBind(int playerId) {
+        return new WorldRequest(UDP_BIND, playerId, null, 0, 0, null, null);
+    }
+
+    public int getOp() {
+        return op;
+    }
+
+    public int getPlayerId() {
+        return playerId;
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public String getShard() {
+        return shard;
+    }
+}
@@ -0,0 +1,49 @@
+package com.gameserver.game;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.eventbus.MessageCodec;
+
+/**
+ * WorldRequest的事件总线编解码器
+ * 只用于本地投递：请求不可变，发送方和世界直接共享同一个对象，不做复制
+ */
+public class WorldRequestCodec implements MessageCodec<WorldRequest, WorldRequest> {
+
+    /**
+     * 注册为WorldRequest的默认编解码器，多个实例重复调用时只有第一次生效
+     * @param eventBus 事件总线
+     */
+    public static void register(EventBus eventBus) {
+        try {
+            eventBus.registerDefaultCodec(WorldRequest.class, new WorldRequestCodec());
+        } catch (IllegalStateException e) {
+            // 已经由其他实例注册
+        }
+    }
+
+    @Override
+    public void encodeToWire(Buffer buffer, WorldRequest request) {
+        throw new UnsupportedOperationException("WorldRequest只能在本地投递");
+    }
+
+    @Override
+    public WorldRequest decodeFromWire(int pos, Buffer buffer) {
+        throw new UnsupportedOperationException("WorldRequest只能在本地投递");
+    }
+
+    @Override
+    public WorldRequest transform(WorldRequest request) {
+        return request;
+    }
+
+    @Override
+    public String name() {
+        return "world-request";
+    }
+
+    @Override
+    public byte systemCodecID() {
+        return -1;
+    }
+}
@@ -0,0 +1,64 @@
+package com.gameserver.game;
+
+import com.gameserver.net.DeliveryPolicy;
+import com.gameserver.net.OutboundMessage;
+
+import java.util.Arrays;
+
+/**
+ * 一个tick内世界发给同一分片玩家的所有消息
+ * 由{@link WorldOutbox}按分片汇总，每个tick每个分片只经过事件总线一次，
+ * 分片收到后按会话ID找到玩家写入发送队列。发送后不再修改。
+ */
+public final class WorldUpdate {
+    // 分片接收世界消息的地址为分片地址加上该后缀
+    private static final String ADDRESS_SUFFIX = ".world";
+
+    private int[] recipients = new int[16];
+    private OutboundMessage[] messages = new OutboundMessage[16];
+    private DeliveryPolicy[] policies = new DeliveryPolicy[16];
+    private int size;
+
+    /**
+     * 获取分片接收世界消息的事件总线地址
+     * @param shardAddress 分片地址
+     * @return 事件总线地址
+     */
+    public static String address(String shardAddress) {
+        return shardAddress + ADDRESS_SUFFIX;
+    }
+
+    /**
+     * 添加一条消息
+     * @param recipient 接收者的会话ID
+     * @param message 消息
+     * @param policy 投递策略
+     */
+    void add(int recipient, OutboundMessage message, DeliveryPolicy policy) {
+        if (size == recipients.length) {
+            recipients = Arrays.copyOf(recipients, size * 2);
+            messages = Arrays.copyOf(messages, size * 2);
+            policies = Arrays.copyOf(policies, size * 2);
+        }
+        recipients[size] = recipient;
+        messages[size] = message;
+        policies[size] = policy;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getRecipient(int index) {
+        return recipients[index];
+    }
+
+    public OutboundMessage getMessage(int index) {
+        return messages[index];
+    }
+
+    public DeliveryPolicy getPolicy(int index) {
+        return policies[index];
+    }
+}
@@ -0,0 +1,49 @@
+package com.gameserver.game;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.eventbus.MessageCodec;
+
+/**
+ * WorldUpdate的事件总线编解码器
+ * 只用于本地投递：世界和分片直接共享同一个对象，不做复制
+ */
+public class WorldUpdateCodec implements MessageCodec<WorldUpdate, WorldUpdate> {
+
+    /**
+     * 注册为WorldUpdate的默认编解码器，多个实例重复调用时只有第一次生效
+     * @param eventBus 事件总线
+     */
+    public static void register(EventBus eventBus) {
+        try {
+            eventBus.registerDefaultCodec(WorldUpdate.class, new WorldUpdateCodec());
+        } catch (IllegalStateException e) {
+            // 已经由其他实例注册
+        }
+    }
+
+    @Override
+    public void encodeToWire(Buffer buffer, WorldUpdate update) {
+        throw new UnsupportedOperationException("WorldUpdate只能在本地投递");
+    }
+
+    @Override
+    public WorldUpdate decodeFromWire(int pos, Buffer buffer) {
+        throw new UnsupportedOperationException("WorldUpdate只能在本地投递");
+    }
+
+    @Override
+    public WorldUpdate transform(WorldUpdate update) {
+        return update;
+    }
+
+    @Override
+    public String name() {
+        return "world-update";
+    }
+
+    @Override
+    public byte systemCodecID() {
+        return -1;
+    }
+}
@@ -0,0 +1,152 @@
+package com.gameserver.game;
+
+import com.gameserver.ServerConfig;
+import com.gameserver.net.DeliveryPolicy;
+import com.gameserver.net.OutboundMessage;
+import com.gameserver.net.OutboundMessageCodec;
+import com.gameserver.net.UdpStateUpdateCodec;
+import io.netty.util.collection.IntObjectHashMap;
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.eventbus.Message;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 游戏世界Verticle
+ * 托管整个服务器唯一的{@link World}、视野同步和固定步长的游戏循环，是玩家位置的唯一来源。
+ * 玩家连接所在的GameServerVerticle（以及UDP通道）通过{@link WorldClient}把上线、下线、改名、移动、附近聊天和位置查询
+ * 作为{@link WorldRequest}经事件总线发到这里，按到达顺序在下一个tick中应用；每个tick产生的消息由{@link WorldOutbox}按分片汇总后发回。
+ * 因此无论连接被分配到哪个事件循环，玩家都在同一个世界中互相可见。
+ *
+ * 整个服务器只部署一个实例，世界数据只在本Verticle的事件循环线程中访问。
+ */
+public class WorldVerticle extends AbstractVerticle {
+    private static final Logger logger = LoggerFactory.getLogger(WorldVerticle.class);
+
+    // 世界请求的事件总线地址
+    public static final String ADDRESS = "game.world";
+
+    private final IntObjectHashMap<Avatar> avatars = new IntObjectHashMap<>();   // 会话ID -> 化身
+    private World world;
+    private InterestManager interestManager;
+    private WorldOutbox outbox;
+    private GameLoop gameLoop;
+
+    @Override
+    public void start() {
+        ServerConfig serverConfig = new ServerConfig(config());
+        OutboundMessageCodec.register(vertx.eventBus());
+        WorldUpdateCodec.register(vertx.eventBus());
+        WorldRequestCodec.register(vertx.eventBus());
+        UdpStateUpdateCodec.register(vertx.eventBus());
+
+        world = serverConfig.createWorld();
+        outbox = new WorldOutbox(vertx.eventBus());
+        // 移动和附近聊天只发给视野内的玩家，每个tick结束时统一计算，再按分片汇总发送
+        interestManager = new InterestManager(world, serverConfig.getViewRadius(),
+                serverConfig.getViewRadius() + serverConfig.getViewHysteresis(), outbox);
+        gameLoop = new GameLoop(vertx, serverConfig.getTickRate());
+        gameLoop.flushHandler(interestManager::flush);
+        gameLoop.flushHandler(outbox::flush);
+
+        vertx.eventBus().<WorldRequest>localConsumer(ADDRESS, this::handleRequest);
+        gameLoop.start();
+        logger.info("游戏世界已启动，大小: {}x{}", world.getWidth(), world.getHeight());
+    }
+
+    @Override
+    public void stop() {
+        if (gameLoop != null) {
+            gameLoop.stop();
+        }
+    }
+
+    /**
+     * 处理世界请求，按到达顺序在下一个tick开始时应用
+     * @param message 世界请求
+     */
+    private void handleRequest(Message<WorldRequest> message) {
+        WorldRequest request = message.body();
+        gameLoop.submit(() -> apply(request));
+    }
+
+    private void apply(WorldRequest request) {
+        int playerId = request.getPlayerId();
+        if (request.getOp() == WorldRequest.SPAWN) {
+            Avatar avatar = new Avatar(playerId, request.getShard(), request.getText());
+            remove(avatars.put(playerId, avatar));
+            world.spawn(avatar);
+            return;
+        }
+
+        Avatar avatar = avatars.get(playerId);
+        if (avatar == null) {
+            return;
+        }
+        switch (request.getOp()) {
+            case WorldRequest.REMOVE:
+                remove(avatars.remove(playerId));
+                break;
+
+            case WorldRequest.RENAME:
+                avatar.setName(request.getText());
+                break;
+
+            case WorldRequest.STEP:
+                world.step(avatar, request.getDirection());
+                break;
+
+            case WorldRequest.MOVE_TO:
+                int x = request.getX();
+                int y = request.getY();
+                if (!world.moveTo(avatar, x, y)) {
+                    outbox.send(avatar, OutboundMessage.text("系统", "无法移动到 (" + x + ", " + y + ")：超出世界范围或距离过远"),
+                            DeliveryPolicy.NEVER_DROP);
+                }
+                break;
+
+            case WorldRequest.SAY:
+                // 附近聊天发给自己和视野内的玩家
+                OutboundMessage message = OutboundMessage.text(avatar.getName() + "(附近)", request.getText());
+                outbox.send(avatar, message, DeliveryPolicy.NEVER_DROP);
+                interestManager.forEachObserver(avatar, other -> outbox.send(other, message, DeliveryPolicy.NEVER_DROP));
+                break;
+
+            case WorldRequest.WHERE:
+                where(avatar);
+                break;
+
+            case WorldRequest.UDP_BIND:
+                avatar.setUdpBound(true);
+                break;
+
+            default:
+                logger.warn("未知的世界请求: {}", request.getOp());
+                break;
+        }
+    }
+
+    /**
+     * 移出世界并通知看得见他的玩家
+     */
+    private void remove(Avatar avatar) {
+        if (avatar != null) {
+            world.remove(avatar);
+            interestManager.remove(avatar);
+        }
+    }
+
+    /**
+     * 把玩家的位置和视野内玩家的名字作为系统消息发给玩家
+     */
+    private void where(Avatar avatar) {
+        List<String> nearby = new ArrayList<>();
+        interestManager.forEachObserver(avatar, other -> nearby.add(other.getName()));
+        outbox.send(avatar, OutboundMessage.text("系统", "你的位置: (" + world.getX(avatar) + ", " + world.getY(avatar) + ")，"
+                + "视野内 " + nearby.size() + " 名玩家" + (nearby.isEmpty() ? "" : ": " + String.join(", ", nearby))),
+                DeliveryPolicy.NEVER_DROP);
+    }
+}
@@ -0,0 +1,135 @@
+package com.gameserver.limit;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.core.shareddata.Shareable;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 连接准入控制
+ * 在创建Player之前检查单IP连接数、全局建连速率和在线人数上限。
+ * 同一个Vert.x实例上的所有GameServerVerticle共享一个控制器，方法都是线程安全的。
+ */
+public final class AdmissionController implements Shareable {
+    private static final String MAP_NAME = "game.admission";
+    private static final String KEY = "controller";
+
+    /**
+     * 准入结果
+     */
+    public enum Decision {
+        /**
+         * 通过检查
+         */
+        ACCEPTED,
+
+        /**
+         * 该IP的连接数已达上限
+         */
+        TOO_MANY_FROM_IP,
+
+        /**
+         * 全局建连速率超限
+         */
+        RATE_LIMITED
+    }
+
+    private final int maxConnectionsPerIp;
+    private final int maxOnline;
+    private final double acceptsPerNano;
+    private final double acceptBurst;
+    private final ConcurrentHashMap<String, AtomicInteger> connectionsPerIp = new ConcurrentHashMap<>();
+    private final AtomicInteger online = new AtomicInteger();
+
+    // 全局建连令牌桶
+    private double acceptTokens;
+    private long lastRefillNanos;
+
+    private AdmissionController(int maxConnectionsPerIp, int maxOnline, double acceptsPerSecond, double acceptBurst) {
+        this.maxConnectionsPerIp = maxConnectionsPerIp;
+        this.maxOnline = maxOnline;
+        this.acceptsPerNano = acceptsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.acceptBurst = acceptBurst;
+        this.acceptTokens = acceptBurst;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * 获取当前Vert.x实例共享的准入控制器，第一次调用时按参数创建
+     * @param vertx Vert.x实例
+     * @param maxConnectionsPerIp 单IP最大连接数（含排队中的连接）
+     * @param maxOnline 最大在线人数
+     * @param acceptsPerSecond 每秒允许的新连接数
+     * @param acceptBurst 新连接的突发上限
+     * @return 准入控制器
+     */
+    public static AdmissionController shared(Vertx vertx, int maxConnectionsPerIp, int maxOnline,
+                                             double acceptsPerSecond, double acceptBurst) {
+        LocalMap<String, AdmissionController> map = vertx.sharedData().getLocalMap(MAP_NAME);
+        AdmissionController created = new AdmissionController(maxConnectionsPerIp, maxOnline, acceptsPerSecond, acceptBurst);
+        AdmissionController existing = map.putIfAbsent(KEY, created);
+        return existing != null ? existing : created;
+    }
+
+    /**
+     * 检查新连接，通过时占用该IP的一个连接名额
+     * @param ip 客户端IP
+     * @return 准入结果
+     */
+    public Decision tryAccept(String ip) {
+        if (!tryAcquireAcceptToken()) {
+            return Decision.RATE_LIMITED;
+        }
+        AtomicInteger count = connectionsPerIp.computeIfAbsent(ip, k -> new AtomicInteger());
+        if (count.incrementAndGet() > maxConnectionsPerIp) {
+            release(ip);
+            return Decision.TOO_MANY_FROM_IP;
+        }
+        return Decision.ACCEPTED;
+    }
+
+    /**
+     * 归还IP连接名额（连接关闭时调用）
+     * @param ip 客户端IP
+     */
+    public void release(String ip) {
+        connectionsPerIp.computeIfPresent(ip, (k, count) -> count.decrementAndGet() <= 0 ? null : count);
+    }
+
+    /**
+     * 尝试占用一个在线名额
+     * @return 未达到在线上限时返回true
+     */
+    public boolean tryOccupySlot() {
+        while (true) {
+            int current = online.get();
+            if (current >= maxOnline) {
+                return false;
+            }
+            if (online.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 归还在线名额（玩家下线时调用）
+     */
+    public void releaseSlot() {
+        online.decrementAndGet();
+    }
+
+    private synchronized boolean tryAcquireAcceptToken() {
+        long now = System.nanoTime();
+        acceptTokens = Math.min(acceptBurst, acceptTokens + (now - lastRefillNanos) * acceptsPerNano);
+        lastRefillNanos = now;
+        if (acceptTokens >= 1) {
+            acceptTokens -= 1;
+            return true;
+        }
+        return false;
+    }
+}
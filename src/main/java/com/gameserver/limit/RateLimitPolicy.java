@@ -0,0 +1,53 @@
+package com.gameserver.limit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 限流策略
+ * 每类消息的速率和突发上限，以及判定恶意刷屏的阈值；所有玩家共享同一个策略
+ */
+public final class RateLimitPolicy {
+    private final double[] tokensPerNano = new double[TrafficClass.values().length];
+    private final double[] burst = new double[TrafficClass.values().length];
+    private final int abuseThreshold;
+    private final long abuseWindowNanos;
+
+    /**
+     * 构造方法
+     * @param abuseThreshold 统计窗口内被限流多少次后判定为恶意刷屏
+     * @param abuseWindowSeconds 统计窗口（秒）
+     */
+    public RateLimitPolicy(int abuseThreshold, int abuseWindowSeconds) {
+        this.abuseThreshold = abuseThreshold;
+        this.abuseWindowNanos = TimeUnit.SECONDS.toNanos(abuseWindowSeconds);
+    }
+
+    /**
+     * 设置某类消息的令牌桶参数
+     * @param trafficClass 消息类别
+     * @param perSecond 每秒补充的令牌数
+     * @param burstSize 令牌桶容量（允许的突发条数）
+     * @return 当前策略
+     */
+    public RateLimitPolicy limit(TrafficClass trafficClass, double perSecond, double burstSize) {
+        tokensPerNano[trafficClass.ordinal()] = perSecond / TimeUnit.SECONDS.toNanos(1);
+        burst[trafficClass.ordinal()] = burstSize;
+        return this;
+    }
+
+    double tokensPerNano(int index) {
+        return tokensPerNano[index];
+    }
+
+    double burst(int index) {
+        return burst[index];
+    }
+
+    int abuseThreshold() {
+        return abuseThreshold;
+    }
+
+    long abuseWindowNanos() {
+        return abuseWindowNanos;
+    }
+}
@@ -0,0 +1,110 @@
+package com.gameserver.limit;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 玩家的令牌桶限流器
+ * 每个玩家每类消息一个令牌桶，判定过程不分配对象。
+ * 只在玩家所属的事件循环线程中使用。
+ */
+public final class RateLimiter {
+    // 所有玩家累计被限流的消息数
+    private static final LongAdder TOTAL_LIMITED = new LongAdder();
+
+    /**
+     * 判定结果
+     */
+    public enum Result {
+        /**
+         * 允许处理
+         */
+        ALLOWED,
+
+        /**
+         * 超过速率，丢弃这条消息
+         */
+        LIMITED,
+
+        /**
+         * 统计窗口内被限流次数过多，应当踢出
+         */
+        ABUSIVE
+    }
+
+    private final RateLimitPolicy policy;
+    private final double[] tokens;
+    private final long[] lastRefillNanos;
+    private long limitedCount;     // 该玩家累计被限流的消息数
+    private int violations;        // 当前统计窗口内被限流的次数
+    private long windowStartNanos;
+
+    /**
+     * 构造方法
+     * @param policy 限流策略
+     * @param nowNanos 当前时间（System.nanoTime）
+     */
+    public RateLimiter(RateLimitPolicy policy, long nowNanos) {
+        int classes = TrafficClass.values().length;
+        this.policy = policy;
+        this.tokens = new double[classes];
+        this.lastRefillNanos = new long[classes];
+        for (int i = 0; i < classes; i++) {
+            tokens[i] = policy.burst(i);
+            lastRefillNanos[i] = nowNanos;
+        }
+        this.windowStartNanos = nowNanos;
+    }
+
+    /**
+     * 尝试为一条消息获取令牌
+     * @param trafficClass 消息类别
+     * @param nowNanos 当前时间（System.nanoTime）
+     * @return 判定结果
+     */
+    public Result tryAcquire(TrafficClass trafficClass, long nowNanos) {
+        int index = trafficClass.ordinal();
+        double available = tokens[index] + (nowNanos - lastRefillNanos[index]) * policy.tokensPerNano(index);
+        lastRefillNanos[index] = nowNanos;
+        if (available > policy.burst(index)) {
+            available = policy.burst(index);
+        }
+        if (available >= 1) {
+            tokens[index] = available - 1;
+            return Result.ALLOWED;
+        }
+        tokens[index] = available;
+
+        limitedCount++;
+        TOTAL_LIMITED.increment();
+        if (nowNanos - windowStartNanos > policy.abuseWindowNanos()) {
+            windowStartNanos = nowNanos;
+            violations = 0;
+        }
+        violations++;
+        return violations >= policy.abuseThreshold() ? Result.ABUSIVE : Result.LIMITED;
+    }
+
+    /**
+     * 获取当前统计窗口内被限流的次数
+     * @return 被限流次数
+     */
+    public int getViolations() {
+        return violations;
+    }
+
+    /**
+     * 获取该玩家累计被限流的消息数
+     * @return 被限流的消息数
+     */
+    public long getLimitedCount() {
+        return limitedCount;
+    }
+
+    /**
+     * 获取所有玩家累计被限流的消息数
+     * @return 被限流的消息数
+     */
+    public static long getTotalLimited() {
+        return TOTAL_LIMITED.sum();
+    }
+}
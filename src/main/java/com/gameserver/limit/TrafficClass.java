@@ -0,0 +1,29 @@
+package com.gameserver.limit;
+
+/**
+ * 消息类别
+ * 不同类别的消息使用各自的令牌桶限流。
+ * 命令的类别在{@link com.gameserver.command.CommandRegistry}中注册时指定，
+ * 不以/开头的消息都是聊天。
+ */
+public enum TrafficClass {
+    /**
+     * 聊天消息（会被广播给其他玩家），包括 /say 附近聊天和 /whisper 私聊
+     */
+    CHAT,
+
+    /**
+     * 移动指令
+     */
+    MOVEMENT,
+
+    /**
+     * 其他命令
+     */
+    COMMAND,
+
+    /**
+     * 心跳（/hb 和二进制Heartbeat），单独限流，刷其他命令不会让心跳回应被丢弃
+     */
+    HEARTBEAT
+}
@@ -0,0 +1,64 @@
+package com.gameserver.net;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.Deflater;
+
+/**
+ * 服务器消息的压缩方式
+ * 只用于长度前缀分帧的连接：压缩后的帧在长度字段最高位置1，客户端据此解压。
+ * 压缩使用不带zlib头的原始deflate，Unity的DeflateStream可以直接解压。
+ */
+public enum Compression {
+    /**
+     * 不压缩
+     */
+    NONE,
+
+    /**
+     * 原始deflate
+     */
+    DEFLATE;
+
+    /**
+     * 小于该字节数的消息压缩收益很小，直接发送原文
+     */
+    public static final int MIN_COMPRESS_SIZE = 256;
+
+    // 每个事件循环线程复用一个Deflater，避免每条消息分配本地压缩缓冲区
+    private static final ThreadLocal<Deflater> DEFLATERS = ThreadLocal.withInitial(() -> new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+
+    /**
+     * 压缩消息体
+     * @param payload 消息体
+     * @return 压缩结果；消息太短或压缩后没有变小时返回null
+     */
+    public static byte[] deflate(byte[] payload) {
+        if (payload.length < MIN_COMPRESS_SIZE) {
+            return null;
+        }
+        Deflater deflater = DEFLATERS.get();
+        deflater.reset();
+        deflater.setInput(payload);
+        deflater.finish();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length / 2);
+        byte[] chunk = new byte[Math.min(payload.length, 8192)];
+        while (!deflater.finished()) {
+            int n = deflater.deflate(chunk);
+            out.write(chunk, 0, n);
+            if (out.size() >= payload.length) {
+                return null;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 根据握手选项解析压缩方式
+     * @param name 选项值
+     * @return 压缩方式，无法识别时返回NONE
+     */
+    public static Compression fromName(String name) {
+        return "deflate".equalsIgnoreCase(name) ? DEFLATE : NONE;
+    }
+}
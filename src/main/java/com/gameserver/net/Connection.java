@@ -0,0 +1,167 @@
+package com.gameserver.net;
+
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.ServerWebSocket;
+import io.vertx.core.net.NetSocket;
+import io.vertx.core.streams.WriteStream;
+
+/**
+ * 玩家连接
+ * 屏蔽TCP和WebSocket的差异，使MessageHandler可以用同一套逻辑处理两种玩家
+ */
+public interface Connection {
+
+    /**
+     * 获取写入流，写入的每个Buffer都是一条完整的帧
+     * @return 写入流
+     */
+    WriteStream<Buffer> stream();
+
+    /**
+     * 关闭连接
+     */
+    void close();
+
+    /**
+     * 设置连接关闭时的处理器
+     * @param handler 关闭处理器
+     */
+    void closeHandler(Handler<Void> handler);
+
+    /**
+     * 获取连接的帧格式
+     * @return 帧格式
+     */
+    FramingMode framingMode();
+
+    /**
+     * 获取连接的消息编码方式
+     * @return 编码方式
+     */
+    WireFormat wireFormat();
+
+    /**
+     * 获取服务器消息的压缩方式
+     * @return 压缩方式
+     */
+    Compression compression();
+
+    /**
+     * 获取握手协商的协议版本
+     * @return 协议版本，未握手（旧客户端和WebSocket）时为0
+     */
+    int protocolVersion();
+
+    /**
+     * 获取客户端IP
+     * @return 客户端IP（建立连接时记录）
+     */
+    String remoteHost();
+
+    /**
+     * 包装TCP连接
+     * @param socket TCP连接
+     * @param framingMode 帧格式
+     * @param wireFormat 消息编码方式
+     * @param compression 服务器消息的压缩方式
+     * @param protocolVersion 协商的协议版本，未握手时为0
+     * @return 玩家连接
+     */
+    static Connection tcp(NetSocket socket, FramingMode framingMode, WireFormat wireFormat, Compression compression,
+                          int protocolVersion) {
+        String remoteHost = socket.remoteAddress().host();
+        return new Connection() {
+            @Override
+            public WriteStream<Buffer> stream() {
+                return socket;
+            }
+
+            @Override
+            public void close() {
+                socket.close();
+            }
+
+            @Override
+            public void closeHandler(Handler<Void> handler) {
+                socket.closeHandler(handler);
+            }
+
+            @Override
+            public String remoteHost() {
+                return remoteHost;
+            }
+
+            @Override
+            public FramingMode framingMode() {
+                return framingMode;
+            }
+
+            @Override
+            public WireFormat wireFormat() {
+                return wireFormat;
+            }
+
+            @Override
+            public Compression compression() {
+                return compression;
+            }
+
+            @Override
+            public int protocolVersion() {
+                return protocolVersion;
+            }
+        };
+    }
+
+    /**
+     * 包装WebSocket连接，每条消息作为一个二进制WebSocket消息发送
+     * @param webSocket WebSocket连接
+     * @return 玩家连接
+     */
+    static Connection webSocket(ServerWebSocket webSocket) {
+        String remoteHost = webSocket.remoteAddress().host();
+        return new Connection() {
+            @Override
+            public WriteStream<Buffer> stream() {
+                return webSocket;
+            }
+
+            @Override
+            public void close() {
+                webSocket.close();
+            }
+
+            @Override
+            public void closeHandler(Handler<Void> handler) {
+                webSocket.closeHandler(handler);
+            }
+
+            @Override
+            public String remoteHost() {
+                return remoteHost;
+            }
+
+            @Override
+            public FramingMode framingMode() {
+                return FramingMode.NONE;
+            }
+
+            @Override
+            public WireFormat wireFormat() {
+                return WireFormat.TEXT;
+            }
+
+            @Override
+            public Compression compression() {
+                // 由permessage-deflate扩展在WebSocket层压缩
+                return Compression.NONE;
+            }
+
+            @Override
+            public int protocolVersion() {
+                return 0;
+            }
+        };
+    }
+}
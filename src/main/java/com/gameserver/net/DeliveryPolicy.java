@@ -0,0 +1,17 @@
+package com.gameserver.net;
+
+/**
+ * 投递策略
+ * 决定玩家的发送队列积压时如何处理一条消息
+ */
+public enum DeliveryPolicy {
+    /**
+     * 可丢弃：队列满时丢弃最旧的可丢弃消息（适用于位置更新、心跳等会被后续消息覆盖的状态）
+     */
+    DROP_OLDEST,
+
+    /**
+     * 不可丢弃：一定会发送（适用于聊天和系统通知），积压过多时断开慢速连接
+     */
+    NEVER_DROP
+}
@@ -0,0 +1,135 @@
+package com.gameserver.net;
+
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * 帧解码器
+ * 将TCP字节流切分为完整的消息帧，解决粘包和拆包问题
+ *
+ * 完整的帧以slice的形式交给处理器，不复制数据；只有跨数据块的不完整帧尾部才会被保留。
+ * 因此帧处理器必须同步处理，不能在返回后继续持有帧Buffer。
+ * 不完整帧中已经扫描过的字节不会重复扫描，逐字节发送的长行总开销仍与行长成正比。
+ */
+public class FrameDecoder implements Handler<Buffer> {
+    private final FramingMode mode;
+    private final int maxFrameSize;
+    private final Handler<Buffer> frameHandler;
+    private Handler<Throwable> exceptionHandler;
+    private Buffer pending;      // 尚未组成完整帧的剩余数据
+    private int scanned;         // pending开头已确认不含换行符的字节数
+    private boolean failed;      // 出现非法帧后不再处理后续数据
+
+    /**
+     * 构造方法
+     * @param mode 帧格式
+     * @param maxFrameSize 单帧最大字节数（不含长度前缀或换行符）
+     * @param frameHandler 完整帧的处理器
+     */
+    public FrameDecoder(FramingMode mode, int maxFrameSize, Handler<Buffer> frameHandler) {
+        this.mode = mode;
+        this.maxFrameSize = maxFrameSize;
+        this.frameHandler = frameHandler;
+    }
+
+    /**
+     * 设置非法帧（超长或长度字段错误）的处理器
+     * @param handler 异常处理器
+     * @return 当前解码器
+     */
+    public FrameDecoder exceptionHandler(Handler<Throwable> handler) {
+        this.exceptionHandler = handler;
+        return this;
+    }
+
+    @Override
+    public void handle(Buffer chunk) {
+        if (failed) {
+            return;
+        }
+
+        Buffer data;
+        if (pending == null) {
+            data = chunk;
+        } else {
+            pending.appendBuffer(chunk);
+            data = pending;
+        }
+
+        int consumed = mode == FramingMode.LENGTH_PREFIXED ? decodeLengthPrefixed(data) : decodeLines(data, scanned);
+        if (failed) {
+            pending = null;
+            return;
+        }
+
+        if (consumed == data.length()) {
+            pending = null;
+        } else if (consumed == 0) {
+            // 没有交出任何slice，可以直接在这块数据上继续追加
+            pending = data;
+        } else {
+            // 只复制不完整的帧尾部，已交出的slice保持不变
+            pending = data.getBuffer(consumed, data.length());
+        }
+        // 剩余数据中都没有换行符，下次从新追加的数据开始扫描
+        scanned = pending == null ? 0 : pending.length();
+    }
+
+    /**
+     * 按换行符切分
+     * @param from 开始扫描换行符的位置，之前的字节已确认不含换行符
+     * @return 已消费的字节数
+     */
+    private int decodeLines(Buffer data, int from) {
+        int start = 0;
+        int length = data.length();
+        for (int i = from; i < length; i++) {
+            if (data.getByte(i) == '\n') {
+                int end = i;
+                if (end > start && data.getByte(end - 1) == '\r') {
+                    end--;
+                }
+                if (end - start > maxFrameSize) {
+                    fail("消息长度超过上限: " + (end - start));
+                    return start;
+                }
+                frameHandler.handle(data.slice(start, end));
+                start = i + 1;
+            }
+        }
+        if (length - start > maxFrameSize) {
+            fail("消息长度超过上限且没有换行符: " + (length - start));
+        }
+        return start;
+    }
+
+    /**
+     * 按长度前缀切分
+     * @return 已消费的字节数
+     */
+    private int decodeLengthPrefixed(Buffer data) {
+        int position = 0;
+        int length = data.length();
+        while (length - position >= FramingMode.LENGTH_FIELD_SIZE) {
+            int frameLength = data.getInt(position);
+            if (frameLength < 0 || frameLength > maxFrameSize) {
+                fail("非法的帧长度: " + frameLength);
+                return position;
+            }
+            int frameStart = position + FramingMode.LENGTH_FIELD_SIZE;
+            if (length - frameStart < frameLength) {
+                break;
+            }
+            frameHandler.handle(data.slice(frameStart, frameStart + frameLength));
+            position = frameStart + frameLength;
+        }
+        return position;
+    }
+
+    private void fail(String reason) {
+        failed = true;
+        if (exceptionHandler != null) {
+            exceptionHandler.handle(new IllegalStateException(reason));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.gameserver.net;
+
+import io.vertx.core.buffer.Buffer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 帧内容的字节级扫描
+ * 命令名、空白和数字都是ASCII，UTF-8中多字节字符的每个字节都不小于0x80，
+ * 所以可以直接在帧的字节上判断前缀和切分参数，只在确实需要文本时才解码UTF-8。
+ */
+public final class FrameText {
+
+    private FrameText() {
+    }
+
+    /**
+     * 跳过开头的空白，规则与{@link String#trim()}一致
+     * @param frame 帧
+     * @return 第一个非空白字节的位置，全是空白时返回帧长度
+     */
+    public static int trimStart(Buffer frame) {
+        int length = frame.length();
+        int i = 0;
+        while (i < length && (frame.getByte(i) & 0xFF) <= ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * 跳过结尾的空白
+     * @param frame 帧
+     * @param start 起始位置
+     * @return 最后一个非空白字节之后的位置，不小于start
+     */
+    public static int trimEnd(Buffer frame, int start) {
+        int end = frame.length();
+        while (end > start && (frame.getByte(end - 1) & 0xFF) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * 查找ASCII字节
+     * @param frame 帧
+     * @param b 要查找的字节
+     * @param from 起始位置（含）
+     * @param to 结束位置（不含）
+     * @return 找到的位置，未找到时返回to
+     */
+    public static int indexOf(Buffer frame, byte b, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (frame.getByte(i) == b) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    /**
+     * 将区间解码为UTF-8字符串
+     * 使用Netty的线程本地解码器，不复制中间字节数组
+     * @param frame 帧
+     * @param from 起始位置（含）
+     * @param to 结束位置（不含）
+     * @return 解码后的字符串，区间为空时返回空字符串
+     */
+    public static String decode(Buffer frame, int from, int to) {
+        if (from >= to) {
+            return "";
+        }
+        return frame.getByteBuf().toString(from, to - from, StandardCharsets.UTF_8);
+    }
+}
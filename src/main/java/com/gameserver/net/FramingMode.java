@@ -0,0 +1,88 @@
+package com.gameserver.net;
+
+import io.netty.buffer.Unpooled;
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * 帧格式
+ * 定义TCP字节流如何切分为一条条消息
+ */
+public enum FramingMode {
+    /**
+     * 换行分隔（兼容telnet和GameClient）
+     */
+    LINE,
+
+    /**
+     * 4字节大端长度前缀 + 消息体
+     */
+    LENGTH_PREFIXED,
+
+    /**
+     * 不额外分帧，由传输层保证消息边界（WebSocket）
+     */
+    NONE;
+
+    /**
+     * 长度前缀字段的字节数
+     */
+    public static final int LENGTH_FIELD_SIZE = 4;
+
+    /**
+     * 长度字段最高位为1表示消息体经过压缩（只出现在服务器发出、协商了压缩的帧中）
+     */
+    public static final int COMPRESSED_FLAG = 0x80000000;
+
+    /**
+     * 按当前帧格式封装消息体
+     * 返回的Buffer是只读的，可以被多个socket重复写入
+     * @param payload 消息体（不含换行符）
+     * @return 可直接写入socket的帧
+     */
+    public Buffer frame(byte[] payload) {
+        byte[] framed;
+        if (this == NONE) {
+            framed = payload;
+        } else if (this == LENGTH_PREFIXED) {
+            framed = lengthPrefixed(payload, payload.length);
+        } else {
+            framed = new byte[payload.length + 1];
+            System.arraycopy(payload, 0, framed, 0, payload.length);
+            framed[payload.length] = '\n';
+        }
+        return Buffer.buffer(Unpooled.wrappedBuffer(framed).asReadOnly());
+    }
+
+    /**
+     * 封装压缩后的消息体，长度字段带压缩标记
+     * 只适用于LENGTH_PREFIXED
+     * @param compressed 压缩后的消息体
+     * @return 可直接写入socket的帧
+     */
+    public static Buffer frameCompressed(byte[] compressed) {
+        byte[] framed = lengthPrefixed(compressed, compressed.length | COMPRESSED_FLAG);
+        return Buffer.buffer(Unpooled.wrappedBuffer(framed).asReadOnly());
+    }
+
+    private static byte[] lengthPrefixed(byte[] payload, int lengthField) {
+        byte[] framed = new byte[LENGTH_FIELD_SIZE + payload.length];
+        framed[0] = (byte) (lengthField >>> 24);
+        framed[1] = (byte) (lengthField >>> 16);
+        framed[2] = (byte) (lengthField >>> 8);
+        framed[3] = (byte) lengthField;
+        System.arraycopy(payload, 0, framed, LENGTH_FIELD_SIZE, payload.length);
+        return framed;
+    }
+
+    /**
+     * 根据配置名称解析帧格式
+     * @param name 配置值（line 或 length）
+     * @return 帧格式，无法识别时返回LINE
+     */
+    public static FramingMode fromConfig(String name) {
+        if (name != null && ("length".equalsIgnoreCase(name) || "length_prefixed".equalsIgnoreCase(name))) {
+            return LENGTH_PREFIXED;
+        }
+        return LINE;
+    }
+}
@@ -0,0 +1,150 @@
+package com.gameserver.net;
+
+import com.gameserver.protocol.ProtocolInfo;
+
+/**
+ * 连接握手的协商结果
+ * 握手请求和回复都是一行文本，与连接配置的帧格式无关：
+ * <pre>
+ * 客户端: HELLO 协议版本 [format=text|binary] [framing=line|length] [compression=none|deflate]
+ * 服务器: HELLO 协议版本 format=... framing=... compression=...
+ * </pre>
+ * 服务器回复双方都支持的最高版本和实际采用的选项，之后双方按回复的选项收发消息；
+ * 低于{@link #MIN_SUPPORTED_VERSION}的客户端被拒绝。
+ * 客户端不认识的选项由服务器忽略，服务器不支持的取值回退为默认值；
+ * 二进制协议的消息体可能包含换行符，因此总是使用长度前缀分帧；
+ * 压缩后的消息体同样如此，所以只有长度前缀分帧的连接才能协商压缩。
+ * 不发送握手的旧客户端按服务器配置的帧格式和文本协议处理。
+ */
+public final class Handshake {
+    public static final String MAGIC = "HELLO";
+    /**
+     * 服务器仍支持的最低协议版本，更旧的客户端在握手时被拒绝
+     */
+    public static final int MIN_SUPPORTED_VERSION = 1;
+
+    private final boolean negotiated;
+    private final int version;
+    private final WireFormat wireFormat;
+    private final FramingMode framingMode;
+    private final Compression compression;
+
+    private Handshake(boolean negotiated, int version, WireFormat wireFormat, FramingMode framingMode,
+                      Compression compression) {
+        this.negotiated = negotiated;
+        this.version = version;
+        this.wireFormat = wireFormat;
+        this.framingMode = framingMode;
+        this.compression = compression;
+    }
+
+    /**
+     * 未握手的旧客户端
+     * @param defaultFraming 服务器配置的帧格式
+     * @return 使用文本协议的结果
+     */
+    public static Handshake legacy(FramingMode defaultFraming) {
+        return new Handshake(false, 0, WireFormat.TEXT, defaultFraming, Compression.NONE);
+    }
+
+    /**
+     * 解析客户端的握手请求
+     * @param line 去除换行符后的请求
+     * @param defaultFraming 服务器配置的帧格式，客户端未指定时使用
+     * @return 协商结果
+     * @throws IllegalArgumentException 请求格式错误
+     */
+    public static Handshake parse(String line, FramingMode defaultFraming) {
+        String[] tokens = line.trim().split("\\s+");
+        if (tokens.length < 2 || !MAGIC.equals(tokens[0])) {
+            throw new IllegalArgumentException("握手请求格式错误: " + line);
+        }
+
+        int clientVersion;
+        try {
+            clientVersion = Integer.parseInt(tokens[1]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("握手请求的协议版本不合法: " + tokens[1]);
+        }
+        if (clientVersion < MIN_SUPPORTED_VERSION) {
+            throw new IllegalArgumentException("客户端协议版本 " + clientVersion + " 过旧，最低支持 " + MIN_SUPPORTED_VERSION);
+        }
+
+        WireFormat wireFormat = WireFormat.TEXT;
+        FramingMode framingMode = defaultFraming;
+        Compression compression = Compression.NONE;
+        for (int i = 2; i < tokens.length; i++) {
+            int eq = tokens[i].indexOf('=');
+            if (eq < 0) {
+                continue;
+            }
+            String key = tokens[i].substring(0, eq);
+            String value = tokens[i].substring(eq + 1);
+            if ("format".equals(key)) {
+                wireFormat = "binary".equalsIgnoreCase(value) ? WireFormat.BINARY : WireFormat.TEXT;
+            } else if ("framing".equals(key)) {
+                framingMode = FramingMode.fromConfig(value);
+            } else if ("compression".equals(key)) {
+                compression = Compression.fromName(value);
+            }
+        }
+        if (wireFormat == WireFormat.BINARY) {
+            framingMode = FramingMode.LENGTH_PREFIXED;
+        }
+        if (framingMode != FramingMode.LENGTH_PREFIXED) {
+            compression = Compression.NONE;
+        }
+        return new Handshake(true, Math.min(clientVersion, ProtocolInfo.VERSION), wireFormat, framingMode, compression);
+    }
+
+    /**
+     * 生成服务器的握手回复
+     * @return 回复行（不含换行符）
+     */
+    public String toReply() {
+        return MAGIC + " " + version
+                + " format=" + (wireFormat == WireFormat.BINARY ? "binary" : "text")
+                + " framing=" + (framingMode == FramingMode.LENGTH_PREFIXED ? "length" : "line")
+                + " compression=" + (compression == Compression.DEFLATE ? "deflate" : "none");
+    }
+
+    /**
+     * 获取协商的压缩方式
+     * @return 压缩方式
+     */
+    public Compression getCompression() {
+        return compression;
+    }
+
+    /**
+     * 客户端是否发送了握手请求
+     * @return 进行了握手时返回true
+     */
+    public boolean isNegotiated() {
+        return negotiated;
+    }
+
+    /**
+     * 获取协商的协议版本
+     * @return 协议版本，未握手时为0
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * 获取协商的消息编码方式
+     * @return 编码方式
+     */
+    public WireFormat getWireFormat() {
+        return wireFormat;
+    }
+
+    /**
+     * 获取协商的帧格式
+     * @return 帧格式
+     */
+    public FramingMode getFramingMode() {
+        return framingMode;
+    }
+}
@@ -0,0 +1,125 @@
+package com.gameserver.net;
+
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 握手解码器
+ * 连接建立后先由它接收数据：开头是 "HELLO " 时读取一行握手请求，
+ * 否则立即判定为旧客户端；超时没有收到数据时也按旧客户端处理。
+ * 判定后已收到的多余数据通过{@link #remaining()}交给后续的帧解码器，不会丢失。
+ */
+public class HandshakeDecoder implements Handler<Buffer> {
+    private static final byte[] PREFIX = (Handshake.MAGIC + " ").getBytes(StandardCharsets.US_ASCII);
+    private static final int MAX_HANDSHAKE_LENGTH = 256;
+
+    private final FramingMode defaultFraming;
+    private Handler<Handshake> completionHandler;
+    private Handler<Throwable> exceptionHandler;
+    private Buffer received = Buffer.buffer();
+    private boolean done;
+
+    /**
+     * 构造方法
+     * @param defaultFraming 服务器配置的帧格式
+     */
+    public HandshakeDecoder(FramingMode defaultFraming) {
+        this.defaultFraming = defaultFraming;
+    }
+
+    /**
+     * 设置握手完成（或判定为旧客户端）时的处理器
+     * @param handler 完成处理器
+     * @return 当前解码器
+     */
+    public HandshakeDecoder completionHandler(Handler<Handshake> handler) {
+        this.completionHandler = handler;
+        return this;
+    }
+
+    /**
+     * 设置握手请求不合法时的处理器
+     * @param handler 异常处理器
+     * @return 当前解码器
+     */
+    public HandshakeDecoder exceptionHandler(Handler<Throwable> handler) {
+        this.exceptionHandler = handler;
+        return this;
+    }
+
+    @Override
+    public void handle(Buffer data) {
+        if (done) {
+            return;
+        }
+        received.appendBuffer(data);
+
+        // 逐字节比较前缀，一旦不符就是旧客户端
+        int prefixLength = Math.min(received.length(), PREFIX.length);
+        for (int i = 0; i < prefixLength; i++) {
+            if (received.getByte(i) != PREFIX[i]) {
+                complete(Handshake.legacy(defaultFraming), 0);
+                return;
+            }
+        }
+        if (received.length() < PREFIX.length) {
+            return;
+        }
+
+        int newline = FrameText.indexOf(received, (byte) '\n', 0, received.length());
+        if (newline == received.length()) {
+            if (received.length() > MAX_HANDSHAKE_LENGTH) {
+                fail(new IllegalArgumentException("握手请求超过 " + MAX_HANDSHAKE_LENGTH + " 字节"));
+            }
+            return;
+        }
+
+        Handshake handshake;
+        try {
+            handshake = Handshake.parse(FrameText.decode(received, 0, newline), defaultFraming);
+        } catch (IllegalArgumentException e) {
+            fail(e);
+            return;
+        }
+        complete(handshake, newline + 1);
+    }
+
+    /**
+     * 等待超时，按旧客户端处理
+     */
+    public void timeout() {
+        if (!done) {
+            complete(Handshake.legacy(defaultFraming), 0);
+        }
+    }
+
+    /**
+     * 连接在握手完成前关闭，之后不再触发任何处理器
+     */
+    public void cancel() {
+        done = true;
+    }
+
+    /**
+     * 获取握手之后已经收到的数据
+     * @return 剩余数据（可能为空）
+     */
+    public Buffer remaining() {
+        return received;
+    }
+
+    private void complete(Handshake handshake, int consumed) {
+        done = true;
+        received = received.getBuffer(consumed, received.length());
+        completionHandler.handle(handshake);
+    }
+
+    private void fail(Throwable cause) {
+        done = true;
+        if (exceptionHandler != null) {
+            exceptionHandler.handle(cause);
+        }
+    }
+}
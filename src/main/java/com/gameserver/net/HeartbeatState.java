@@ -0,0 +1,99 @@
+package com.gameserver.net;
+
+/**
+ * 玩家的心跳状态
+ * 记录最近一次发起的心跳和连续未回应的心跳数，并按RFC 6298的方法平滑往返时延（RTT）和抖动。
+ * 只接受回显时间戳与最近一次心跳完全相同的回应，客户端无法伪造回应来保活或篡改RTT。
+ * 只在玩家所属的事件循环线程中访问。
+ */
+public final class HeartbeatState {
+    private static final double RTT_GAIN = 0.125;      // 平滑RTT的权重
+    private static final double JITTER_GAIN = 0.25;    // 抖动的权重
+
+    private boolean enabled;       // 客户端是否支持心跳
+    private int missed;            // 连续未回应的心跳数
+    private long pingSentAt;       // 最近一次心跳的服务器时间戳，已回应或未发起时为0
+    private int samples;           // 已采样的次数
+    private double smoothedRttMs;
+    private double jitterMs;
+
+    /**
+     * 客户端是否支持心跳
+     * 只有支持心跳的客户端才会收到服务器的心跳，并按未回应的心跳数判断存活
+     * @return 支持时返回true
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 标记客户端支持心跳
+     */
+    public void enable() {
+        this.enabled = true;
+    }
+
+    /**
+     * 获取连续未回应的心跳数，只统计真正写出的心跳
+     * @return 未回应的心跳数
+     */
+    public int getMissed() {
+        return missed;
+    }
+
+    /**
+     * 记录发出了一次心跳
+     * @param sentAt 心跳的服务器时间戳（单调时钟，毫秒，大于0）
+     */
+    public void onSent(long sentAt) {
+        pingSentAt = sentAt;
+        missed++;
+    }
+
+    /**
+     * 记录收到心跳回应，回显的时间戳与最近一次心跳相同时更新RTT和抖动
+     * @param echoedSentAt 客户端回显的服务器时间戳
+     * @param nowMs 当前的服务器时间戳（与发起心跳时使用同一个单调时钟）
+     * @return 回应有效时返回true，过期、重复或伪造的回应返回false
+     */
+    public boolean onAck(long echoedSentAt, long nowMs) {
+        if (pingSentAt == 0 || echoedSentAt != pingSentAt) {
+            return false;
+        }
+        long rttMs = Math.max(0, nowMs - pingSentAt);
+        pingSentAt = 0;
+        missed = 0;
+        if (samples++ == 0) {
+            smoothedRttMs = rttMs;
+            jitterMs = rttMs / 2.0;
+        } else {
+            jitterMs = (1 - JITTER_GAIN) * jitterMs + JITTER_GAIN * Math.abs(smoothedRttMs - rttMs);
+            smoothedRttMs = (1 - RTT_GAIN) * smoothedRttMs + RTT_GAIN * rttMs;
+        }
+        return true;
+    }
+
+    /**
+     * 是否已有RTT数据
+     * @return 至少收到过一次回应时返回true
+     */
+    public boolean hasSamples() {
+        return samples > 0;
+    }
+
+    /**
+     * 获取平滑后的RTT
+     * @return 平滑RTT（毫秒）
+     */
+    public double getSmoothedRttMs() {
+        return smoothedRttMs;
+    }
+
+    /**
+     * 获取RTT抖动
+     * @return 抖动（毫秒）
+     */
+    public double getJitterMs() {
+        return jitterMs;
+    }
+}
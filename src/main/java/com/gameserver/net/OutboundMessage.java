@@ -0,0 +1,144 @@
+package com.gameserver.net;
+
+import com.gameserver.protocol.HeartbeatMessage;
+import com.gameserver.protocol.NoticeMessage;
+import com.gameserver.protocol.PlayerEnterMessage;
+import com.gameserver.protocol.PlayerLeaveMessage;
+import com.gameserver.protocol.PlayerMovedMessage;
+import com.gameserver.protocol.ProtocolMessage;
+import com.gameserver.util.SessionIds;
+import io.vertx.core.buffer.Buffer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 待发送的消息
+ * 消息只编码一次，每种编码方式、帧格式和压缩方式的组合只封装一次，之后所有接收者共享同一个只读Buffer。
+ * Vert.x写入时只复制ByteBuf的读写索引，不复制数据，因此广播的开销（包括压缩）与接收人数无关。
+ * 二进制编码和压缩结果在第一个需要它的接收者出现时才生成。
+ *
+ * 消息创建后不再改变，可以通过事件总线交给其他Verticle实例使用；
+ * 编码和封装结果通过volatile字段和原子数组发布，并发封装时最多重复计算一次。
+ */
+public final class OutboundMessage {
+    private static final int FRAMING_MODES = FramingMode.values().length;
+    private static final int COMPRESSIONS = Compression.values().length;
+
+    private final byte[] textPayload;
+    private final ProtocolMessage binaryMessage;
+    private volatile byte[] binaryPayload;
+    private final AtomicReferenceArray<Buffer> frames =
+            new AtomicReferenceArray<>(WireFormat.values().length * FRAMING_MODES * COMPRESSIONS);
+
+    private OutboundMessage(byte[] textPayload, ProtocolMessage binaryMessage) {
+        this.textPayload = textPayload;
+        this.binaryMessage = binaryMessage;
+    }
+
+    /**
+     * 创建 "[发送者]: 内容" 格式的文本消息
+     * @param sender 发送者
+     * @param content 消息内容
+     * @return 待发送的消息
+     */
+    public static OutboundMessage text(String sender, String content) {
+        String text = "[" + sender + "]: " + content;
+        return new OutboundMessage(text.getBytes(StandardCharsets.UTF_8), new NoticeMessage(sender, content));
+    }
+
+    /**
+     * 创建心跳消息
+     * @param sentAt 服务器发送时间戳
+     * @param echo 回显的客户端时间戳，为0表示服务器发起的心跳
+     * @return 待发送的消息
+     */
+    public static OutboundMessage heartbeat(long sentAt, long echo) {
+        String line = echo > 0 ? "/hb " + sentAt + " " + echo : "/hb " + sentAt;
+        return new OutboundMessage(line.getBytes(StandardCharsets.UTF_8), new HeartbeatMessage(sentAt, echo));
+    }
+
+    /**
+     * 创建玩家进入视野的消息，文本格式为 "/enter 令牌 横坐标 纵坐标 名字"
+     * @param token 玩家令牌
+     * @param name 玩家名字
+     * @param x 横坐标
+     * @param y 纵坐标
+     * @return 待发送的消息
+     */
+    public static OutboundMessage playerEnter(int token, String name, int x, int y) {
+        String line = "/enter " + SessionIds.format(token) + " " + x + " " + y + " " + name;
+        return new OutboundMessage(line.getBytes(StandardCharsets.UTF_8), new PlayerEnterMessage(token, name, x, y));
+    }
+
+    /**
+     * 创建玩家移动的消息，文本格式为 "/pos 令牌 横坐标 纵坐标"
+     * @param token 玩家令牌
+     * @param x 横坐标
+     * @param y 纵坐标
+     * @return 待发送的消息
+     */
+    public static OutboundMessage playerMoved(int token, int x, int y) {
+        String line = "/pos " + SessionIds.format(token) + " " + x + " " + y;
+        return new OutboundMessage(line.getBytes(StandardCharsets.UTF_8), new PlayerMovedMessage(token, x, y));
+    }
+
+    /**
+     * 创建玩家离开视野的消息，文本格式为 "/exit 令牌"
+     * @param token 玩家令牌
+     * @return 待发送的消息
+     */
+    public static OutboundMessage playerLeave(int token) {
+        String line = "/exit " + SessionIds.format(token);
+        return new OutboundMessage(line.getBytes(StandardCharsets.UTF_8), new PlayerLeaveMessage(token));
+    }
+
+    /**
+     * 获取按连接协商的编码方式、帧格式和压缩方式封装好的消息
+     * @param connection 接收者的连接
+     * @return 共享的只读Buffer
+     */
+    public Buffer framed(Connection connection) {
+        return framed(connection.wireFormat(), connection.framingMode(), connection.compression());
+    }
+
+    /**
+     * 获取按指定编码方式、帧格式和压缩方式封装好的消息
+     * 只有长度前缀分帧支持压缩，其他帧格式忽略压缩方式
+     * @param format 编码方式
+     * @param mode 帧格式
+     * @param compression 压缩方式
+     * @return 共享的只读Buffer
+     */
+    public Buffer framed(WireFormat format, FramingMode mode, Compression compression) {
+        if (mode != FramingMode.LENGTH_PREFIXED) {
+            compression = Compression.NONE;
+        }
+        int index = (format.ordinal() * FRAMING_MODES + mode.ordinal()) * COMPRESSIONS + compression.ordinal();
+        Buffer frame = frames.get(index);
+        if (frame == null) {
+            byte[] payload = payload(format);
+            byte[] compressed = compression == Compression.DEFLATE ? Compression.deflate(payload) : null;
+            if (compressed != null) {
+                frame = FramingMode.frameCompressed(compressed);
+            } else {
+                // 不压缩或压缩无收益时与未协商压缩的连接共享同一个帧
+                frame = compression == Compression.NONE ? mode.frame(payload) : framed(format, mode, Compression.NONE);
+            }
+            frames.set(index, frame);
+        }
+        return frame;
+    }
+
+    private byte[] payload(WireFormat format) {
+        if (format == WireFormat.TEXT) {
+            return textPayload;
+        }
+        byte[] payload = binaryPayload;
+        if (payload == null) {
+            payload = binaryMessage.toBytes();
+            binaryPayload = payload;
+        }
+        return payload;
+    }
+}
@@ -0,0 +1,49 @@
+package com.gameserver.net;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.eventbus.MessageCodec;
+
+/**
+ * OutboundMessage的事件总线编解码器
+ * 只用于本地投递：各个Verticle实例直接共享同一个不可变的消息对象，不做复制
+ */
+public class OutboundMessageCodec implements MessageCodec<OutboundMessage, OutboundMessage> {
+
+    /**
+     * 注册为OutboundMessage的默认编解码器，多个实例重复调用时只有第一次生效
+     * @param eventBus 事件总线
+     */
+    public static void register(EventBus eventBus) {
+        try {
+            eventBus.registerDefaultCodec(OutboundMessage.class, new OutboundMessageCodec());
+        } catch (IllegalStateException e) {
+            // 已经由其他实例注册
+        }
+    }
+
+    @Override
+    public void encodeToWire(Buffer buffer, OutboundMessage message) {
+        throw new UnsupportedOperationException("OutboundMessage只能在本地投递");
+    }
+
+    @Override
+    public OutboundMessage decodeFromWire(int pos, Buffer buffer) {
+        throw new UnsupportedOperationException("OutboundMessage只能在本地投递");
+    }
+
+    @Override
+    public OutboundMessage transform(OutboundMessage message) {
+        return message;
+    }
+
+    @Override
+    public String name() {
+        return "outbound-message";
+    }
+
+    @Override
+    public byte systemCodecID() {
+        return -1;
+    }
+}
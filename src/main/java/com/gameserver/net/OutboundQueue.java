@@ -0,0 +1,217 @@
+package com.gameserver.net;
+
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.WriteStream;
+
+import java.util.ArrayDeque;
+
+/**
+ * 玩家的发送队列
+ * socket写缓冲区未满时直接写入；写满后消息先进入有界队列，由drainHandler在socket可写时继续发送。
+ * 可丢弃消息和不可丢弃消息分开排队，通过序号保持原有的发送顺序。
+ * 队列持续积压超过指定时间，或不可丢弃消息超过上限时，判定为慢速连接并通知上层断开。
+ * 主动断开（如踢人）时先把排队的消息写出再关闭连接，通知消息不会随队列一起丢弃。
+ *
+ * 只能在socket所属的事件循环线程中使用。
+ */
+public class OutboundQueue {
+    private final Vertx vertx;
+    private final WriteStream<Buffer> stream;
+    private final int maxDroppable;
+    private final int maxReliable;
+    private final long slowConsumerTimeoutMs;
+    private final Handler<Void> slowConsumerHandler;
+
+    private final ArrayDeque<Entry> droppable = new ArrayDeque<>();
+    private final ArrayDeque<Entry> reliable = new ArrayDeque<>();
+    private long nextSequence;
+    private long droppedCount;      // 累计丢弃的消息数
+    private long stallTimerId = -1; // 积压检测定时器
+    private boolean closed;
+    private Handler<Void> pendingClose; // 排队的消息写出后关闭连接的处理器
+
+    /**
+     * 构造方法
+     * @param vertx Vert.x实例
+     * @param stream 目标写入流（socket）
+     * @param maxDroppable 可丢弃消息的最大排队数
+     * @param maxReliable 不可丢弃消息的最大排队数，超过后判定为慢速连接
+     * @param slowConsumerTimeoutMs 队列持续积压多久后判定为慢速连接（毫秒）
+     * @param slowConsumerHandler 判定为慢速连接时的处理器
+     */
+    public OutboundQueue(Vertx vertx, WriteStream<Buffer> stream, int maxDroppable, int maxReliable,
+                         long slowConsumerTimeoutMs, Handler<Void> slowConsumerHandler) {
+        this.vertx = vertx;
+        this.stream = stream;
+        this.maxDroppable = maxDroppable;
+        this.maxReliable = maxReliable;
+        this.slowConsumerTimeoutMs = slowConsumerTimeoutMs;
+        this.slowConsumerHandler = slowConsumerHandler;
+        stream.drainHandler(v -> flush());
+    }
+
+    /**
+     * 发送一帧数据
+     * @param frame 已封装好的帧
+     * @param policy 投递策略
+     */
+    public void enqueue(Buffer frame, DeliveryPolicy policy) {
+        if (closed || pendingClose != null) {
+            return;
+        }
+
+        // 没有积压时直接写入，保持低延迟
+        if (isEmpty() && !stream.writeQueueFull()) {
+            stream.write(frame);
+            return;
+        }
+
+        if (policy == DeliveryPolicy.NEVER_DROP) {
+            if (reliable.size() >= maxReliable) {
+                onSlowConsumer();
+                return;
+            }
+            reliable.addLast(new Entry(frame, nextSequence++));
+        } else {
+            if (droppable.size() >= maxDroppable) {
+                droppable.pollFirst();
+                droppedCount++;
+            }
+            droppable.addLast(new Entry(frame, nextSequence++));
+        }
+
+        startStallTimer();
+    }
+
+    /**
+     * 只在没有积压时直接写入，否则不排队也不丢弃其他消息
+     * 用于过时即无意义、需要知道是否真正写出的消息（如服务器发起的心跳）
+     * @param frame 已封装好的帧
+     * @return 已写入socket时返回true
+     */
+    public boolean writeIfIdle(Buffer frame) {
+        if (closed || pendingClose != null || !isEmpty() || stream.writeQueueFull()) {
+            return false;
+        }
+        stream.write(frame);
+        return true;
+    }
+
+    /**
+     * 把排队的消息全部写出后再关闭连接，之后的消息不再发送
+     * 写不出去时仍按积压超时判定为慢速连接，由慢速连接处理器断开
+     * @param closer 关闭连接的处理器
+     */
+    public void closeAfterFlush(Handler<Void> closer) {
+        if (closed) {
+            closer.handle(null);
+            return;
+        }
+        pendingClose = closer;
+        if (isEmpty() && !stream.writeQueueFull()) {
+            finishClose();
+            return;
+        }
+        startStallTimer();
+    }
+
+    /**
+     * 在socket可写时按原有顺序发送排队的消息
+     */
+    private void flush() {
+        while (!isEmpty() && !stream.writeQueueFull()) {
+            Entry next = nextEntry();
+            stream.write(next.frame);
+        }
+        if (isEmpty()) {
+            if (pendingClose == null) {
+                cancelStallTimer();
+            } else if (!stream.writeQueueFull()) {
+                finishClose();
+            }
+        }
+    }
+
+    private void finishClose() {
+        Handler<Void> closer = pendingClose;
+        close();
+        closer.handle(null);
+    }
+
+    private void startStallTimer() {
+        if (stallTimerId < 0) {
+            stallTimerId = vertx.setTimer(slowConsumerTimeoutMs, id -> {
+                stallTimerId = -1;
+                if (!isEmpty() || pendingClose != null) {
+                    onSlowConsumer();
+                }
+            });
+        }
+    }
+
+    /**
+     * 取出序号最小的消息
+     */
+    private Entry nextEntry() {
+        Entry first = droppable.peekFirst();
+        Entry second = reliable.peekFirst();
+        if (second == null || (first != null && first.sequence < second.sequence)) {
+            return droppable.pollFirst();
+        }
+        return reliable.pollFirst();
+    }
+
+    private void onSlowConsumer() {
+        if (closed) {
+            return;
+        }
+        close();
+        slowConsumerHandler.handle(null);
+    }
+
+    /**
+     * 关闭队列，丢弃所有排队的消息
+     */
+    public void close() {
+        closed = true;
+        pendingClose = null;
+        droppable.clear();
+        reliable.clear();
+        cancelStallTimer();
+    }
+
+    private void cancelStallTimer() {
+        if (stallTimerId >= 0) {
+            vertx.cancelTimer(stallTimerId);
+            stallTimerId = -1;
+        }
+    }
+
+    /**
+     * 队列是否为空
+     * @return 没有排队消息时返回true
+     */
+    public boolean isEmpty() {
+        return droppable.isEmpty() && reliable.isEmpty();
+    }
+
+    /**
+     * 获取累计丢弃的消息数
+     * @return 丢弃的消息数
+     */
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    private static final class Entry {
+        final Buffer frame;
+        final long sequence;
+
+        Entry(Buffer frame, long sequence) {
+            this.frame = frame;
+            this.sequence = sequence;
+        }
+    }
+}
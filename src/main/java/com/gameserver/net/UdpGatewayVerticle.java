@@ -0,0 +1,230 @@
+package com.gameserver.net;
+
+import com.gameserver.ServerConfig;
+import com.gameserver.game.Direction;
+import com.gameserver.game.WorldRequest;
+import com.gameserver.game.WorldRequestCodec;
+import com.gameserver.game.WorldVerticle;
+import io.netty.util.collection.IntObjectHashMap;
+import io.netty.util.collection.LongObjectHashMap;
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.datagram.DatagramPacket;
+import io.vertx.core.datagram.DatagramSocket;
+import io.vertx.core.datagram.DatagramSocketOptions;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.net.SocketAddress;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * UDP网关Verticle
+ * 为已通过TCP登录的玩家提供不可靠、只保留最新状态的UDP通道，用于高频的移动输入和位置更新。
+ * 聊天、命令以及进入/离开视野等不能丢失的消息仍然走TCP。
+ * 网关只负责校验令牌、地址和序号：移动转发给玩家所在的分片，由分片按移动限流后交给游戏世界，与TCP上的移动走同一条路径；
+ * 客户端绑定后通知世界，此后世界经视野同步产生的位置更新由{@link UdpStateUpdate}交给网关，按会话编号后发给客户端，
+ * 积压或丢包都只影响位置，不会阻塞TCP上的其他消息。
+ *
+ * 客户端在TCP欢迎消息中拿到会话令牌，之后每个数据报都以令牌开头：
+ * <pre>
+ * 客户端 -> 服务器: [令牌 8字节][序号 4字节][类型 1字节][内容]
+ * 服务器 -> 客户端: [类型 1字节][序号 4字节][内容]
+ * </pre>
+ * 序号按发送方递增，接收方丢弃序号不大于已收到序号的数据报（按32位循环比较）。
+ * 令牌无效的数据报直接丢弃且不回复，避免被利用做反射攻击。
+ *
+ * 整个服务器只部署一个实例，会话表只在本Verticle的事件循环线程中访问。
+ */
+public class UdpGatewayVerticle extends AbstractVerticle {
+    private static final Logger logger = LoggerFactory.getLogger(UdpGatewayVerticle.class);
+
+    // 会话登记/注销的事件总线地址，由GameServerVerticle在玩家连接和断开时发送
+    public static final String REGISTER_ADDRESS = "game.udp.register";
+    public static final String UNREGISTER_ADDRESS = "game.udp.unregister";
+    // 世界每个tick发出位置更新的事件总线地址
+    public static final String STATE_ADDRESS = "game.udp.state";
+    private static final String MOVE_ADDRESS_SUFFIX = ".udp";
+
+    // 客户端 -> 服务器的数据报类型
+    public static final byte TYPE_BIND = 0x01;
+    public static final byte TYPE_MOVE = 0x02;
+
+    // 服务器 -> 客户端的数据报类型
+    public static final byte TYPE_BIND_ACK = (byte) 0x81;
+    public static final byte TYPE_STATE = (byte) 0x82;
+
+    private static final int HEADER_SIZE = 8 + 4 + 1;
+    private static final String UDP_HOST = "0.0.0.0";
+
+    private final LongObjectHashMap<UdpSession> sessions = new LongObjectHashMap<>();          // UDP会话令牌 -> 会话
+    private final IntObjectHashMap<UdpSession> sessionsByPlayer = new IntObjectHashMap<>();   // 会话ID -> 会话
+    private DatagramSocket socket;
+
+    @Override
+    public void start(Promise<Void> startPromise) {
+        int port = new ServerConfig(config()).getUdpPort();
+
+        WorldRequestCodec.register(vertx.eventBus());
+        UdpStateUpdateCodec.register(vertx.eventBus());
+        vertx.eventBus().<JsonObject>localConsumer(REGISTER_ADDRESS, this::handleRegister);
+        vertx.eventBus().<Long>localConsumer(UNREGISTER_ADDRESS, this::handleUnregister);
+        vertx.eventBus().<UdpStateUpdate>localConsumer(STATE_ADDRESS, this::handleState);
+
+        socket = vertx.createDatagramSocket(new DatagramSocketOptions());
+        socket.handler(this::handlePacket);
+        socket.exceptionHandler(e -> logger.warn("UDP通道异常", e));
+        socket.listen(port, UDP_HOST, result -> {
+            if (result.succeeded()) {
+                logger.info("UDP通道已启动，监听端口: {}", port);
+                startPromise.complete();
+            } else {
+                logger.error("UDP通道启动失败", result.cause());
+                startPromise.fail(result.cause());
+            }
+        });
+    }
+
+    /**
+     * 登记新的会话
+     * @param message 包含token（UDP会话令牌）、playerId（会话ID）和shard（所在分片的地址）的消息
+     */
+    private void handleRegister(Message<JsonObject> message) {
+        JsonObject body = message.body();
+        UdpSession session = new UdpSession(body.getInteger("playerId"), body.getString("shard"));
+        sessions.put(body.getLong("token"), session);
+        sessionsByPlayer.put(session.playerId, session);
+    }
+
+    /**
+     * 注销会话
+     * @param message UDP会话令牌
+     */
+    private void handleUnregister(Message<Long> message) {
+        UdpSession session = sessions.remove(message.body());
+        if (session != null) {
+            sessionsByPlayer.remove(session.playerId);
+        }
+    }
+
+    /**
+     * 把世界一个tick内的位置更新发给已绑定的客户端
+     * 每条更新一个数据报：[类型][序号][玩家令牌 4字节][x 4字节][y 4字节]，序号按接收方的会话递增
+     * @param message 位置更新
+     */
+    private void handleState(Message<UdpStateUpdate> message) {
+        UdpStateUpdate update = message.body();
+        for (int i = 0; i < update.size(); i++) {
+            UdpSession session = sessionsByPlayer.get(update.getRecipient(i));
+            if (session == null || session.host == null) {
+                continue;
+            }
+            Buffer datagram = Buffer.buffer(1 + 4 + 4 + 4 + 4)
+                    .appendByte(TYPE_STATE)
+                    .appendInt(++session.sendSequence)
+                    .appendInt(update.getSubject(i))
+                    .appendInt(update.getX(i))
+                    .appendInt(update.getY(i));
+            socket.send(datagram, session.port, session.host, null);
+        }
+    }
+
+    /**
+     * 处理收到的数据报
+     */
+    private void handlePacket(DatagramPacket packet) {
+        Buffer data = packet.data();
+        if (data.length() < HEADER_SIZE) {
+            return;
+        }
+
+        UdpSession session = sessions.get(data.getLong(0));
+        if (session == null) {
+            return;
+        }
+
+        int sequence = data.getInt(8);
+        byte type = data.getByte(12);
+        SocketAddress sender = packet.sender();
+
+        switch (type) {
+            case TYPE_BIND:
+                // 绑定（或NAT变化后重新绑定）客户端地址，首次绑定后世界改用UDP发送位置更新
+                if (session.host == null) {
+                    vertx.eventBus().send(WorldVerticle.ADDRESS, WorldRequest.udpBind(session.playerId));
+                }
+                session.bind(sender.host(), sender.port(), sequence);
+                socket.send(Buffer.buffer(5).appendByte(TYPE_BIND_ACK).appendInt(sequence), sender.port(), sender.host(), null);
+                break;
+
+            case TYPE_MOVE:
+                if (!session.accepts(sender, sequence) || data.length() < HEADER_SIZE + 1) {
+                    return;
+                }
+                // 转发给玩家所在的分片，由分片限流后交给游戏世界
+                Direction direction = Direction.fromCode(data.getUnsignedByte(HEADER_SIZE));
+                if (direction != null) {
+                    vertx.eventBus().send(moveAddress(session.shard), WorldRequest.step(session.playerId, direction));
+                }
+                break;
+
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 获取分片接收UDP移动的事件总线地址
+     * @param shardAddress 分片的地址
+     * @return UDP移动地址
+     */
+    public static String moveAddress(String shardAddress) {
+        return shardAddress + MOVE_ADDRESS_SUFFIX;
+    }
+
+    @Override
+    public void stop() {
+        if (socket != null) {
+            socket.close();
+        }
+        logger.info("UDP通道已停止");
+    }
+
+    /**
+     * UDP会话
+     */
+    private static final class UdpSession {
+        final int playerId;   // 会话ID
+        final String shard;   // 玩家所在分片的地址
+        String host;          // 绑定的客户端地址，未绑定时为null
+        int port;
+        int lastSequence;     // 已收到的客户端序号
+        int sendSequence;     // 已发送的位置更新序号
+
+        UdpSession(int playerId, String shard) {
+            this.playerId = playerId;
+            this.shard = shard;
+        }
+
+        void bind(String host, int port, int sequence) {
+            this.host = host;
+            this.port = port;
+            this.lastSequence = sequence;
+        }
+
+        /**
+         * 数据报是否来自已绑定的地址且比已收到的更新
+         */
+        boolean accepts(SocketAddress sender, int sequence) {
+            if (host == null || port != sender.port() || !host.equals(sender.host())) {
+                return false;
+            }
+            if (sequence - lastSequence <= 0) {
+                return false;
+            }
+            lastSequence = sequence;
+            return true;
+        }
+    }
+}
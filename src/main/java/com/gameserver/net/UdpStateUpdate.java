@@ -0,0 +1,57 @@
+package com.gameserver.net;
+
+import java.util.Arrays;
+
+/**
+ * 一个tick内世界通过UDP发出的位置更新
+ * 由世界的发件箱汇总，每个tick只经过事件总线一次；UDP网关按接收者的会话ID找到绑定的地址，
+ * 每条更新编码为一个带序号的数据报。发送后不再修改。
+ */
+public final class UdpStateUpdate {
+    private int[] recipients = new int[16];
+    private int[] subjects = new int[16];
+    private int[] xs = new int[16];
+    private int[] ys = new int[16];
+    private int size;
+
+    /**
+     * 添加一条位置更新
+     * @param recipient 接收者的会话ID
+     * @param subject 移动的玩家的令牌
+     * @param x 横坐标
+     * @param y 纵坐标
+     */
+    public void add(int recipient, int subject, int x, int y) {
+        if (size == recipients.length) {
+            recipients = Arrays.copyOf(recipients, size * 2);
+            subjects = Arrays.copyOf(subjects, size * 2);
+            xs = Arrays.copyOf(xs, size * 2);
+            ys = Arrays.copyOf(ys, size * 2);
+        }
+        recipients[size] = recipient;
+        subjects[size] = subject;
+        xs[size] = x;
+        ys[size] = y;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getRecipient(int index) {
+        return recipients[index];
+    }
+
+    public int getSubject(int index) {
+        return subjects[index];
+    }
+
+    public int getX(int index) {
+        return xs[index];
+    }
+
+    public int getY(int index) {
+        return ys[index];
+    }
+}
@@ -0,0 +1,49 @@
+package com.gameserver.net;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.eventbus.MessageCodec;
+
+/**
+ * UdpStateUpdate的事件总线编解码器
+ * 只用于本地投递：世界和UDP网关直接共享同一个对象，不做复制
+ */
+public class UdpStateUpdateCodec implements MessageCodec<UdpStateUpdate, UdpStateUpdate> {
+
+    /**
+     * 注册为UdpStateUpdate的默认编解码器，多个实例重复调用时只有第一次生效
+     * @param eventBus 事件总线
+     */
+    public static void register(EventBus eventBus) {
+        try {
+            eventBus.registerDefaultCodec(UdpStateUpdate.class, new UdpStateUpdateCodec());
+        } catch (IllegalStateException e) {
+            // 已经由其他实例注册
+        }
+    }
+
+    @Override
+    public void encodeToWire(Buffer buffer, UdpStateUpdate update) {
+        throw new UnsupportedOperationException("UdpStateUpdate只能在本地投递");
+    }
+
+    @Override
+    public UdpStateUpdate decodeFromWire(int pos, Buffer buffer) {
+        throw new UnsupportedOperationException("UdpStateUpdate只能在本地投递");
+    }
+
+    @Override
+    public UdpStateUpdate transform(UdpStateUpdate update) {
+        return update;
+    }
+
+    @Override
+    public String name() {
+        return "udp-state-update";
+    }
+
+    @Override
+    public byte systemCodecID() {
+        return -1;
+    }
+}
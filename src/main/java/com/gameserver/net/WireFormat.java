@@ -0,0 +1,17 @@
+package com.gameserver.net;
+
+/**
+ * 消息体的编码方式
+ */
+public enum WireFormat {
+    /**
+     * 文本协议："[发送者]: 内容"，命令为 "/命令 参数"，便于telnet调试
+     */
+    TEXT,
+
+    /**
+     * 二进制协议：操作码 + 变长整数字段，定义见 protocol/game.schema
+     * 消息体可能包含换行符，因此TCP上总是使用长度前缀分帧
+     */
+    BINARY
+}
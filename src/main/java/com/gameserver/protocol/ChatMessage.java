@@ -0,0 +1,39 @@
+// 由 tools/ProtocolGenerator.java 根据 protocol/game.schema 生成，请勿手工修改
+package com.gameserver.protocol;
+
+/**
+ * 聊天消息
+ */
+public final class ChatMessage implements ProtocolMessage {
+    public static final int OPCODE = 0x01;
+
+    private final String text;
+
+    public ChatMessage(String text) {
+        this.text = text;
+    }
+
+    /**
+     * 读取操作码之后的字段
+     * @param reader 读取器
+     * @return 消息
+     */
+    public static ChatMessage decode(ProtocolReader reader) {
+        return new ChatMessage(reader.readString());
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    @Override
+    public int opcode() {
+        return OPCODE;
+    }
+
+    @Override
+    public void encode(ProtocolWriter writer) {
+        writer.writeU8(OPCODE);
+        writer.writeString(text);
+    }
+}
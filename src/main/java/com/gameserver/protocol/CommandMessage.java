@@ -0,0 +1,39 @@
+// 由 tools/ProtocolGenerator.java 根据 protocol/game.schema 生成，请勿手工修改
+package com.gameserver.protocol;
+
+/**
+ * 文本命令，内容与文本协议中的命令行相同（如 "/name 张三"）
+ */
+public final class CommandMessage implements ProtocolMessage {
+    public static final int OPCODE = 0x02;
+
+    private final String line;
+
+    public CommandMessage(String line) {
+        this.line = line;
+    }
+
+    /**
+     * 读取操作码之后的字段
+     * @param reader 读取器
+     * @return 消息
+     */
+    public static CommandMessage decode(ProtocolReader reader) {
+        return new CommandMessage(reader.readString());
+    }
+
+    public String getLine() {
+        return line;
+    }
+
+    @Override
+    public int opcode() {
+        return OPCODE;
+    }
+
+    @Override
+    public void encode(ProtocolWriter writer) {
+        writer.writeU8(OPCODE);
+        writer.writeString(line);
+    }
+}
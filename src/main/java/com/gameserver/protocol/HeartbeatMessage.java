@@ -0,0 +1,46 @@
+// 由 tools/ProtocolGenerator.java 根据 protocol/game.schema 生成，请勿手工修改
+package com.gameserver.protocol;
+
+/**
+ * 心跳（双向）；echo为0表示发起心跳，否则为回显的对方时间戳
+ */
+public final class HeartbeatMessage implements ProtocolMessage {
+    public static final int OPCODE = 0x03;
+
+    private final long sentAt;
+    private final long echo;
+
+    public HeartbeatMessage(long sentAt, long echo) {
+        this.sentAt = sentAt;
+        this.echo = echo;
+    }
+
+    /**
+     * 读取操作码之后的字段
+     * @param reader 读取器
+     * @return 消息
+     */
+    public static HeartbeatMessage decode(ProtocolReader reader) {
+        return new HeartbeatMessage(reader.readVarLong(), reader.readVarLong());
+    }
+
+    public long getSentAt() {
+        return sentAt;
+    }
+
+    public long getEcho() {
+        return echo;
+    }
+
+    @Override
+    public int opcode() {
+        return OPCODE;
+    }
+
+    @Override
+    public void encode(ProtocolWriter writer) {
+        writer.writeU8(OPCODE);
+        writer.writeVarLong(sentAt);
+        writer.writeVarLong(echo);
+    }
+}
@@ -0,0 +1,39 @@
+// 由 tools/ProtocolGenerator.java 根据 protocol/game.schema 生成，请勿手工修改
+package com.gameserver.protocol;
+
+/**
+ * 向指定方向移动一格，方向编码：0上 1下 2左 3右
+ */
+public final class MoveMessage implements ProtocolMessage {
+    public static final int OPCODE = 0x04;
+
+    private final int direction;
+
+    public MoveMessage(int direction) {
+        this.direction = direction;
+    }
+
+    /**
+     * 读取操作码之后的字段
+     * @param reader 读取器
+     * @return 消息
+     */
+    public static MoveMessage decode(ProtocolReader reader) {
+        return new MoveMessage(reader.readU8());
+    }
+
+    public int getDirection() {
+        return direction;
+    }
+
+    @Override
+    public int opcode() {
+        return OPCODE;
+    }
+
+    @Override
+    public void encode(ProtocolWriter writer) {
+        writer.writeU8(OPCODE);
+        writer.writeU8(direction);
+    }
+}
@@ -0,0 +1,46 @@
+// 由 tools/ProtocolGenerator.java 根据 protocol/game.schema 生成，请勿手工修改
+package com.gameserver.protocol;
+
+/**
+ * 移动到指定坐标，距离不能超过服务器的maxMoveDistance
+ */
+public final class MoveToMessage implements ProtocolMessage {
+    public static final int OPCODE = 0x05;
+
+    private final int x;
+    private final int y;
+
+    public MoveToMessage(int x, int y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * 读取操作码之后的字段
+     * @param reader 读取器
+     * @return 消息
+     */
+    public static MoveToMessage decode(ProtocolReader reader) {
+        return new MoveToMessage(reader.readVarInt(), reader.readVarInt());
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    @Override
+    public int opcode() {
+        return OPCODE;
+    }
+
+    @Override
+    public void encode(ProtocolWriter writer) {
+        writer.writeU8(OPCODE);
+        writer.writeVarInt(x);
+        writer.writeVarInt(y);
+    }
+}
@@ -0,0 +1,46 @@
+// 由 tools/ProtocolGenerator.java 根据 protocol/game.schema 生成，请勿手工修改
+package com.gameserver.protocol;
+
+/**
+ * 服务器发给玩家的消息
+ */
+public final class NoticeMessage implements ProtocolMessage {
+    public static final int OPCODE = 0x81;
+
+    private final String sender;
+    private final String text;
+
+    public NoticeMessage(String sender, String text) {
+        this.sender = sender;
+        this.text = text;
+    }
+
+    /**
+     * 读取操作码之后的字段
+     * @param reader 读取器
+     * @return 消息
+     */
+    public static NoticeMessage decode(ProtocolReader reader) {
+        return new NoticeMessage(reader.readString(), reader.readString());
+    }
+
+    public String getSender() {
+        return sender;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    @Override
+    public int opcode() {
+        return OPCODE;
+    }
+
+    @Override
+    public void encode(ProtocolWriter writer) {
+        writer.writeU8(OPCODE);
+        writer.writeString(sender);
+        writer.writeString(text);
+    }
+}
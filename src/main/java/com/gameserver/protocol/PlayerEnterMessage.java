@@ -0,0 +1,60 @@
+// 由 tools/ProtocolGenerator.java 根据 protocol/game.schema 生成，请勿手工修改
+package com.gameserver.protocol;
+
+/**
+ * 玩家进入视野（含初始位置）；name为玩家昵称，未设置时为令牌的8位16进制文本
+ */
+public final class PlayerEnterMessage implements ProtocolMessage {
+    public static final int OPCODE = 0x82;
+
+    private final int playerId;
+    private final String name;
+    private final int x;
+    private final int y;
+
+    public PlayerEnterMessage(int playerId, String name, int x, int y) {
+        this.playerId = playerId;
+        this.name = name;
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * 读取操作码之后的字段
+     * @param reader 读取器
+     * @return 消息
+     */
+    public static PlayerEnterMessage decode(ProtocolReader reader) {
+        return new PlayerEnterMessage(reader.readVarInt(), reader.readString(), reader.readVarInt(), reader.readVarInt());
+    }
+
+    public int getPlayerId() {
+        return playerId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    @Override
+    public int opcode() {
+        return OPCODE;
+    }
+
+    @Override
+    public void encode(ProtocolWriter writer) {
+        writer.writeU8(OPCODE);
+        writer.writeVarInt(playerId);
+        writer.writeString(name);
+        writer.writeVarInt(x);
+        writer.writeVarInt(y);
+    }
+}
@@ -0,0 +1,39 @@
+// 由 tools/ProtocolGenerator.java 根据 protocol/game.schema 生成，请勿手工修改
+package com.gameserver.protocol;
+
+/**
+ * 玩家离开视野或下线
+ */
+public final class PlayerLeaveMessage implements ProtocolMessage {
+    public static final int OPCODE = 0x84;
+
+    private final int playerId;
+
+    public PlayerLeaveMessage(int playerId) {
+        this.playerId = playerId;
+    }
+
+    /**
+     * 读取操作码之后的字段
+     * @param reader 读取器
+     * @return 消息
+     */
+    public static PlayerLeaveMessage decode(ProtocolReader reader) {
+        return new PlayerLeaveMessage(reader.readVarInt());
+    }
+
+    public int getPlayerId() {
+        return playerId;
+    }
+
+    @Override
+    public int opcode() {
+        return OPCODE;
+    }
+
+    @Override
+    public void encode(ProtocolWriter writer) {
+        writer.writeU8(OPCODE);
+        writer.writeVarInt(playerId);
+    }
+}
@@ -0,0 +1,53 @@
+// 由 tools/ProtocolGenerator.java 根据 protocol/game.schema 生成，请勿手工修改
+package com.gameserver.protocol;
+
+/**
+ * 视野内的玩家（包括自己）移动后的位置
+ */
+public final class PlayerMovedMessage implements ProtocolMessage {
+    public static final int OPCODE = 0x83;
+
+    private final int playerId;
+    private final int x;
+    private final int y;
+
+    public PlayerMovedMessage(int playerId, int x, int y) {
+        this.playerId = playerId;
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * 读取操作码之后的字段
+     * @param reader 读取器
+     * @return 消息
+     */
+    public static PlayerMovedMessage decode(ProtocolReader reader) {
+        return new PlayerMovedMessage(reader.readVarInt(), reader.readVarInt(), reader.readVarInt());
+    }
+
+    public int getPlayerId() {
+        return playerId;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    @Override
+    public int opcode() {
+        return OPCODE;
+    }
+
+    @Override
+    public void encode(ProtocolWriter writer) {
+        writer.writeU8(OPCODE);
+        writer.writeVarInt(playerId);
+        writer.writeVarInt(x);
+        writer.writeVarInt(y);
+    }
+}
@@ -0,0 +1,11 @@
+package com.gameserver.protocol;
+
+/**
+ * 二进制消息格式错误（截断、变长整数过长、未知操作码等）
+ */
+public class ProtocolException extends RuntimeException {
+
+    public ProtocolException(String message) {
+        super(message);
+    }
+}
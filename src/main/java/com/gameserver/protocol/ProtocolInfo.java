@@ -0,0 +1,15 @@
+// 由 tools/ProtocolGenerator.java 根据 protocol/game.schema 生成，请勿手工修改
+package com.gameserver.protocol;
+
+/**
+ * 二进制协议信息
+ */
+public final class ProtocolInfo {
+    /**
+     * 协议版本
+     */
+    public static final int VERSION = 1;
+
+    private ProtocolInfo() {
+    }
+}
@@ -0,0 +1,30 @@
+package com.gameserver.protocol;
+
+/**
+ * 二进制协议消息
+ * 具体消息类由 tools/ProtocolGenerator.java 根据 protocol/game.schema 生成
+ */
+public interface ProtocolMessage {
+
+    /**
+     * 获取消息的操作码
+     * @return 操作码（0-255）
+     */
+    int opcode();
+
+    /**
+     * 写入操作码和所有字段
+     * @param writer 写入器
+     */
+    void encode(ProtocolWriter writer);
+
+    /**
+     * 编码为独立的字节数组
+     * @return 编码结果（操作码 + 字段）
+     */
+    default byte[] toBytes() {
+        ProtocolWriter writer = new ProtocolWriter();
+        encode(writer);
+        return writer.toByteArray();
+    }
+}
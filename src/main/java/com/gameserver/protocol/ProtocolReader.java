@@ -0,0 +1,89 @@
+package com.gameserver.protocol;
+
+import com.gameserver.net.FrameText;
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * 二进制协议读取器
+ * 直接在接收到的帧上按顺序读取字段，字符串只在读取时解码
+ * 数据不完整或格式错误时抛出{@link ProtocolException}
+ */
+public final class ProtocolReader {
+    private final Buffer frame;
+    private final int end;
+    private int position;
+
+    /**
+     * 构造方法
+     * @param frame 消息帧
+     * @param start 起始位置（含）
+     * @param end 结束位置（不含）
+     */
+    public ProtocolReader(Buffer frame, int start, int end) {
+        this.frame = frame;
+        this.position = start;
+        this.end = end;
+    }
+
+    /**
+     * 读取1字节无符号整数
+     * @return 0-255
+     */
+    public int readU8() {
+        require(1);
+        return frame.getByte(position++) & 0xFF;
+    }
+
+    /**
+     * 读取变长整数
+     * @return 整数
+     */
+    public int readVarInt() {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = readU8();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new ProtocolException("变长整数超过5字节");
+    }
+
+    /**
+     * 读取变长长整数
+     * @return 长整数
+     */
+    public long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            int b = readU8();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new ProtocolException("变长长整数超过10字节");
+    }
+
+    /**
+     * 读取字符串
+     * @return 字符串
+     */
+    public String readString() {
+        int length = readVarInt();
+        if (length < 0) {
+            throw new ProtocolException("字符串长度不合法: " + length);
+        }
+        require(length);
+        String value = FrameText.decode(frame, position, position + length);
+        position += length;
+        return value;
+    }
+
+    private void require(int bytes) {
+        if (end - position < bytes) {
+            throw new ProtocolException("消息被截断");
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.gameserver.protocol;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 二进制协议写入器
+ * 变长整数使用无符号LEB128编码，字符串为varint字节长度 + UTF-8内容
+ */
+public final class ProtocolWriter {
+    private byte[] buffer;
+    private int length;
+
+    public ProtocolWriter() {
+        this(32);
+    }
+
+    /**
+     * 构造方法
+     * @param initialCapacity 初始容量（字节）
+     */
+    public ProtocolWriter(int initialCapacity) {
+        this.buffer = new byte[initialCapacity];
+    }
+
+    /**
+     * 写入1字节无符号整数
+     * @param value 0-255
+     */
+    public void writeU8(int value) {
+        ensureCapacity(1);
+        buffer[length++] = (byte) value;
+    }
+
+    /**
+     * 写入变长整数，按无符号处理（最多5字节）
+     * @param value 整数
+     */
+    public void writeVarInt(int value) {
+        ensureCapacity(5);
+        while ((value & ~0x7F) != 0) {
+            buffer[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[length++] = (byte) value;
+    }
+
+    /**
+     * 写入变长长整数，按无符号处理（最多10字节）
+     * @param value 长整数
+     */
+    public void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[length++] = (byte) value;
+    }
+
+    /**
+     * 写入字符串，null按空字符串处理
+     * @param value 字符串
+     */
+    public void writeString(String value) {
+        byte[] bytes = value != null ? value.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        writeVarInt(bytes.length);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, length, bytes.length);
+        length += bytes.length;
+    }
+
+    /**
+     * 获取已写入的字节数
+     * @return 字节数
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * 复制出已写入的内容
+     * @return 字节数组
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, length);
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.gameserver.room;
+
+import com.gameserver.Player;
+import io.vertx.core.eventbus.MessageConsumer;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 房间（大厅、对局、公会频道等）
+ * 同名房间的成员可能分布在多个实例上，每个实例只保存自己的成员，
+ * 房间消息通过事件总线发布到房间地址，只有有成员的实例订阅该地址。
+ */
+public class Room {
+    private final String name;
+    private final String address;
+    private final Set<Player> members = new LinkedHashSet<>();
+    private MessageConsumer<?> consumer;   // 本实例有成员时订阅房间地址
+    private String host;                   // 托管房间的RoomVerticle地址，没有部署时为null
+
+    Room(String name) {
+        this.name = name;
+        this.address = RoomManager.ADDRESS_PREFIX + name;
+    }
+
+    /**
+     * 获取房间名
+     * @return 房间名（小写）
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 获取房间的事件总线地址
+     * @return 事件总线地址
+     */
+    public String getAddress() {
+        return address;
+    }
+
+    /**
+     * 获取本实例上的成员
+     * @return 只读的成员集合
+     */
+    public Collection<Player> members() {
+        return Collections.unmodifiableSet(members);
+    }
+
+    /**
+     * 获取本实例上的成员数
+     * @return 成员数
+     */
+    public int size() {
+        return members.size();
+    }
+
+    boolean add(Player player) {
+        return members.add(player);
+    }
+
+    boolean remove(Player player) {
+        return members.remove(player);
+    }
+
+    /**
+     * 获取托管房间的RoomVerticle地址
+     * @return 事件总线地址，房间逻辑在本实例处理时返回null
+     */
+    public String getHost() {
+        return host;
+    }
+
+    void setHost(String host) {
+        this.host = host;
+    }
+
+    MessageConsumer<?> getConsumer() {
+        return consumer;
+    }
+
+    void setConsumer(MessageConsumer<?> consumer) {
+        this.consumer = consumer;
+    }
+}
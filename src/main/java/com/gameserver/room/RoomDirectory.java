@@ -0,0 +1,115 @@
+package com.gameserver.room;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.shareddata.LocalMap;
+
+/**
+ * 房间目录
+ * 记录所有房间Verticle的地址和负载（房间总人数），以及每个房间由哪个房间Verticle托管。
+ * 新房间放到负载最低的房间Verticle上，之后同名房间的所有请求都发往该Verticle，直到房间变空。
+ * 数据保存在Vert.x的共享LocalMap中，所有实例都可以并发访问。
+ */
+public class RoomDirectory {
+    private static final String HOSTS_MAP = "game.roomhosts";
+    private static final String PLACEMENT_MAP = "game.roomplacement";
+
+    private final LocalMap<String, Integer> hosts;        // 房间Verticle地址 -> 负载
+    private final LocalMap<String, String> placements;    // 房间名 -> 房间Verticle地址
+
+    /**
+     * 构造方法
+     * @param vertx Vert.x实例，同一Vert.x实例上的所有目录共享数据
+     */
+    public RoomDirectory(Vertx vertx) {
+        this.hosts = vertx.sharedData().getLocalMap(HOSTS_MAP);
+        this.placements = vertx.sharedData().getLocalMap(PLACEMENT_MAP);
+    }
+
+    /**
+     * 登记房间Verticle
+     * @param address 房间Verticle的事件总线地址
+     */
+    public void registerHost(String address) {
+        hosts.put(address, 0);
+    }
+
+    /**
+     * 注销房间Verticle，它托管的房间之后会重新放置
+     * @param address 房间Verticle的事件总线地址
+     */
+    public void unregisterHost(String address) {
+        hosts.remove(address);
+    }
+
+    /**
+     * 更新房间Verticle的负载，只由该Verticle自己调用
+     * @param address 房间Verticle的事件总线地址
+     * @param load 托管的房间总人数
+     */
+    public void reportLoad(String address, int load) {
+        if (hosts.get(address) != null) {
+            hosts.put(address, load);
+        }
+    }
+
+    /**
+     * 查找托管房间的房间Verticle，房间还没有放置时选择负载最低的一个
+     * 选择结果只是建议，由房间Verticle通过{@link #claim}确认
+     * @param room 房间名
+     * @return 房间Verticle的地址，没有可用的房间Verticle时返回null
+     */
+    public String locate(String room) {
+        String owner = owner(room);
+        if (owner != null) {
+            return owner;
+        }
+        String best = null;
+        int bestLoad = Integer.MAX_VALUE;
+        for (String host : hosts.keySet()) {
+            Integer load = hosts.get(host);
+            if (load != null && load < bestLoad) {
+                best = host;
+                bestLoad = load;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 查找当前托管房间的房间Verticle
+     * @param room 房间名
+     * @return 房间Verticle的地址，房间未放置或原托管者已注销时返回null
+     */
+    public String owner(String room) {
+        String owner = placements.get(room);
+        if (owner != null && hosts.get(owner) == null) {
+            placements.remove(room, owner);
+            return null;
+        }
+        return owner;
+    }
+
+    /**
+     * 尝试由指定的房间Verticle托管房间
+     * @param room 房间名
+     * @param address 房间Verticle的地址
+     * @return 实际托管房间的房间Verticle地址，与address不同时说明已被其他Verticle托管
+     */
+    public String claim(String room, String address) {
+        String owner = owner(room);
+        if (owner != null) {
+            return owner;
+        }
+        String existing = placements.putIfAbsent(room, address);
+        return existing != null ? existing : address;
+    }
+
+    /**
+     * 房间变空后释放托管
+     * @param room 房间名
+     * @param address 房间Verticle的地址
+     */
+    public void release(String room, String address) {
+        placements.remove(room, address);
+    }
+}
@@ -0,0 +1,221 @@
+package com.gameserver.room;
+
+import com.gameserver.MessageSender;
+import com.gameserver.Player;
+import com.gameserver.net.DeliveryPolicy;
+import com.gameserver.net.OutboundMessage;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.json.JsonObject;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 房间管理
+ * 每个GameServerVerticle实例一个，只在该实例的事件循环上使用。每个玩家同一时间只在一个房间中，
+ * 上线时进入大厅。
+ *
+ * 房间逻辑由{@link RoomVerticle}托管，这里只做两件事：把玩家的房间请求经事件总线发给托管房间的实例，
+ * 以及订阅本实例成员所在房间的地址，把房间发布的消息写给本实例上的成员。
+ * 房间消息只编码一次，写入次数等于房间人数而不是全服人数。
+ * 没有部署房间Verticle时在本实例上直接处理房间请求。
+ */
+public class RoomManager {
+    // 默认房间
+    public static final String LOBBY = "lobby";
+    // 房间地址前缀，后接房间名
+    public static final String ADDRESS_PREFIX = "game.room.";
+    // 房间消息中不需要接收的玩家ID
+    private static final String EXCLUDE_HEADER = "exclude";
+
+    private final Vertx vertx;
+    private final RoomDirectory directory;
+    private final MessageSender sender;
+    private final Map<String, Room> rooms = new HashMap<>();
+
+    /**
+     * 构造方法
+     * @param vertx Vert.x实例
+     * @param directory 房间目录
+     * @param sender 消息发送方式
+     */
+    public RoomManager(Vertx vertx, RoomDirectory directory, MessageSender sender) {
+        this.vertx = vertx;
+        this.directory = directory;
+        this.sender = sender;
+    }
+
+    /**
+     * 规范化房间名，房间名不区分大小写
+     * @param name 房间名
+     * @return 小写的房间名
+     */
+    public static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 创建玩家进入房间的通知
+     * @param name 玩家名字
+     * @return 待发送的消息
+     */
+    public static OutboundMessage joinNotice(String name) {
+        return OutboundMessage.text("系统", name + " 进入了房间");
+    }
+
+    /**
+     * 创建玩家离开房间的通知
+     * @param name 玩家名字
+     * @return 待发送的消息
+     */
+    public static OutboundMessage leaveNotice(String name) {
+        return OutboundMessage.text("系统", name + " 离开了房间");
+    }
+
+    /**
+     * 创建玩家改名的通知
+     * @param oldName 原来的名字
+     * @param newName 新名字
+     * @return 待发送的消息
+     */
+    public static OutboundMessage renameNotice(String oldName, String newName) {
+        return OutboundMessage.text("系统", oldName + " 更名为 " + newName);
+    }
+
+    /**
+     * 创建排除指定玩家的房间消息投递选项
+     * @param playerId 排除的玩家会话ID
+     * @return 投递选项
+     */
+    public static DeliveryOptions excluding(int playerId) {
+        return new DeliveryOptions().addHeader(EXCLUDE_HEADER, Integer.toString(playerId));
+    }
+
+    /**
+     * 让玩家进入房间，先离开当前房间
+     * @param player 玩家
+     * @param name 房间名
+     * @param announce 是否通知房间的其他成员
+     * @return 进入的房间
+     */
+    public Room join(Player player, String name, boolean announce) {
+        leave(player, announce);
+        Room room = rooms.computeIfAbsent(normalize(name), Room::new);
+        if (room.add(player) && room.getConsumer() == null) {
+            room.setConsumer(vertx.eventBus().<OutboundMessage>localConsumer(room.getAddress(),
+                    message -> deliver(room, message)));
+        }
+        player.setRoom(room);
+
+        // 同一实例上的成员都把请求发往第一次查到的托管者，保证请求按发送顺序到达
+        if (room.getHost() == null) {
+            room.setHost(directory.locate(room.getName()));
+        }
+        String host = room.getHost();
+        if (host != null) {
+            vertx.eventBus().send(host, request(RoomVerticle.OP_JOIN, room, player).put("announce", announce));
+        } else if (announce) {
+            publish(room, joinNotice(player.getDisplayName()), player.getId());
+        }
+        return room;
+    }
+
+    /**
+     * 让玩家离开当前房间，本实例上没有成员的房间被移除并取消订阅
+     * @param player 玩家
+     * @param announce 是否通知房间的其他成员
+     * @return 离开的房间，玩家不在房间中时返回null
+     */
+    public Room leave(Player player, boolean announce) {
+        Room room = player.getRoom();
+        if (room == null) {
+            return null;
+        }
+        player.setRoom(null);
+        room.remove(player);
+
+        String host = room.getHost();
+        if (host != null) {
+            vertx.eventBus().send(host, request(RoomVerticle.OP_LEAVE, room, player).put("announce", announce));
+        } else if (announce) {
+            publish(room, leaveNotice(player.getDisplayName()), 0);
+        }
+
+        if (room.size() == 0) {
+            rooms.remove(room.getName());
+            if (room.getConsumer() != null) {
+                room.getConsumer().unregister();
+                room.setConsumer(null);
+            }
+        }
+        return room;
+    }
+
+    /**
+     * 把玩家的聊天消息发给所在房间的所有成员
+     * @param player 玩家
+     * @param text 聊天内容
+     * @return 玩家在房间中时返回true
+     */
+    public boolean chat(Player player, String text) {
+        Room room = player.getRoom();
+        if (room == null) {
+            return false;
+        }
+        String host = room.getHost();
+        if (host != null) {
+            vertx.eventBus().send(host, request(RoomVerticle.OP_CHAT, room, player).put("text", text));
+        } else {
+            publish(room, OutboundMessage.text(player.getDisplayName(), text), 0);
+        }
+        return true;
+    }
+
+    /**
+     * 通知所在房间的其他成员玩家改了名，玩家已经设置了新名字
+     * @param player 玩家
+     * @param oldName 原来的名字
+     */
+    public void rename(Player player, String oldName) {
+        Room room = player.getRoom();
+        if (room == null) {
+            return;
+        }
+        String host = room.getHost();
+        if (host != null) {
+            vertx.eventBus().send(host, request(RoomVerticle.OP_RENAME, room, player).put("oldName", oldName));
+        } else {
+            publish(room, renameNotice(oldName, player.getDisplayName()), player.getId());
+        }
+    }
+
+    private JsonObject request(String op, Room room, Player player) {
+        return new JsonObject()
+                .put("op", op)
+                .put("room", room.getName())
+                .put("playerId", player.getId())
+                .put("name", player.getDisplayName());
+    }
+
+    private void publish(Room room, OutboundMessage message, int excludePlayerId) {
+        if (excludePlayerId == 0) {
+            vertx.eventBus().publish(room.getAddress(), message);
+        } else {
+            vertx.eventBus().publish(room.getAddress(), message, excluding(excludePlayerId));
+        }
+    }
+
+    private void deliver(Room room, Message<OutboundMessage> published) {
+        OutboundMessage message = published.body();
+        String exclude = published.headers().get(EXCLUDE_HEADER);
+        int excludePlayerId = exclude != null ? Integer.parseInt(exclude) : 0;
+        for (Player member : room.members()) {
+            if (member.getId() != excludePlayerId) {
+                sender.send(member, message, DeliveryPolicy.NEVER_DROP);
+            }
+        }
+    }
+}
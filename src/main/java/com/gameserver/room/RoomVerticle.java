@@ -0,0 +1,145 @@
+package com.gameserver.room;
+
+import com.gameserver.net.OutboundMessage;
+import com.gameserver.net.OutboundMessageCodec;
+import io.netty.util.collection.IntObjectHashMap;
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.json.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 房间Verticle
+ * 托管一部分房间的逻辑（成员、进出通知、聊天），多个实例分布在不同的事件循环上，
+ * 繁忙的房间只占用托管它的事件循环，不会拖慢其他房间和玩家连接。
+ *
+ * 玩家连接所在的GameServerVerticle通过事件总线把房间请求发给托管房间的实例，
+ * 房间产生的消息在这里编码一次，发布到房间地址，再由各GameServerVerticle写给本实例上的成员。
+ * 房间数据只在本Verticle的事件循环线程中访问。
+ */
+public class RoomVerticle extends AbstractVerticle {
+    private static final Logger logger = LoggerFactory.getLogger(RoomVerticle.class);
+
+    // 房间请求的操作类型
+    public static final String OP_JOIN = "join";
+    public static final String OP_LEAVE = "leave";
+    public static final String OP_CHAT = "chat";
+    public static final String OP_RENAME = "rename";
+
+    private static final AtomicInteger NEXT_HOST_ID = new AtomicInteger();
+
+    private final Map<String, IntObjectHashMap<String>> rooms = new HashMap<>();   // 房间名 -> 成员会话ID -> 名字
+    private String address;
+    private RoomDirectory directory;
+    private int load;
+
+    @Override
+    public void start() {
+        address = "game.roomhost." + NEXT_HOST_ID.getAndIncrement();
+        directory = new RoomDirectory(vertx);
+        OutboundMessageCodec.register(vertx.eventBus());
+        vertx.eventBus().<JsonObject>localConsumer(address, this::handleRequest);
+        directory.registerHost(address);
+        logger.info("房间Verticle已启动，地址: {}", address);
+    }
+
+    @Override
+    public void stop() {
+        directory.unregisterHost(address);
+        for (String room : rooms.keySet()) {
+            directory.release(room, address);
+        }
+    }
+
+    /**
+     * 处理房间请求
+     * 消息体包含op、room、playerId，进出房间时包含announce和name，聊天时包含name和text，改名时包含name和oldName
+     * @param request 房间请求
+     */
+    private void handleRequest(Message<JsonObject> request) {
+        JsonObject body = request.body();
+        String room = body.getString("room");
+        String op = body.getString("op");
+
+        // 房间由其他实例托管时转发过去（放置与托管之间存在竞争，或房间刚被重新放置）
+        String owner = OP_JOIN.equals(op) ? directory.claim(room, address) : directory.owner(room);
+        if (owner != null && !owner.equals(address)) {
+            vertx.eventBus().send(owner, body);
+            return;
+        }
+
+        switch (op) {
+            case OP_JOIN:
+                join(room, body);
+                break;
+
+            case OP_LEAVE:
+                leave(room, body);
+                break;
+
+            case OP_CHAT:
+                IntObjectHashMap<String> members = rooms.get(room);
+                if (members != null && members.containsKey(body.getInteger("playerId"))) {
+                    publish(room, OutboundMessage.text(body.getString("name"), body.getString("text")), 0);
+                }
+                break;
+
+            case OP_RENAME:
+                rename(room, body);
+                break;
+
+            default:
+                logger.warn("未知的房间请求: {}", op);
+                break;
+        }
+    }
+
+    private void join(String room, JsonObject body) {
+        int playerId = body.getInteger("playerId");
+        if (rooms.computeIfAbsent(room, r -> new IntObjectHashMap<>()).put(playerId, body.getString("name")) == null) {
+            load++;
+            directory.reportLoad(address, load);
+        }
+        if (body.getBoolean("announce", false)) {
+            publish(room, RoomManager.joinNotice(body.getString("name")), playerId);
+        }
+    }
+
+    private void leave(String room, JsonObject body) {
+        IntObjectHashMap<String> members = rooms.get(room);
+        if (members == null || members.remove(body.getInteger("playerId")) == null) {
+            return;
+        }
+        load--;
+        directory.reportLoad(address, load);
+        if (members.isEmpty()) {
+            rooms.remove(room);
+            directory.release(room, address);
+        } else if (body.getBoolean("announce", false)) {
+            publish(room, RoomManager.leaveNotice(body.getString("name")), 0);
+        }
+    }
+
+    private void rename(String room, JsonObject body) {
+        IntObjectHashMap<String> members = rooms.get(room);
+        int playerId = body.getInteger("playerId");
+        if (members != null && members.containsKey(playerId)) {
+            members.put(playerId, body.getString("name"));
+            publish(room, RoomManager.renameNotice(body.getString("oldName"), body.getString("name")), playerId);
+        }
+    }
+
+    private void publish(String room, OutboundMessage message, int excludePlayerId) {
+        String roomAddress = RoomManager.ADDRESS_PREFIX + room;
+        if (excludePlayerId == 0) {
+            vertx.eventBus().publish(roomAddress, message);
+        } else {
+            vertx.eventBus().publish(roomAddress, message, RoomManager.excluding(excludePlayerId));
+        }
+    }
+}
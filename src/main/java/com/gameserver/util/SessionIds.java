@@ -0,0 +1,103 @@
+package com.gameserver.util;
+
+import java.security.SecureRandom;
+
+/**
+ * 会话ID分配器
+ * 会话ID是int：高 {@value #SHARD_BITS} 位为分片编号，低 {@value #SLOT_BITS} 位为分片内的序号，
+ * 不同分片分配的ID不会重复，分配时不需要同步，也不需要SecureRandom。
+ * 释放的ID先进入先进先出的回收队列，队列超过 {@value #REUSE_DELAY} 个后才重新分配，
+ * 让事件总线上还在传递的旧ID（如广播的排除ID）有足够的时间过期。ID永远不为0。
+ *
+ * 客户端看到的是不透明的令牌：会话ID经过一次可逆的混淆（乘以奇数再异或进程级随机密钥），
+ * 连续分配的ID对外不连续，无法据此推测其他玩家的ID或在线人数。
+ *
+ * 每个分片一个实例，只在分片所属的事件循环上使用。
+ */
+public final class SessionIds {
+    private static final int SHARD_BITS = 8;
+    private static final int SLOT_BITS = Integer.SIZE - SHARD_BITS;
+    private static final int MAX_SLOT = (1 << SLOT_BITS) - 1;
+    public static final int MAX_SHARDS = 1 << SHARD_BITS;
+    private static final int REUSE_DELAY = 1024;
+
+    // 令牌混淆：乘以奇数常量在模2^32下可逆，再异或进程启动时生成的密钥
+    private static final int MULTIPLIER = 0x9E3779B1;
+    private static final int SECRET = new SecureRandom().nextInt();
+
+    private final int shardPrefix;
+    private int nextSlot = 1;
+    private int[] released = new int[64];
+    private int releasedHead;
+    private int releasedCount;
+
+    /**
+     * 构造方法
+     * @param shard 分片编号，范围 [0, {@value #MAX_SHARDS})
+     */
+    public SessionIds(int shard) {
+        if (shard < 0 || shard >= MAX_SHARDS) {
+            throw new IllegalArgumentException("分片编号超出范围: " + shard);
+        }
+        this.shardPrefix = shard << SLOT_BITS;
+    }
+
+    /**
+     * 分配会话ID
+     * @return 会话ID，不为0
+     * @throws IllegalStateException 分片内的ID全部在使用中时抛出
+     */
+    public int allocate() {
+        if (releasedCount > REUSE_DELAY || (nextSlot > MAX_SLOT && releasedCount > 0)) {
+            int id = released[releasedHead];
+            releasedHead = (releasedHead + 1) % released.length;
+            releasedCount--;
+            return id;
+        }
+        if (nextSlot > MAX_SLOT) {
+            throw new IllegalStateException("会话ID已耗尽");
+        }
+        return shardPrefix | nextSlot++;
+    }
+
+    /**
+     * 释放会话ID，稍后重新分配
+     * @param id 会话ID
+     */
+    public void release(int id) {
+        if (releasedCount == released.length) {
+            // 按队列顺序展开到新数组
+            int[] grown = new int[released.length * 2];
+            int tail = released.length - releasedHead;
+            System.arraycopy(released, releasedHead, grown, 0, tail);
+            System.arraycopy(released, 0, grown, tail, releasedHead);
+            released = grown;
+            releasedHead = 0;
+        }
+        released[(releasedHead + releasedCount) % released.length] = id;
+        releasedCount++;
+    }
+
+    /**
+     * 把会话ID转换为对外的令牌
+     * @param id 会话ID
+     * @return 令牌
+     */
+    public static int token(int id) {
+        return (id * MULTIPLIER) ^ SECRET;
+    }
+
+    /**
+     * 把令牌格式化为文本协议和HTTP接口中使用的8位16进制字符串
+     * @param token 令牌
+     * @return 16进制字符串
+     */
+    public static String format(int token) {
+        char[] chars = new char[8];
+        for (int i = 7; i >= 0; i--) {
+            chars[i] = Character.forDigit(token & 0xF, 16);
+            token >>>= 4;
+        }
+        return new String(chars);
+    }
+}
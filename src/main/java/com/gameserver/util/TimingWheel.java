@@ -0,0 +1,147 @@
+package com.gameserver.util;
+
+import io.vertx.core.Handler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 哈希时间轮
+ * 把定时任务按到期tick散列到环形的槽中，每次推进只处理当前槽里的任务，
+ * 因此推进的开销与到期（以及同槽未到期）的任务数成正比，而不是与任务总数成正比。
+ * 增加、取消、重新调度都是O(1)。
+ *
+ * 不是线程安全的，只能在单个事件循环线程中使用。
+ * @param <T> 任务携带的对象
+ */
+public final class TimingWheel<T> {
+    private final long tickMs;
+    private final long startMs;
+    private final int mask;
+    private final Timeout<T>[] buckets;
+    private final Handler<T> expiryHandler;
+    private final List<Timeout<T>> expired = new ArrayList<>();
+    private long currentTick;   // 已经处理完的tick序号
+
+    /**
+     * 构造方法
+     * @param tickMs 每个tick的时长（毫秒），即到期时间的精度
+     * @param wheelSize 槽数，会向上取整为2的幂
+     * @param nowMs 当前时间（毫秒）
+     * @param expiryHandler 任务到期时的处理器
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMs, int wheelSize, long nowMs, Handler<T> expiryHandler) {
+        int size = Integer.highestOneBit(Math.max(wheelSize, 2) - 1) << 1;
+        this.tickMs = tickMs;
+        this.startMs = nowMs;
+        this.mask = size - 1;
+        this.buckets = new Timeout[size];
+        this.expiryHandler = expiryHandler;
+    }
+
+    /**
+     * 添加定时任务
+     * @param item 任务携带的对象
+     * @param deadlineMs 到期时间（毫秒）
+     * @return 定时任务，可用于取消或重新调度
+     */
+    public Timeout<T> schedule(T item, long deadlineMs) {
+        Timeout<T> timeout = new Timeout<>(item);
+        link(timeout, deadlineMs);
+        return timeout;
+    }
+
+    /**
+     * 重新调度定时任务（任务可以已经到期或被取消）
+     * @param timeout 定时任务
+     * @param deadlineMs 新的到期时间（毫秒）
+     */
+    public void reschedule(Timeout<T> timeout, long deadlineMs) {
+        unlink(timeout);
+        link(timeout, deadlineMs);
+    }
+
+    /**
+     * 取消定时任务
+     * @param timeout 定时任务
+     */
+    public void cancel(Timeout<T> timeout) {
+        unlink(timeout);
+    }
+
+    /**
+     * 推进时间轮到当前时间，依次触发到期的任务
+     * @param nowMs 当前时间（毫秒）
+     */
+    public void advance(long nowMs) {
+        long targetTick = (nowMs - startMs) / tickMs;
+        while (currentTick < targetTick) {
+            currentTick++;
+            Timeout<T> timeout = buckets[(int) (currentTick & mask)];
+            while (timeout != null) {
+                Timeout<T> next = timeout.next;
+                if (timeout.deadlineTick <= currentTick) {
+                    unlink(timeout);
+                    expired.add(timeout);
+                }
+                timeout = next;
+            }
+
+            // 遍历结束后再回调，回调中可以安全地增删任务
+            for (int i = 0; i < expired.size(); i++) {
+                expiryHandler.handle(expired.get(i).item);
+            }
+            expired.clear();
+        }
+    }
+
+    private void link(Timeout<T> timeout, long deadlineMs) {
+        long deadlineTick = (deadlineMs - startMs + tickMs - 1) / tickMs;
+        if (deadlineTick <= currentTick) {
+            deadlineTick = currentTick + 1;
+        }
+        int index = (int) (deadlineTick & mask);
+        timeout.deadlineTick = deadlineTick;
+        timeout.bucket = index;
+        timeout.prev = null;
+        timeout.next = buckets[index];
+        if (buckets[index] != null) {
+            buckets[index].prev = timeout;
+        }
+        buckets[index] = timeout;
+    }
+
+    private void unlink(Timeout<T> timeout) {
+        if (timeout.bucket < 0) {
+            return;
+        }
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            buckets[timeout.bucket] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.bucket = -1;
+    }
+
+    /**
+     * 定时任务
+     * @param <T> 任务携带的对象
+     */
+    public static final class Timeout<T> {
+        private final T item;
+        private long deadlineTick;
+        private int bucket = -1;   // 所在的槽，未调度时为-1
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(T item) {
+            this.item = item;
+        }
+    }
+}
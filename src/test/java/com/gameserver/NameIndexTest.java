@@ -0,0 +1,121 @@
+package com.gameserver;
+
+import io.vertx.core.Vertx;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * NameIndex的唯一登记和并发认领、释放测试
+ */
+public class NameIndexTest {
+    private static final int THREADS = 8;
+
+    private Vertx vertx;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        vertx = Vertx.vertx();
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        vertx.close();
+    }
+
+    @Test
+    public void onlyOwnerCanReleaseName() {
+        NameIndex index = new NameIndex(vertx);
+
+        assertTrue(index.claim("Alice", "shard.0", 1));
+        // 同一玩家重复登记成功，其他玩家不区分大小写地冲突
+        assertTrue(index.claim("alice", "shard.0", 1));
+        assertFalse(index.claim("ALICE", "shard.1", 1));
+        assertFalse(index.claim("alice", "shard.0", 2));
+
+        index.release("Alice", "shard.0", 2);
+        assertEquals(1, index.lookup("aLiCe").getPlayerId());
+
+        index.release("Alice", "shard.0", 1);
+        assertNull(index.lookup("alice"));
+        assertTrue(index.claim("alice", "shard.1", 2));
+    }
+
+    @Test
+    public void concurrentClaimsHaveExactlyOneWinner() throws Exception {
+        // 每个线程使用独立的索引实例，与各个分片的用法一致
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            int playerId = i + 1;
+            NameIndex index = new NameIndex(vertx);
+            String name = playerId % 2 == 0 ? "Bob" : "bob";
+            results.add(executor.submit(() -> {
+                start.await();
+                return index.claim(name, "shard." + playerId, playerId);
+            }));
+        }
+        start.countDown();
+
+        int winners = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get(10, TimeUnit.SECONDS)) {
+                winners++;
+            }
+        }
+        assertEquals(1, winners);
+    }
+
+    @Test
+    public void concurrentClaimAndReleaseNeverShareName() throws Exception {
+        AtomicInteger holders = new AtomicInteger();
+        AtomicInteger violations = new AtomicInteger();
+        AtomicInteger claims = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Void>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            int playerId = i + 1;
+            NameIndex index = new NameIndex(vertx);
+            results.add(executor.submit((Callable<Void>) () -> {
+                start.await();
+                for (int round = 0; round < 2000; round++) {
+                    if (index.claim("Carol", "shard.0", playerId)) {
+                        claims.incrementAndGet();
+                        if (holders.incrementAndGet() != 1) {
+                            violations.incrementAndGet();
+                        }
+                        holders.decrementAndGet();
+                        index.release("Carol", "shard.0", playerId);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+
+        for (Future<Void> result : results) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+        assertEquals(0, violations.get());
+        assertTrue(claims.get() > 0);
+        assertNull(new NameIndex(vertx).lookup("carol"));
+    }
+}
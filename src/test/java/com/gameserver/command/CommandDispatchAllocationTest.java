@@ -0,0 +1,93 @@
+package com.gameserver.command;
+
+import com.gameserver.limit.TrafficClass;
+import com.gameserver.net.FrameText;
+import io.vertx.core.buffer.Buffer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * 命令解析和分发的内存分配测试
+ * 按MessageHandler.handleMessage的方式在帧解码器交出的slice上去除空白并分发，
+ * 用ThreadMXBean统计当前线程分配的字节数。处理器本身（回复、事件总线消息）的分配不在统计范围内。
+ */
+public class CommandDispatchAllocationTest {
+    private static final int WARMUP = 50_000;
+    private static final int ITERATIONS = 100_000;
+
+    private com.sun.management.ThreadMXBean threads;
+    private CommandRegistry registry;
+    private int handled;
+    private int argsLength;
+
+    @Before
+    public void setUp() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        registry = new CommandRegistry((player, text) -> {
+        }, (player, trafficClass) -> true)
+                .register("/say", "/say <消息>", null, TrafficClass.CHAT, (player, args) -> argsLength += args.length())
+                .register("/list", "/list", (player, args) -> handled++)
+                .register("/where", "/where", (player, args) -> handled++);
+    }
+
+    @Test
+    public void commandWithoutArgumentsAllocatesNothing() {
+        Buffer frame = slice("/who\n  /LIST \r\n/say hi\n", 5, 14);
+
+        long allocated = measure(frame);
+
+        assertEquals(WARMUP + ITERATIONS, handled);
+        assertTrue("每条命令平均分配了 " + (double) allocated / ITERATIONS + " 字节", allocated < ITERATIONS);
+    }
+
+    @Test
+    public void commandWithArgumentsAllocatesOnlyTheArguments() {
+        Buffer frame = slice("/list\n/say hello world\n", 6, 22);
+
+        long allocated = measure(frame);
+
+        assertEquals((long) (WARMUP + ITERATIONS) * "hello world".length(), argsLength);
+        // 只解码参数：参数的String加上Netty解码时的少量临时对象，没有整帧的String和split出的数组
+        assertTrue("每条命令平均分配了 " + (double) allocated / ITERATIONS + " 字节", allocated < 512L * ITERATIONS);
+    }
+
+    private long measure(Buffer frame) {
+        for (int i = 0; i < WARMUP; i++) {
+            dispatch(frame);
+        }
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < ITERATIONS; i++) {
+            dispatch(frame);
+        }
+        return threads.getThreadAllocatedBytes(thread) - before;
+    }
+
+    /**
+     * 与MessageHandler.handleMessage中命令的处理相同
+     */
+    private void dispatch(Buffer frame) {
+        int start = FrameText.trimStart(frame);
+        int end = FrameText.trimEnd(frame, start);
+        if (start < end && frame.getByte(start) == '/') {
+            registry.dispatch(null, frame, start, end);
+        }
+    }
+
+    /**
+     * 帧解码器交给处理器的是接收缓冲区的slice，不是独立的Buffer
+     */
+    private static Buffer slice(String received, int start, int end) {
+        return Buffer.buffer(received).slice(start, end);
+    }
+}
@@ -0,0 +1,87 @@
+package com.gameserver.command;
+
+import com.gameserver.limit.TrafficClass;
+import io.vertx.core.buffer.Buffer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * CommandRegistry的分发和限流类别测试
+ */
+public class CommandRegistryTest {
+    private final List<TrafficClass> charged = new ArrayList<>();
+    private final List<String> handled = new ArrayList<>();
+    private boolean allowed;
+    private CommandRegistry registry;
+
+    @Before
+    public void setUp() {
+        allowed = true;
+        registry = new CommandRegistry((player, text) -> handled.add("reply:" + text), (player, trafficClass) -> {
+            charged.add(trafficClass);
+            return allowed;
+        })
+                .register("/say", "/say <消息>", null, TrafficClass.CHAT, (player, args) -> handled.add("say:" + args))
+                .register("/whisper", "/whisper 昵称 消息", null, TrafficClass.CHAT, (player, args) -> handled.add("whisper:" + args))
+                .register("/move", "/move 方向", null, TrafficClass.MOVEMENT, (player, args) -> handled.add("move:" + args))
+                .register("/list", "/list", (player, args) -> handled.add("list"))
+                .registerOpcode(0x03, TrafficClass.MOVEMENT, (player, reader) -> handled.add("opcode:" + reader.readU8()));
+    }
+
+    @Test
+    public void mixedCaseCommandsAreChargedToTheirRegisteredClass() {
+        assertTrue(dispatch("/SAY hello"));
+        assertTrue(dispatch("/Whisper bob hi"));
+        assertTrue(dispatch("/mOvE up"));
+        assertTrue(dispatch("/LIST"));
+
+        assertEquals(listOf(TrafficClass.CHAT, TrafficClass.CHAT, TrafficClass.MOVEMENT, TrafficClass.COMMAND), charged);
+        assertEquals(listOf("say:hello", "whisper:bob hi", "move:up", "list"), handled);
+    }
+
+    @Test
+    public void rateLimitedCommandIsDroppedWithoutRunningHandler() {
+        allowed = false;
+
+        assertTrue(dispatch("/Say spam"));
+        assertEquals(listOf(TrafficClass.CHAT), charged);
+        assertTrue(handled.isEmpty());
+    }
+
+    @Test
+    public void commandPrefixDoesNotMatchLongerName() {
+        assertFalse(dispatch("/sayx hello"));
+        assertFalse(dispatch("/movement up"));
+        assertTrue(charged.isEmpty());
+    }
+
+    @Test
+    public void opcodesAreChargedAndDispatchedByOpcode() {
+        assertTrue(registry.dispatchBinary(null, Buffer.buffer(new byte[]{0x03, 0x02})));
+        assertFalse(registry.dispatchBinary(null, Buffer.buffer(new byte[]{0x7F})));
+
+        assertEquals(listOf(TrafficClass.MOVEMENT), charged);
+        assertEquals(listOf("opcode:2"), handled);
+    }
+
+    private boolean dispatch(String line) {
+        Buffer frame = Buffer.buffer(line);
+        return registry.dispatch(null, frame, 0, frame.length());
+    }
+
+    @SafeVarargs
+    private static <T> List<T> listOf(T... values) {
+        List<T> list = new ArrayList<>();
+        for (T value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,107 @@
+package com.gameserver.game;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * EntityStore的句柄代数和紧密排列测试
+ */
+public class EntityStoreTest {
+    private EntityStore<String> store;
+
+    @Before
+    public void setUp() {
+        store = new EntityStore<>();
+    }
+
+    @Test
+    public void reusedSlotGetsNewGeneration() {
+        int old = store.create("old");
+        assertTrue(store.destroy(old));
+
+        int reused = store.create("new");
+
+        assertNotEquals(old, reused);
+        assertFalse(store.isAlive(old));
+        assertTrue(store.isAlive(reused));
+        // 旧句柄不能销毁占用同一槽位的新实体
+        assertFalse(store.destroy(old));
+        assertEquals("new", store.getOwner(store.indexOf(reused)));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    public void generationWrapsWithoutProducingNone() {
+        int first = store.create("first");
+        store.destroy(first);
+
+        int previous = first;
+        for (int i = 0; i < 5000; i++) {
+            int handle = store.create("again");
+            assertNotEquals(EntityStore.NONE, handle);
+            assertNotEquals(previous, handle);
+            assertFalse(store.isAlive(previous));
+            store.destroy(handle);
+            previous = handle;
+        }
+        assertFalse(store.isAlive(EntityStore.NONE));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void destroyMovesLastEntityIntoHole() {
+        int a = store.create("a");
+        int b = store.create("b");
+        int c = store.create("c");
+        store.setPosition(store.indexOf(a), 1, 1);
+        store.setPosition(store.indexOf(b), 2, 2);
+        store.setPosition(store.indexOf(c), 3, 3);
+
+        store.destroy(a);
+
+        assertEquals(2, store.size());
+        int index = store.indexOf(c);
+        assertEquals(0, index);
+        assertEquals("c", store.getOwner(index));
+        assertEquals(3, store.getX(index));
+        assertEquals(3, store.getY(index));
+        assertEquals(2, store.getX(store.indexOf(b)));
+    }
+
+    @Test
+    public void growsPastInitialCapacity() {
+        int[] handles = new int[200];
+        for (int i = 0; i < handles.length; i++) {
+            handles[i] = store.create("e" + i);
+            store.setPosition(store.indexOf(handles[i]), i, -i);
+        }
+        for (int i = 0; i < handles.length; i += 2) {
+            store.destroy(handles[i]);
+        }
+
+        assertEquals(100, store.size());
+        for (int i = 1; i < handles.length; i += 2) {
+            int index = store.indexOf(handles[i]);
+            assertEquals("e" + i, store.getOwner(index));
+            assertEquals(i, store.getX(index));
+            assertEquals(-i, store.getY(index));
+        }
+    }
+
+    @Test
+    public void newEntityStartsAtOrigin() {
+        int old = store.create("old");
+        store.setPosition(store.indexOf(old), 7, 8);
+        store.destroy(old);
+
+        int fresh = store.create("fresh");
+
+        assertEquals(0, store.getX(store.indexOf(fresh)));
+        assertEquals(0, store.getY(store.indexOf(fresh)));
+    }
+}
@@ -0,0 +1,138 @@
+package com.gameserver.net;
+
+import io.vertx.core.buffer.Buffer;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * FrameDecoder的粘包、拆包和非法帧测试
+ */
+public class FrameDecoderTest {
+    private final List<String> frames = new ArrayList<>();
+    private final List<Throwable> errors = new ArrayList<>();
+
+    @Test
+    public void lineSplitAcrossChunksIsReassembled() {
+        FrameDecoder decoder = decoder(FramingMode.LINE, 64);
+
+        decoder.handle(text("hel"));
+        decoder.handle(text("lo\nwor"));
+        decoder.handle(text("ld\r\n"));
+
+        assertEquals(listOf("hello", "world"), frames);
+    }
+
+    @Test
+    public void coalescedLinesAreSplit() {
+        FrameDecoder decoder = decoder(FramingMode.LINE, 64);
+
+        decoder.handle(text("a\nb\r\n\nc\n"));
+
+        assertEquals(listOf("a", "b", "", "c"), frames);
+    }
+
+    @Test
+    public void scanResumesAfterBytesAlreadyChecked() {
+        FrameDecoder decoder = decoder(FramingMode.LINE, 64);
+
+        // 不完整的帧尾部被保留后，新数据里的换行符仍然要被找到
+        decoder.handle(text("x\nab"));
+        decoder.handle(text("c"));
+        decoder.handle(text("d\ne"));
+        decoder.handle(text("\n"));
+
+        assertEquals(listOf("x", "abcd", "e"), frames);
+    }
+
+    @Test
+    public void lineLongerThanLimitFailsAndStopsDecoding() {
+        FrameDecoder decoder = decoder(FramingMode.LINE, 4);
+
+        decoder.handle(text("ok\nabc"));
+        decoder.handle(text("de"));
+        decoder.handle(text("\nlater\n"));
+
+        assertEquals(listOf("ok"), frames);
+        assertEquals(1, errors.size());
+    }
+
+    @Test
+    public void completeLineLongerThanLimitFails() {
+        FrameDecoder decoder = decoder(FramingMode.LINE, 4);
+
+        decoder.handle(text("abcdef\nok\n"));
+
+        assertTrue(frames.isEmpty());
+        assertEquals(1, errors.size());
+    }
+
+    @Test
+    public void lengthPrefixedFrameSplitInsideLengthField() {
+        FrameDecoder decoder = decoder(FramingMode.LENGTH_PREFIXED, 64);
+        Buffer data = Buffer.buffer().appendInt(5).appendString("hello").appendInt(2).appendString("hi");
+
+        for (int i = 0; i < data.length(); i++) {
+            decoder.handle(data.getBuffer(i, i + 1));
+        }
+
+        assertEquals(listOf("hello", "hi"), frames);
+        assertTrue(errors.isEmpty());
+    }
+
+    @Test
+    public void coalescedLengthPrefixedFramesAreSplit() {
+        FrameDecoder decoder = decoder(FramingMode.LENGTH_PREFIXED, 64);
+
+        decoder.handle(Buffer.buffer().appendInt(1).appendString("a").appendInt(0).appendInt(3).appendString("b\nc")
+                .appendInt(4).appendString("pa"));
+        decoder.handle(text("rt"));
+
+        assertEquals(listOf("a", "", "b\nc", "part"), frames);
+    }
+
+    @Test
+    public void negativeLengthFails() {
+        FrameDecoder decoder = decoder(FramingMode.LENGTH_PREFIXED, 64);
+
+        decoder.handle(Buffer.buffer().appendInt(1).appendString("a").appendInt(-1).appendString("junk"));
+        decoder.handle(Buffer.buffer().appendInt(1).appendString("b"));
+
+        assertEquals(listOf("a"), frames);
+        assertEquals(1, errors.size());
+    }
+
+    @Test
+    public void lengthOverLimitFailsBeforeBodyArrives() {
+        FrameDecoder decoder = decoder(FramingMode.LENGTH_PREFIXED, 64);
+
+        decoder.handle(Buffer.buffer().appendInt(65));
+
+        assertTrue(frames.isEmpty());
+        assertEquals(1, errors.size());
+    }
+
+    private FrameDecoder decoder(FramingMode mode, int maxFrameSize) {
+        // 帧是slice，只在回调中有效，立即转换为字符串
+        return new FrameDecoder(mode, maxFrameSize, frame -> frames.add(frame.toString(StandardCharsets.UTF_8)))
+                .exceptionHandler(errors::add);
+    }
+
+    private static Buffer text(String value) {
+        return Buffer.buffer(value);
+    }
+
+    @SafeVarargs
+    private static <T> List<T> listOf(T... values) {
+        List<T> list = new ArrayList<>();
+        for (T value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+}
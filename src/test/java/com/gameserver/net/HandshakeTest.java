@@ -0,0 +1,169 @@
+package com.gameserver.net;
+
+import com.gameserver.protocol.ProtocolInfo;
+import io.vertx.core.buffer.Buffer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Handshake的协商规则和HandshakeDecoder的旧客户端回退、长度上限测试
+ */
+public class HandshakeTest {
+    private final List<Handshake> completed = new ArrayList<>();
+    private final List<Throwable> errors = new ArrayList<>();
+    private HandshakeDecoder decoder;
+
+    @Before
+    public void setUp() {
+        decoder = new HandshakeDecoder(FramingMode.LINE)
+                .completionHandler(completed::add)
+                .exceptionHandler(errors::add);
+    }
+
+    @Test
+    public void binaryFormatForcesLengthPrefixedFraming() {
+        Handshake handshake = Handshake.parse("HELLO 1 format=binary framing=line compression=deflate", FramingMode.LINE);
+
+        assertTrue(handshake.isNegotiated());
+        assertEquals(WireFormat.BINARY, handshake.getWireFormat());
+        assertEquals(FramingMode.LENGTH_PREFIXED, handshake.getFramingMode());
+        assertEquals(Compression.DEFLATE, handshake.getCompression());
+        assertEquals("HELLO 1 format=binary framing=length compression=deflate", handshake.toReply());
+    }
+
+    @Test
+    public void compressionRequiresLengthPrefixedFraming() {
+        Handshake handshake = Handshake.parse("HELLO 1 compression=deflate", FramingMode.LINE);
+
+        assertEquals(WireFormat.TEXT, handshake.getWireFormat());
+        assertEquals(FramingMode.LINE, handshake.getFramingMode());
+        assertEquals(Compression.NONE, handshake.getCompression());
+    }
+
+    @Test
+    public void unknownOptionsAreIgnoredAndVersionIsCapped() {
+        Handshake handshake = Handshake.parse("HELLO 99 color=blue format=xml framing", FramingMode.LENGTH_PREFIXED);
+
+        assertEquals(WireFormat.TEXT, handshake.getWireFormat());
+        assertEquals(FramingMode.LENGTH_PREFIXED, handshake.getFramingMode());
+        assertEquals(ProtocolInfo.VERSION, handshake.getVersion());
+        assertEquals("HELLO " + ProtocolInfo.VERSION + " format=text framing=length compression=none", handshake.toReply());
+    }
+
+    @Test
+    public void malformedRequestsAreRejected() {
+        String[] requests = {"HELLO", "HI 1", "HELLO one", "HELLO " + (Handshake.MIN_SUPPORTED_VERSION - 1)};
+        for (String request : requests) {
+            try {
+                Handshake.parse(request, FramingMode.LINE);
+                fail("应当拒绝: " + request);
+            } catch (IllegalArgumentException e) {
+                // 预期
+            }
+        }
+    }
+
+    @Test
+    public void clientWithoutHandshakeFallsBackToLegacy() {
+        decoder.handle(text("/say hi\n"));
+
+        assertEquals(1, completed.size());
+        Handshake handshake = completed.get(0);
+        assertFalse(handshake.isNegotiated());
+        assertEquals(0, handshake.getVersion());
+        assertEquals(WireFormat.TEXT, handshake.getWireFormat());
+        assertEquals(FramingMode.LINE, handshake.getFramingMode());
+        // 已收到的数据全部交给帧解码器
+        assertEquals("/say hi\n", remaining());
+    }
+
+    @Test
+    public void partialPrefixThatDivergesFallsBackWithAllData() {
+        decoder.handle(text("HEL"));
+        assertTrue(completed.isEmpty());
+
+        decoder.handle(text("P me\n"));
+
+        assertEquals(1, completed.size());
+        assertFalse(completed.get(0).isNegotiated());
+        assertEquals("HELP me\n", remaining());
+    }
+
+    @Test
+    public void handshakeSplitAcrossChunksKeepsTrailingData() {
+        decoder.handle(text("HELLO 1 form"));
+        decoder.handle(text("at=binary\r\n"));
+        decoder.handle(text("ignored"));
+
+        assertEquals(1, completed.size());
+        assertTrue(completed.get(0).isNegotiated());
+        assertEquals(WireFormat.BINARY, completed.get(0).getWireFormat());
+        // 完成后到达的数据由帧解码器直接接收，不再经过握手解码器
+        assertEquals("", remaining());
+    }
+
+    @Test
+    public void dataAfterHandshakeLineIsKept() {
+        decoder.handle(text("HELLO 1\n/list\n"));
+
+        assertEquals(1, completed.size());
+        assertEquals("/list\n", remaining());
+    }
+
+    @Test
+    public void requestLongerThan256BytesWithoutNewlineFails() {
+        StringBuilder request = new StringBuilder("HELLO 1 ");
+        while (request.length() <= 200) {
+            request.append('x');
+        }
+        decoder.handle(text(request.toString()));
+        assertTrue(errors.isEmpty());
+        assertTrue(completed.isEmpty());
+
+        while (request.length() <= 300) {
+            request.append('x');
+        }
+        decoder.handle(text(request.substring(201)));
+        decoder.handle(text("\n"));
+
+        assertEquals(1, errors.size());
+        assertTrue(completed.isEmpty());
+    }
+
+    @Test
+    public void invalidRequestFailsWithoutCompleting() {
+        decoder.handle(text("HELLO abc\n"));
+
+        assertEquals(1, errors.size());
+        assertTrue(completed.isEmpty());
+    }
+
+    @Test
+    public void timeoutFallsBackToLegacyOnce() {
+        decoder.handle(text("HELLO 1"));
+        decoder.timeout();
+        decoder.timeout();
+        decoder.handle(text("\n"));
+
+        assertEquals(1, completed.size());
+        assertFalse(completed.get(0).isNegotiated());
+        assertEquals("HELLO 1", remaining());
+    }
+
+    private String remaining() {
+        return decoder.remaining().toString(StandardCharsets.UTF_8);
+    }
+
+    private static Buffer text(String value) {
+        return Buffer.buffer(value);
+    }
+}
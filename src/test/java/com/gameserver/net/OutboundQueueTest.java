@@ -0,0 +1,251 @@
+package com.gameserver.net;
+
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.WriteStream;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * OutboundQueue的丢弃策略、发送顺序、慢速连接检测和主动关闭测试
+ * socket和定时器用动态代理模拟，只实现队列用到的方法
+ */
+public class OutboundQueueTest {
+    private final List<Buffer> written = new ArrayList<>();
+    private final Map<Long, Handler<Long>> timers = new LinkedHashMap<>();
+    private boolean writeQueueFull;
+    private Handler<Void> drainHandler;
+    private long nextTimerId;
+    private int slowConsumerCount;
+
+    private Vertx vertx;
+    private WriteStream<Buffer> socket;
+
+    @Before
+    public void setUp() {
+        vertx = fakeVertx();
+        socket = fakeSocket();
+    }
+
+    @Test
+    public void writesDirectlyWhenIdle() {
+        OutboundQueue queue = queue(2, 2);
+        Buffer frame = frame("a");
+
+        queue.enqueue(frame, DeliveryPolicy.DROP_OLDEST);
+
+        assertEquals(listOf(frame), written);
+        assertTrue(queue.isEmpty());
+        assertTrue(timers.isEmpty());
+    }
+
+    @Test
+    public void dropsOldestDroppableWhenFull() {
+        OutboundQueue queue = queue(2, 2);
+        Buffer first = frame("1");
+        Buffer second = frame("2");
+        Buffer third = frame("3");
+        writeQueueFull = true;
+
+        queue.enqueue(first, DeliveryPolicy.DROP_OLDEST);
+        queue.enqueue(second, DeliveryPolicy.DROP_OLDEST);
+        queue.enqueue(third, DeliveryPolicy.DROP_OLDEST);
+        drain();
+
+        assertEquals(1, queue.getDroppedCount());
+        assertEquals(listOf(second, third), written);
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void keepsOrderAcrossDroppableAndReliable() {
+        OutboundQueue queue = queue(4, 4);
+        Buffer move1 = frame("move1");
+        Buffer chat1 = frame("chat1");
+        Buffer move2 = frame("move2");
+        Buffer chat2 = frame("chat2");
+        writeQueueFull = true;
+
+        queue.enqueue(move1, DeliveryPolicy.DROP_OLDEST);
+        queue.enqueue(chat1, DeliveryPolicy.NEVER_DROP);
+        queue.enqueue(move2, DeliveryPolicy.DROP_OLDEST);
+        queue.enqueue(chat2, DeliveryPolicy.NEVER_DROP);
+        drain();
+
+        assertEquals(listOf(move1, chat1, move2, chat2), written);
+        // 清空后积压定时器被取消
+        assertTrue(timers.isEmpty());
+    }
+
+    @Test
+    public void newFramesWaitBehindBacklogEvenIfSocketIsWritable() {
+        OutboundQueue queue = queue(4, 4);
+        Buffer queued = frame("queued");
+        Buffer later = frame("later");
+        writeQueueFull = true;
+        queue.enqueue(queued, DeliveryPolicy.NEVER_DROP);
+
+        writeQueueFull = false;
+        queue.enqueue(later, DeliveryPolicy.NEVER_DROP);
+        assertFalse(queue.writeIfIdle(frame("ping")));
+        drain();
+
+        assertEquals(listOf(queued, later), written);
+        assertTrue(queue.writeIfIdle(frame("ping")));
+    }
+
+    @Test
+    public void stalledQueueDisconnectsOnce() {
+        OutboundQueue queue = queue(4, 4);
+        writeQueueFull = true;
+        queue.enqueue(frame("a"), DeliveryPolicy.NEVER_DROP);
+        queue.enqueue(frame("b"), DeliveryPolicy.DROP_OLDEST);
+        assertEquals(1, timers.size());
+
+        fireTimers();
+        queue.enqueue(frame("c"), DeliveryPolicy.NEVER_DROP);
+        drain();
+
+        assertEquals(1, slowConsumerCount);
+        assertTrue(queue.isEmpty());
+        assertTrue(written.isEmpty());
+    }
+
+    @Test
+    public void tooManyReliableFramesDisconnect() {
+        OutboundQueue queue = queue(4, 2);
+        writeQueueFull = true;
+
+        queue.enqueue(frame("a"), DeliveryPolicy.NEVER_DROP);
+        queue.enqueue(frame("b"), DeliveryPolicy.NEVER_DROP);
+        assertEquals(0, slowConsumerCount);
+        queue.enqueue(frame("c"), DeliveryPolicy.NEVER_DROP);
+
+        assertEquals(1, slowConsumerCount);
+        assertTrue(timers.isEmpty());
+    }
+
+    @Test
+    public void closeAfterFlushClosesAtOnceWhenIdle() {
+        OutboundQueue queue = queue(4, 4);
+        int[] closed = {0};
+
+        queue.closeAfterFlush(v -> closed[0]++);
+        queue.enqueue(frame("late"), DeliveryPolicy.NEVER_DROP);
+
+        assertEquals(1, closed[0]);
+        assertTrue(written.isEmpty());
+    }
+
+    @Test
+    public void closeAfterFlushWaitsForBacklog() {
+        OutboundQueue queue = queue(4, 4);
+        Buffer notice = frame("kicked");
+        int[] closed = {0};
+        writeQueueFull = true;
+        queue.enqueue(notice, DeliveryPolicy.NEVER_DROP);
+
+        queue.closeAfterFlush(v -> closed[0]++);
+        queue.enqueue(frame("late"), DeliveryPolicy.NEVER_DROP);
+        assertEquals(0, closed[0]);
+
+        drain();
+
+        assertEquals(listOf(notice), written);
+        assertEquals(1, closed[0]);
+        assertTrue(timers.isEmpty());
+    }
+
+    @Test
+    public void closeAfterFlushFallsBackToSlowConsumerWhenStalled() {
+        OutboundQueue queue = queue(4, 4);
+        int[] closed = {0};
+        writeQueueFull = true;
+        queue.enqueue(frame("kicked"), DeliveryPolicy.NEVER_DROP);
+        queue.closeAfterFlush(v -> closed[0]++);
+
+        fireTimers();
+
+        assertEquals(1, slowConsumerCount);
+        assertEquals(0, closed[0]);
+    }
+
+    private OutboundQueue queue(int maxDroppable, int maxReliable) {
+        return new OutboundQueue(vertx, socket, maxDroppable, maxReliable, 1000, v -> slowConsumerCount++);
+    }
+
+    private void drain() {
+        writeQueueFull = false;
+        drainHandler.handle(null);
+    }
+
+    private void fireTimers() {
+        List<Handler<Long>> due = new ArrayList<>(timers.values());
+        timers.clear();
+        for (Handler<Long> handler : due) {
+            handler.handle(0L);
+        }
+    }
+
+    private static Buffer frame(String text) {
+        return Buffer.buffer(text);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Handler<Long> timerHandler(Object handler) {
+        return (Handler<Long>) handler;
+    }
+
+    private Vertx fakeVertx() {
+        return (Vertx) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Vertx.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "setTimer":
+                    long id = nextTimerId++;
+                    timers.put(id, timerHandler(args[1]));
+                    return id;
+                case "cancelTimer":
+                    return timers.remove((Long) args[0]) != null;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private WriteStream<Buffer> fakeSocket() {
+        return (WriteStream<Buffer>) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{WriteStream.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "write":
+                    written.add((Buffer) args[0]);
+                    return proxy;
+                case "writeQueueFull":
+                    return writeQueueFull;
+                case "drainHandler":
+                    drainHandler = (Handler<Void>) args[0];
+                    return proxy;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    @SafeVarargs
+    private static <T> List<T> listOf(T... values) {
+        List<T> list = new ArrayList<>();
+        for (T value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+}
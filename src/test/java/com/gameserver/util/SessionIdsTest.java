@@ -0,0 +1,96 @@
+package com.gameserver.util;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * SessionIds的延迟回收、分片前缀和令牌编码测试
+ */
+public class SessionIdsTest {
+    // 与SessionIds.REUSE_DELAY一致
+    private static final int REUSE_DELAY = 1024;
+
+    @Test
+    public void releasedIdIsNotReusedUntilDelayPasses() {
+        SessionIds ids = new SessionIds(0);
+        int[] released = new int[REUSE_DELAY + 1];
+        for (int i = 0; i < released.length; i++) {
+            released[i] = ids.allocate();
+        }
+
+        Set<Integer> releasedSet = new HashSet<>();
+        for (int i = 0; i < REUSE_DELAY; i++) {
+            ids.release(released[i]);
+            releasedSet.add(released[i]);
+            // 回收队列未超过延迟时分配新ID
+            assertFalse(releasedSet.contains(ids.allocate()));
+        }
+
+        ids.release(released[REUSE_DELAY]);
+        // 回收队列超过延迟后按释放顺序重新分配
+        assertEquals(released[0], ids.allocate());
+        assertFalse(releasedSet.contains(ids.allocate()));
+    }
+
+    @Test
+    public void idsAreNeverZeroAndCarryShardPrefix() {
+        SessionIds first = new SessionIds(0);
+        SessionIds last = new SessionIds(SessionIds.MAX_SHARDS - 1);
+        Set<Integer> seen = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            int a = first.allocate();
+            int b = last.allocate();
+            assertNotEquals(0, a);
+            assertTrue(seen.add(a));
+            assertTrue(seen.add(b));
+        }
+    }
+
+    @Test
+    public void shardOutOfRangeIsRejected() {
+        int[] shards = {-1, SessionIds.MAX_SHARDS};
+        for (int shard : shards) {
+            try {
+                new SessionIds(shard);
+                fail("应当拒绝分片: " + shard);
+            } catch (IllegalArgumentException e) {
+                // 预期
+            }
+        }
+    }
+
+    @Test
+    public void tokenRoundTripsThroughHexText() {
+        SessionIds ids = new SessionIds(3);
+        Set<Integer> tokens = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            int token = SessionIds.token(ids.allocate());
+            String text = SessionIds.format(token);
+
+            assertEquals(8, text.length());
+            assertEquals(text.toLowerCase(), text);
+            assertEquals(token, Integer.parseUnsignedInt(text, 16));
+            // 混淆是双射，不同的ID得到不同的令牌
+            assertTrue(tokens.add(token));
+        }
+    }
+
+    @Test
+    public void consecutiveIdsDoNotGiveConsecutiveTokens() {
+        SessionIds ids = new SessionIds(0);
+        int previous = SessionIds.token(ids.allocate());
+        for (int i = 0; i < 100; i++) {
+            int token = SessionIds.token(ids.allocate());
+            assertNotEquals(previous + 1, token);
+            previous = token;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.gameserver.util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * TimingWheel的到期、取消和重新调度测试
+ * 时间轮有4个槽、每个tick 100毫秒，到期时间相差400毫秒的任务落在同一个槽中
+ */
+public class TimingWheelTest {
+    private final List<String> fired = new ArrayList<>();
+    private TimingWheel<String> wheel;
+
+    @Before
+    public void setUp() {
+        wheel = new TimingWheel<>(100, 4, 0, fired::add);
+    }
+
+    @Test
+    public void firesOnlyTasksDueInTheSharedBucket() {
+        wheel.schedule("now", 100);
+        wheel.schedule("nextRound", 500);
+
+        wheel.advance(499);
+        assertEquals(listOf("now"), fired);
+
+        wheel.advance(500);
+        assertEquals(listOf("now", "nextRound"), fired);
+    }
+
+    @Test
+    public void cancelHeadMiddleAndTailOfBucket() {
+        TimingWheel.Timeout<String> tail = wheel.schedule("tail", 100);
+        wheel.schedule("kept", 100);
+        TimingWheel.Timeout<String> middle = wheel.schedule("middle", 100);
+        wheel.schedule("alsoKept", 100);
+        TimingWheel.Timeout<String> head = wheel.schedule("head", 100);
+
+        wheel.cancel(middle);
+        wheel.cancel(head);
+        wheel.cancel(tail);
+        // 重复取消不影响同槽的其他任务
+        wheel.cancel(middle);
+        wheel.advance(1000);
+
+        assertEquals(listOf("alsoKept", "kept"), sorted(fired));
+    }
+
+    @Test
+    public void rescheduleWithinSameBucketMovesToLaterRound() {
+        TimingWheel.Timeout<String> moved = wheel.schedule("moved", 100);
+        wheel.schedule("stays", 100);
+
+        wheel.reschedule(moved, 500);
+        wheel.advance(100);
+        assertEquals(listOf("stays"), fired);
+
+        wheel.advance(500);
+        assertEquals(listOf("stays", "moved"), fired);
+    }
+
+    @Test
+    public void rescheduleAfterCancelOrExpiry() {
+        TimingWheel.Timeout<String> cancelled = wheel.schedule("cancelled", 100);
+        TimingWheel.Timeout<String> expired = wheel.schedule("expired", 100);
+        wheel.cancel(cancelled);
+        wheel.advance(100);
+        assertEquals(listOf("expired"), fired);
+
+        wheel.reschedule(cancelled, 300);
+        wheel.reschedule(expired, 200);
+        wheel.advance(300);
+
+        assertEquals(listOf("expired", "expired", "cancelled"), fired);
+    }
+
+    @Test
+    public void pastDeadlineFiresOnNextTick() {
+        wheel.advance(250);
+        wheel.schedule("late", 0);
+
+        wheel.advance(299);
+        assertTrue(fired.isEmpty());
+        wheel.advance(300);
+        assertEquals(listOf("late"), fired);
+    }
+
+    @Test
+    public void handlerMayRescheduleItsOwnTask() {
+        List<TimingWheel.Timeout<String>> timeouts = new ArrayList<>();
+        long[] now = {0};
+        wheel = new TimingWheel<>(100, 4, 0, item -> {
+            fired.add(item);
+            if (fired.size() < 3) {
+                wheel.reschedule(timeouts.get(0), now[0] + 100);
+            }
+        });
+        timeouts.add(wheel.schedule("repeat", 100));
+
+        for (now[0] = 100; now[0] <= 1000; now[0] += 100) {
+            wheel.advance(now[0]);
+        }
+
+        assertEquals(listOf("repeat", "repeat", "repeat"), fired);
+    }
+
+    private static List<String> sorted(List<String> values) {
+        List<String> copy = new ArrayList<>(values);
+        Collections.sort(copy);
+        return copy;
+    }
+
+    @SafeVarargs
+    private static <T> List<T> listOf(T... values) {
+        List<T> list = new ArrayList<>();
+        for (T value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+}
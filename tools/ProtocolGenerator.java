@@ -0,0 +1,436 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 二进制协议代码生成器
+ * 读取 protocol/game.schema，生成服务器使用的Java消息类和Unity客户端使用的C#编解码代码。
+ * 只依赖JDK，在项目根目录运行：
+ * <pre>
+ * javac -encoding UTF-8 -d target/tools tools/ProtocolGenerator.java
+ * java -cp target/tools ProtocolGenerator
+ * </pre>
+ * 可选参数依次为：schema路径、Java输出目录、C#输出文件。
+ */
+public class ProtocolGenerator {
+    private static final String HEADER = "// 由 tools/ProtocolGenerator.java 根据 protocol/game.schema 生成，请勿手工修改\n";
+    private static final String JAVA_PACKAGE = "com.gameserver.protocol";
+
+    private int version = -1;
+    private final List<MessageDef> messages = new ArrayList<>();
+
+    public static void main(String[] args) throws IOException {
+        Path schema = Paths.get(args.length > 0 ? args[0] : "protocol/game.schema");
+        Path javaDir = Paths.get(args.length > 1 ? args[1] : "src/main/java/com/gameserver/protocol");
+        Path csharpFile = Paths.get(args.length > 2 ? args[2] : "GameProtocol.cs");
+
+        ProtocolGenerator generator = new ProtocolGenerator();
+        generator.parse(Files.readAllLines(schema, StandardCharsets.UTF_8));
+
+        write(javaDir.resolve("ProtocolInfo.java"), generator.javaProtocolInfo());
+        for (MessageDef message : generator.messages) {
+            write(javaDir.resolve(message.javaClass() + ".java"), generator.javaMessage(message));
+        }
+        write(csharpFile, generator.csharp());
+        System.out.println("已生成 " + generator.messages.size() + " 条消息，协议版本 " + generator.version);
+    }
+
+    private static void write(Path path, String content) throws IOException {
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // ---------------------------------------------------------------- 解析
+
+    private void parse(List<String> lines) {
+        List<String> comments = new ArrayList<>();
+        MessageDef current = null;
+        int lineNo = 0;
+        for (String raw : lines) {
+            lineNo++;
+            String line = raw.trim();
+            if (line.isEmpty()) {
+                comments.clear();
+                current = null;
+                continue;
+            }
+            if (line.startsWith("#")) {
+                comments.add(line.substring(1).trim());
+                continue;
+            }
+
+            String[] tokens = line.split("\\s+");
+            if (tokens[0].equals("version") && tokens.length == 2) {
+                version = Integer.parseInt(tokens[1]);
+            } else if (tokens[0].equals("message") && tokens.length == 3) {
+                int opcode = Integer.decode(tokens[2]);
+                if (opcode < 0 || opcode > 0xFF) {
+                    throw error(lineNo, "操作码超出范围: " + tokens[2]);
+                }
+                for (MessageDef other : messages) {
+                    if (other.opcode == opcode || other.name.equals(tokens[1])) {
+                        throw error(lineNo, "重复的消息或操作码: " + line);
+                    }
+                }
+                current = new MessageDef(tokens[1], opcode, String.join(" ", comments));
+                messages.add(current);
+            } else if (current != null && tokens.length == 2 && FieldType.of(tokens[0]) != null) {
+                current.fields.add(new FieldDef(FieldType.of(tokens[0]), tokens[1]));
+            } else {
+                throw error(lineNo, "无法识别: " + line);
+            }
+            comments.clear();
+        }
+        if (version < 0) {
+            throw new IllegalStateException("schema缺少version声明");
+        }
+    }
+
+    private static IllegalStateException error(int lineNo, String message) {
+        return new IllegalStateException("第" + lineNo + "行: " + message);
+    }
+
+    // ---------------------------------------------------------------- Java
+
+    private String javaProtocolInfo() {
+        StringBuilder out = new StringBuilder(HEADER);
+        out.append("package ").append(JAVA_PACKAGE).append(";\n\n")
+                .append("/**\n * 二进制协议信息\n */\n")
+                .append("public final class ProtocolInfo {\n")
+                .append("    /**\n     * 协议版本\n     */\n")
+                .append("    public static final int VERSION = ").append(version).append(";\n\n")
+                .append("    private ProtocolInfo() {\n    }\n")
+                .append("}\n");
+        return out.toString();
+    }
+
+    private String javaMessage(MessageDef message) {
+        String cls = message.javaClass();
+        StringBuilder out = new StringBuilder(HEADER);
+        out.append("package ").append(JAVA_PACKAGE).append(";\n\n");
+        out.append("/**\n * ").append(message.doc.isEmpty() ? message.name : message.doc).append("\n */\n");
+        out.append("public final class ").append(cls).append(" implements ProtocolMessage {\n");
+        out.append("    public static final int OPCODE = ").append(hex(message.opcode)).append(";\n");
+        if (!message.fields.isEmpty()) {
+            out.append("\n");
+        }
+        for (FieldDef field : message.fields) {
+            out.append("    private final ").append(field.type.javaType).append(' ').append(field.name).append(";\n");
+        }
+
+        // 构造方法
+        out.append("\n    public ").append(cls).append('(');
+        for (int i = 0; i < message.fields.size(); i++) {
+            FieldDef field = message.fields.get(i);
+            out.append(i > 0 ? ", " : "").append(field.type.javaType).append(' ').append(field.name);
+        }
+        out.append(") {\n");
+        for (FieldDef field : message.fields) {
+            out.append("        this.").append(field.name).append(" = ").append(field.name).append(";\n");
+        }
+        out.append("    }\n\n");
+
+        // 解码
+        out.append("    /**\n     * 读取操作码之后的字段\n     * @param reader 读取器\n     * @return 消息\n     */\n");
+        out.append("    public static ").append(cls).append(" decode(ProtocolReader reader) {\n");
+        out.append("        return new ").append(cls).append('(');
+        for (int i = 0; i < message.fields.size(); i++) {
+            out.append(i > 0 ? ", " : "").append("reader.").append(message.fields.get(i).type.javaRead).append("()");
+        }
+        out.append(");\n    }\n");
+
+        for (FieldDef field : message.fields) {
+            out.append("\n    public ").append(field.type.javaType).append(' ')
+                    .append("get").append(capitalize(field.name))
+                    .append("() {\n        return ").append(field.name).append(";\n    }\n");
+        }
+
+        out.append("\n    @Override\n    public int opcode() {\n        return OPCODE;\n    }\n");
+        out.append("\n    @Override\n    public void encode(ProtocolWriter writer) {\n");
+        out.append("        writer.writeU8(OPCODE);\n");
+        for (FieldDef field : message.fields) {
+            out.append("        writer.").append(field.type.javaWrite).append('(').append(field.name).append(");\n");
+        }
+        out.append("    }\n}\n");
+        return out.toString();
+    }
+
+    // ---------------------------------------------------------------- C#
+
+    private String csharp() {
+        StringBuilder out = new StringBuilder(HEADER);
+        out.append("using System;\nusing System.Text;\n\n");
+        out.append("namespace GameServer.Protocol\n{\n");
+        out.append("    /// <summary>\n    /// 二进制协议信息\n    /// </summary>\n");
+        out.append("    public static class ProtocolInfo\n    {\n");
+        out.append("        public const int Version = ").append(version).append(";\n    }\n\n");
+        out.append(CSHARP_RUNTIME);
+
+        for (MessageDef message : messages) {
+            String cls = message.javaClass();
+            out.append("\n    /// <summary>\n    /// ").append(message.doc.isEmpty() ? message.name : message.doc)
+                    .append("\n    /// </summary>\n");
+            out.append("    public sealed class ").append(cls).append("\n    {\n");
+            out.append("        public const byte Opcode = ").append(hex(message.opcode)).append(";\n");
+            if (!message.fields.isEmpty()) {
+                out.append("\n");
+            }
+            for (FieldDef field : message.fields) {
+                out.append("        public ").append(field.type.csharpType).append(' ')
+                        .append(capitalize(field.name)).append(";\n");
+            }
+
+            out.append("\n        public ").append(cls).append('(');
+            for (int i = 0; i < message.fields.size(); i++) {
+                FieldDef field = message.fields.get(i);
+                out.append(i > 0 ? ", " : "").append(field.type.csharpType).append(' ').append(field.name);
+            }
+            out.append(")\n        {\n");
+            for (FieldDef field : message.fields) {
+                out.append("            ").append(capitalize(field.name)).append(" = ").append(field.name).append(";\n");
+            }
+            out.append("        }\n\n");
+
+            out.append("        /// <summary>\n        /// 读取操作码之后的字段\n        /// </summary>\n");
+            out.append("        public static ").append(cls).append(" Decode(ProtocolReader reader)\n        {\n");
+            out.append("            return new ").append(cls).append('(');
+            for (int i = 0; i < message.fields.size(); i++) {
+                out.append(i > 0 ? ", " : "").append("reader.").append(message.fields.get(i).type.csharpRead).append("()");
+            }
+            out.append(");\n        }\n\n");
+
+            out.append("        public void Encode(ProtocolWriter writer)\n        {\n");
+            out.append("            writer.WriteU8(Opcode);\n");
+            for (FieldDef field : message.fields) {
+                out.append("            writer.").append(field.type.csharpWrite).append('(')
+                        .append(capitalize(field.name)).append(");\n");
+            }
+            out.append("        }\n    }\n");
+        }
+        out.append("}\n");
+        return out.toString();
+    }
+
+    private static final String CSHARP_RUNTIME =
+            "    /// <summary>\n"
+            + "    /// 二进制消息格式错误\n"
+            + "    /// </summary>\n"
+            + "    public class ProtocolException : Exception\n"
+            + "    {\n"
+            + "        public ProtocolException(string message) : base(message) { }\n"
+            + "    }\n"
+            + "\n"
+            + "    /// <summary>\n"
+            + "    /// 写入器，可通过Reset重复使用以避免每条消息分配缓冲区\n"
+            + "    /// </summary>\n"
+            + "    public sealed class ProtocolWriter\n"
+            + "    {\n"
+            + "        private byte[] buffer = new byte[64];\n"
+            + "        private int length;\n"
+            + "\n"
+            + "        public byte[] Buffer { get { return buffer; } }\n"
+            + "        public int Length { get { return length; } }\n"
+            + "\n"
+            + "        public void Reset()\n"
+            + "        {\n"
+            + "            length = 0;\n"
+            + "        }\n"
+            + "\n"
+            + "        public void WriteU8(byte value)\n"
+            + "        {\n"
+            + "            EnsureCapacity(1);\n"
+            + "            buffer[length++] = value;\n"
+            + "        }\n"
+            + "\n"
+            + "        public void WriteVarInt(int value)\n"
+            + "        {\n"
+            + "            EnsureCapacity(5);\n"
+            + "            uint v = (uint)value;\n"
+            + "            while (v >= 0x80)\n"
+            + "            {\n"
+            + "                buffer[length++] = (byte)(v | 0x80);\n"
+            + "                v >>= 7;\n"
+            + "            }\n"
+            + "            buffer[length++] = (byte)v;\n"
+            + "        }\n"
+            + "\n"
+            + "        public void WriteVarLong(long value)\n"
+            + "        {\n"
+            + "            EnsureCapacity(10);\n"
+            + "            ulong v = (ulong)value;\n"
+            + "            while (v >= 0x80)\n"
+            + "            {\n"
+            + "                buffer[length++] = (byte)(v | 0x80);\n"
+            + "                v >>= 7;\n"
+            + "            }\n"
+            + "            buffer[length++] = (byte)v;\n"
+            + "        }\n"
+            + "\n"
+            + "        public void WriteString(string value)\n"
+            + "        {\n"
+            + "            string s = value ?? \"\";\n"
+            + "            int byteCount = Encoding.UTF8.GetByteCount(s);\n"
+            + "            WriteVarInt(byteCount);\n"
+            + "            EnsureCapacity(byteCount);\n"
+            + "            length += Encoding.UTF8.GetBytes(s, 0, s.Length, buffer, length);\n"
+            + "        }\n"
+            + "\n"
+            + "        private void EnsureCapacity(int extra)\n"
+            + "        {\n"
+            + "            if (length + extra > buffer.Length)\n"
+            + "            {\n"
+            + "                Array.Resize(ref buffer, Math.Max(buffer.Length * 2, length + extra));\n"
+            + "            }\n"
+            + "        }\n"
+            + "    }\n"
+            + "\n"
+            + "    /// <summary>\n"
+            + "    /// 读取器，直接在接收缓冲区上按顺序读取字段\n"
+            + "    /// </summary>\n"
+            + "    public sealed class ProtocolReader\n"
+            + "    {\n"
+            + "        private readonly byte[] data;\n"
+            + "        private readonly int end;\n"
+            + "        private int position;\n"
+            + "\n"
+            + "        public ProtocolReader(byte[] data, int offset, int count)\n"
+            + "        {\n"
+            + "            this.data = data;\n"
+            + "            this.position = offset;\n"
+            + "            this.end = offset + count;\n"
+            + "        }\n"
+            + "\n"
+            + "        public byte ReadU8()\n"
+            + "        {\n"
+            + "            Require(1);\n"
+            + "            return data[position++];\n"
+            + "        }\n"
+            + "\n"
+            + "        public int ReadVarInt()\n"
+            + "        {\n"
+            + "            uint value = 0;\n"
+            + "            for (int shift = 0; shift < 35; shift += 7)\n"
+            + "            {\n"
+            + "                byte b = ReadU8();\n"
+            + "                value |= (uint)(b & 0x7F) << shift;\n"
+            + "                if ((b & 0x80) == 0)\n"
+            + "                {\n"
+            + "                    return (int)value;\n"
+            + "                }\n"
+            + "            }\n"
+            + "            throw new ProtocolException(\"变长整数超过5字节\");\n"
+            + "        }\n"
+            + "\n"
+            + "        public long ReadVarLong()\n"
+            + "        {\n"
+            + "            ulong value = 0;\n"
+            + "            for (int shift = 0; shift < 70; shift += 7)\n"
+            + "            {\n"
+            + "                byte b = ReadU8();\n"
+            + "                value |= (ulong)(b & 0x7F) << shift;\n"
+            + "                if ((b & 0x80) == 0)\n"
+            + "                {\n"
+            + "                    return (long)value;\n"
+            + "                }\n"
+            + "            }\n"
+            + "            throw new ProtocolException(\"变长长整数超过10字节\");\n"
+            + "        }\n"
+            + "\n"
+            + "        public string ReadString()\n"
+            + "        {\n"
+            + "            int count = ReadVarInt();\n"
+            + "            if (count < 0)\n"
+            + "            {\n"
+            + "                throw new ProtocolException(\"字符串长度不合法: \" + count);\n"
+            + "            }\n"
+            + "            Require(count);\n"
+            + "            string value = Encoding.UTF8.GetString(data, position, count);\n"
+            + "            position += count;\n"
+            + "            return value;\n"
+            + "        }\n"
+            + "\n"
+            + "        private void Require(int count)\n"
+            + "        {\n"
+            + "            if (end - position < count)\n"
+            + "            {\n"
+            + "                throw new ProtocolException(\"消息被截断\");\n"
+            + "            }\n"
+            + "        }\n"
+            + "    }\n";
+
+    // ---------------------------------------------------------------- 模型
+
+    private static String hex(int opcode) {
+        return String.format("0x%02X", opcode);
+    }
+
+    private static String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private enum FieldType {
+        U8("u8", "int", "readU8", "writeU8", "byte", "ReadU8", "WriteU8"),
+        VARINT("varint", "int", "readVarInt", "writeVarInt", "int", "ReadVarInt", "WriteVarInt"),
+        VARLONG("varlong", "long", "readVarLong", "writeVarLong", "long", "ReadVarLong", "WriteVarLong"),
+        STRING("string", "String", "readString", "writeString", "string", "ReadString", "WriteString");
+
+        final String schemaName;
+        final String javaType;
+        final String javaRead;
+        final String javaWrite;
+        final String csharpType;
+        final String csharpRead;
+        final String csharpWrite;
+
+        FieldType(String schemaName, String javaType, String javaRead, String javaWrite,
+                  String csharpType, String csharpRead, String csharpWrite) {
+            this.schemaName = schemaName;
+            this.javaType = javaType;
+            this.javaRead = javaRead;
+            this.javaWrite = javaWrite;
+            this.csharpType = csharpType;
+            this.csharpRead = csharpRead;
+            this.csharpWrite = csharpWrite;
+        }
+
+        static FieldType of(String schemaName) {
+            for (FieldType type : values()) {
+                if (type.schemaName.equals(schemaName.toLowerCase(Locale.ROOT))) {
+                    return type;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class FieldDef {
+        final FieldType type;
+        final String name;
+
+        FieldDef(FieldType type, String name) {
+            this.type = type;
+            this.name = name;
+        }
+    }
+
+    private static final class MessageDef {
+        final String name;
+        final int opcode;
+        final String doc;
+        final List<FieldDef> fields = new ArrayList<>();
+
+        MessageDef(String name, int opcode, String doc) {
+            this.name = name;
+            this.opcode = opcode;
+            this.doc = doc;
+        }
+
+        String javaClass() {
+            return name + "Message";
+        }
+    }
+}